@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Synthetic data of the benchmarks: archives, .ria chatbot files, key/value files,
+ * installation trees and version strings. The content is generated from a fixed seed
+ * so every run of a benchmark works on the same bytes.
+ */
+public final class BenchData {
+    private static final long SEED = 0x43_34_55_53L;
+    private static final String[] WORDS = {
+        "chat", "bot", "route", "node", "message", "answer", "question", "user", "session", "reply", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+        "server", "client", "token", "value", "setting", "option", "language", "model", "prompt", "state" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$
+    };
+
+    private BenchData() { }
+
+    /**
+     * Archive shapes: many small entries like an application tree, or a few huge ones
+     * like the bundled runtime and database
+     */
+    public static enum Layout {
+        MANY_SMALL(2000, 4 * 1024),
+        FEW_HUGE(4, 16 * 1024 * 1024);
+
+        public final int entries;
+        public final int entrySize;
+
+        Layout(int entries, int entrySize) {
+            this.entries = entries;
+            this.entrySize = entrySize;
+        }
+    }
+
+    /**
+     * Content of the entries: half text, half random bytes, so DEFLATED entries
+     * compress about as much as an application archive does
+     * @param random The generator
+     * @param size The content size
+     * @return The content
+     */
+    public static byte[] content(Random random, int size) {
+        byte[] data = new byte[size];
+        int i = 0;
+        while (i < size) {
+            if (random.nextBoolean()) {
+                byte[] word = (WORDS[random.nextInt(WORDS.length)] + ' ').getBytes(StandardCharsets.US_ASCII);
+                int n = Math.min(word.length, size - i);
+                System.arraycopy(word, 0, data, i, n);
+                i += n;
+            } else data[i++] = (byte)random.nextInt(256);
+        }
+        return data;
+    }
+
+    /**
+     * @param index The entry index
+     * @return The name of an archive entry, spread over 16 folders
+     */
+    public static String entryName(int index) {
+        return "app/dir-" + (index % 16) + "/file-" + index + ".bin"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    /**
+     * Creates an archive
+     * @param file The archive to create or replace
+     * @param layout The entries count and size
+     * @param method ZipEntry.STORED or ZipEntry.DEFLATED
+     * @return The archive
+     * @throws IOException If the archive can't be written
+     */
+    public static Path archive(Path file, Layout layout, int method) throws IOException {
+        Random random = new Random(SEED);
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(file))) {
+            zos.setMethod(method);
+            for (int i = 0; i < layout.entries; i++) {
+                byte[] data = content(random, layout.entrySize);
+                ZipEntry entry = new ZipEntry(entryName(i));
+                entry.setMethod(method);
+                if (method == ZipEntry.STORED) { // Stored entries need their sizes and crc first
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    entry.setSize(data.length);
+                    entry.setCompressedSize(data.length);
+                    entry.setCrc(crc.getValue());
+                }
+                zos.putNextEntry(entry);
+                zos.write(data);
+                zos.closeEntry();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Creates a .ria chatbot file
+     * @param file The file to create or replace
+     * @param nodes The number of route nodes
+     * @return The file
+     * @throws IOException If the file can't be written
+     */
+    public static Path riaFile(Path file, int nodes) throws IOException {
+        Random random = new Random(SEED);
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n"); //$NON-NLS-1$
+            w.write("<route>\n  <info>\n    <name>bench</name>\n    <version>0.5.14</version>\n  </info>\n  <nodes>\n"); //$NON-NLS-1$
+            for (int i = 0; i < nodes; i++) {
+                w.write("    <node id=\"" + i + "\" type=\"message\" next=\"" + random.nextInt(nodes) + "\">\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                w.write("      <text>" + sentence(random, 12) + "</text>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+                w.write("      <answer lang=\"en\">" + sentence(random, 8) + "</answer>\n    </node>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            w.write("  </nodes>\n</route>\n"); //$NON-NLS-1$
+        }
+        return file;
+    }
+
+    /**
+     * Creates a key/value settings file with a comment every 20 lines
+     * @param file The file to create or replace
+     * @param lines The number of key/value lines
+     * @return The file
+     * @throws IOException If the file can't be written
+     */
+    public static Path pairFile(Path file, int lines) throws IOException {
+        Random random = new Random(SEED);
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                if (i % 20 == 0)
+                    w.write("# " + sentence(random, 6) + '\n'); //$NON-NLS-1$
+                w.write("key." + i + '=' + sentence(random, 3) + '\n'); //$NON-NLS-1$
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Creates an installation tree: chatbots/bot-N/ folders, each with a .ria file,
+     * a settings file and a log
+     * @param root The installation folder
+     * @param bots The number of chatbot folders
+     * @param nodes The route nodes of each .ria file
+     * @return The installation folder
+     * @throws IOException If the tree can't be written
+     */
+    public static Path installation(Path root, int bots, int nodes) throws IOException {
+        Random random = new Random(SEED);
+        Path chatbots = Files.createDirectories(root.resolve("chatbots")); //$NON-NLS-1$
+        for (int i = 0; i < bots; i++) {
+            Path bot = Files.createDirectories(chatbots.resolve("bot-" + i)); //$NON-NLS-1$
+            riaFile(bot.resolve("flow.ria"), nodes); //$NON-NLS-1$
+            pairFile(bot.resolve("settings.cfg"), 20); //$NON-NLS-1$
+            try (OutputStream os = Files.newOutputStream(Files.createDirectories(bot.resolve("log")).resolve("chat.log"))) { //$NON-NLS-1$ //$NON-NLS-2$
+                os.write(content(random, 1024));
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Generates version strings the way releases are numbered: plain, short, with
+     * pre-release labels, build metadata or a fourth part
+     * @param count The number of versions
+     * @return The versions
+     */
+    public static List<String> versions(int count) {
+        Random random = new Random(SEED);
+        List<String> versions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int major = random.nextInt(3), minor = random.nextInt(10), patch = random.nextInt(20);
+            versions.add(switch (random.nextInt(5)) {
+                case 0 -> major + "." + minor; //$NON-NLS-1$
+                case 1 -> major + "." + minor + "." + patch + "-beta." + random.nextInt(5); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                case 2 -> major + "." + minor + "." + patch + "-rc" + random.nextInt(3) + "+build." + random.nextInt(100); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                case 3 -> major + "." + minor + "." + patch + "." + random.nextInt(10); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                default -> major + "." + minor + "." + patch; //$NON-NLS-1$ //$NON-NLS-2$
+            });
+        }
+        return versions;
+    }
+
+    /**
+     * Copies a file over another one, the benchmarks editing in place restore their input with it
+     * @param source The pristine file
+     * @param target The file to replace
+     * @throws IOException If the copy fails
+     */
+    public static void restore(Path source, Path target) throws IOException {
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0)
+                sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
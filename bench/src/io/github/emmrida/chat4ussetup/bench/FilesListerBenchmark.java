@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.bench;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.emmrida.chat4ussetup.util.FilesLister;
+import io.github.emmrida.chat4ussetup.util.Helper;
+
+/**
+ * The update.cfg section paths resolved against installation trees of several sizes:
+ * a plain file, a one level wildcard and a '**' pattern, then the three of them
+ * listed alone and within one update run sharing the folder listings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilesListerBenchmark {
+    @Param({ "50", "500" })
+    public int bots;
+
+    private String root;
+    private String plainPath;
+    private String wildcardPath;
+    private String recursivePath;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        root = BenchData.installation(Files.createTempDirectory("chat4us-bench-lister-"), bots, 10).toString(); //$NON-NLS-1$
+        plainPath = root + File.separator + "chatbots" + File.separator + "bot-0" + File.separator + "settings.cfg"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        wildcardPath = root + File.separator + "chatbots" + File.separator + "*" + File.separator + "flow.ria"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        recursivePath = root + File.separator + "chatbots" + File.separator + "**" + File.separator + "*.log"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Helper.deleteFolderTree(root);
+    }
+
+    @Benchmark
+    public List<String> plain() {
+        return FilesLister.listFiles(plainPath);
+    }
+
+    @Benchmark
+    public List<String> wildcard() {
+        return FilesLister.listFiles(wildcardPath);
+    }
+
+    @Benchmark
+    public List<String> recursive() {
+        return FilesLister.listFiles(recursivePath);
+    }
+
+    @Benchmark
+    public void sections(Blackhole bh) {
+        bh.consume(FilesLister.listFiles(wildcardPath));
+        bh.consume(FilesLister.listFiles(recursivePath));
+        bh.consume(FilesLister.listFiles(wildcardPath));
+    }
+
+    @Benchmark
+    public void sectionsInRun(Blackhole bh) {
+        FilesLister.beginRun();
+        try {
+            bh.consume(FilesLister.listFiles(wildcardPath));
+            bh.consume(FilesLister.listFiles(recursivePath));
+            bh.consume(FilesLister.listFiles(wildcardPath));
+        } finally {
+            FilesLister.endRun();
+        }
+    }
+}
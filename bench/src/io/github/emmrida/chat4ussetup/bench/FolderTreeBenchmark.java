@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.emmrida.chat4ussetup.util.Helper;
+
+/**
+ * Deletion of installation trees, as done before an install or a recovery and by an
+ * uninstall. Each call deletes a tree created beforehand, so single shots are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class FolderTreeBenchmark {
+    @Param({ "20", "500" })
+    public int bots;
+
+    private Path parent;
+    private Path tree;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        parent = Files.createTempDirectory("chat4us-bench-delete-"); //$NON-NLS-1$
+    }
+
+    @Setup(Level.Iteration)
+    public void createTree() throws IOException {
+        tree = BenchData.installation(parent.resolve("install"), bots, 10); //$NON-NLS-1$
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Helper.deleteFolderTree(parent.toString());
+    }
+
+    @Benchmark
+    public boolean deleteFolderTree() {
+        return Helper.deleteFolderTree(tree.toString());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.emmrida.chat4ussetup.util.Helper;
+import io.github.emmrida.chat4ussetup.util.Helper.KeyValue;
+import io.github.emmrida.chat4ussetup.util.PairFileEditor;
+import io.github.emmrida.chat4ussetup.util.SetupEngine;
+import io.github.emmrida.chat4ussetup.util.SetupEngine.Operation;
+
+/**
+ * The update.cfg [pair:...] sections on key/value files. processPairTasks is private,
+ * it is measured through an update run holding only a pair: section, next to the
+ * editor alone on the same files. The files are restored before each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PairUpdateBenchmark {
+    private static final String SECTION = "pair:conf/*.cfg"; //$NON-NLS-1$
+    private static final List<KeyValue> TASKS = List.of(
+            new KeyValue("add", "bench.added=true"), //$NON-NLS-1$ //$NON-NLS-2$
+            new KeyValue("update", "key.10=updated value"), //$NON-NLS-1$ //$NON-NLS-2$
+            new KeyValue("update", "key.50=updated value"), //$NON-NLS-1$ //$NON-NLS-2$
+            new KeyValue("remove", "key.20")); //$NON-NLS-1$ //$NON-NLS-2$
+
+    @Param({ "1", "50" })
+    public int files;
+
+    @Param({ "100", "5000" })
+    public int lines;
+
+    private Path root;
+    private Path pristine;
+    private final List<Path> targets = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("chat4us-bench-pair-"); //$NON-NLS-1$
+        pristine = BenchData.pairFile(root.resolve("pristine.txt"), lines); //$NON-NLS-1$
+        Path conf = Files.createDirectories(root.resolve("conf")); //$NON-NLS-1$
+        targets.clear();
+        for (int i = 0; i < files; i++)
+            targets.add(conf.resolve("site-" + i + ".cfg")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() throws IOException {
+        for (Path target : targets)
+            BenchData.restore(pristine, target);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Helper.deleteFolderTree(root.toString());
+    }
+
+    @Benchmark
+    public boolean engineUpdate() {
+        SetupEngine engine = new SetupEngine(Operation.UPDATE, root.toString(), null);
+        engine.setUpdate(Map.of(SECTION, TASKS));
+        return engine.run();
+    }
+
+    @Benchmark
+    public int editor() throws IOException {
+        PairFileEditor editor = new PairFileEditor(TASKS);
+        int edited = 0;
+        for (Path target : targets)
+            if (editor.edit(target.toString()))
+                edited++;
+        return edited;
+    }
+}
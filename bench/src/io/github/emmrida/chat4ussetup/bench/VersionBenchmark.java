@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.emmrida.chat4ussetup.util.Version;
+import io.github.emmrida.chat4ussetup.util.VersionComparator;
+
+/**
+ * Version comparisons of consecutive generated versions: the former string splitting
+ * comparator, {@link VersionComparator} going through the Version cache, and versions
+ * parsed beforehand. Times and allocations are per comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionBenchmark {
+    private static final int COUNT = 1024;
+
+    private String[] texts;
+    private Version[] versions;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        texts = BenchData.versions(COUNT + 1).toArray(new String[0]);
+        versions = new Version[texts.length];
+        for (int i = 0; i < texts.length; i++)
+            versions[i] = Version.parse(texts[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void legacyComparator(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++)
+            bh.consume(LegacyVersionComparator.compareVersions(texts[i], texts[i + 1]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void versionComparator(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++)
+            bh.consume(VersionComparator.compareVersions(texts[i], texts[i + 1]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void parsedVersions(Blackhole bh) {
+        for (int i = 0; i < COUNT; i++)
+            bh.consume(versions[i].compareTo(versions[i + 1]));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.emmrida.chat4ussetup.util.Helper;
+import io.github.emmrida.chat4ussetup.util.XMLEditor;
+import io.github.emmrida.chat4ussetup.util.XMLStreamEditor;
+
+/**
+ * The update.cfg [xml:...] operations on .ria files of several sizes, through the
+ * DOM editor and through the streaming editor used when the paths allow it.
+ * The file is restored before each call, the copy is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlEditorBenchmark {
+    // The operations of the update.cfg sample
+    private static final List<XMLEditor.Operation> OPS = List.of(
+            XMLEditor.Operation.parse("add", "/route/info/test_tag=value>attribute1=1>attribute2=2"), //$NON-NLS-1$ //$NON-NLS-2$
+            XMLEditor.Operation.parse("update", "/route/info/test_tag=value>attribute3=3"), //$NON-NLS-1$ //$NON-NLS-2$
+            XMLEditor.Operation.parse("update", "/route/info/version=0.5.15"), //$NON-NLS-1$ //$NON-NLS-2$
+            XMLEditor.Operation.parse("remove", "/route/info/name")); //$NON-NLS-1$ //$NON-NLS-2$
+
+    @Param({ "100", "2000", "20000" })
+    public int nodes;
+
+    private Path folder;
+    private Path pristine;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        folder = Files.createTempDirectory("chat4us-bench-xml-"); //$NON-NLS-1$
+        pristine = BenchData.riaFile(folder.resolve("pristine.ria"), nodes); //$NON-NLS-1$
+        file = folder.resolve("flow.ria"); //$NON-NLS-1$
+        if (!XMLStreamEditor.supports(OPS))
+            throw new IllegalStateException("Streaming editor rejects the operations"); //$NON-NLS-1$
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() throws Exception {
+        BenchData.restore(pristine, file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Helper.deleteFolderTree(folder.toString());
+    }
+
+    @Benchmark
+    public String domOpen() throws Exception {
+        XMLEditor editor = new XMLEditor();
+        editor.openFile(file.toString());
+        return editor.getElementValue("/route/info/version"); //$NON-NLS-1$
+    }
+
+    @Benchmark
+    public boolean domEdit() throws Exception {
+        XMLEditor editor = new XMLEditor();
+        editor.openFile(file.toString());
+        for (XMLEditor.Operation op : OPS)
+            editor.apply(op);
+        editor.save();
+        return editor.isModified();
+    }
+
+    @Benchmark
+    public boolean streamEdit() throws Exception {
+        return new XMLStreamEditor(OPS).edit(file.toString());
+    }
+}
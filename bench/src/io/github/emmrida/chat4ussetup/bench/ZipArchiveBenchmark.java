@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.emmrida.chat4ussetup.util.Helper;
+import io.github.emmrida.chat4ussetup.util.IoScheduler;
+import io.github.emmrida.chat4ussetup.util.ZipArchiveHandler;
+
+/**
+ * Archive extraction, test and creation on many small or a few huge entries,
+ * stored or deflated. The extractions overwrite the same folder on each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZipArchiveBenchmark {
+    @Param({ "MANY_SMALL", "FEW_HUGE" })
+    public BenchData.Layout layout;
+
+    @Param({ "STORED", "DEFLATED" })
+    public String method;
+
+    private Path folder;
+    private String archive;
+    private String extracted;
+    private String middleEntry;
+    private IoScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("chat4us-bench-zip-"); //$NON-NLS-1$
+        int zipMethod = "STORED".equals(method) ? ZipEntry.STORED : ZipEntry.DEFLATED; //$NON-NLS-1$
+        archive = BenchData.archive(folder.resolve("archive.zip"), layout, zipMethod).toString(); //$NON-NLS-1$
+        middleEntry = BenchData.entryName(layout.entries / 2);
+        extracted = folder.resolve("source").toString(); //$NON-NLS-1$
+        if (!new ZipArchiveHandler(archive).extractTo(extracted))
+            throw new IOException(archive);
+        scheduler = new IoScheduler();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.close();
+        Helper.deleteFolderTree(folder.toString());
+    }
+
+    @Benchmark
+    public boolean extractTo() {
+        return new ZipArchiveHandler(archive).extractTo(folder.resolve("out").toString()); //$NON-NLS-1$
+    }
+
+    @Benchmark
+    public boolean extractFile() {
+        return new ZipArchiveHandler(archive).extractFile(middleEntry, folder.resolve("entry.bin").toString()); //$NON-NLS-1$
+    }
+
+    @Benchmark
+    public boolean testArchive() {
+        return new ZipArchiveHandler(archive).testArchive();
+    }
+
+    // Always deflates, the method parameter only changes how the source folder was extracted
+    @Benchmark
+    public boolean createZip() {
+        return new ZipArchiveHandler(folder.resolve("created.zip").toString()).createZip(extracted); //$NON-NLS-1$
+    }
+
+    // The bundle extraction, inflating and writing on separate pools
+    @Benchmark
+    public boolean schedulerExtractTo() {
+        return scheduler.extractTo(archive, folder.resolve("scheduled").toString(), null); //$NON-NLS-1$
+    }
+}
@@ -132,7 +132,7 @@ public class FolderSelection extends JPanel implements WizardStep {
 		updateSize();
 		String projectName = MainWindow.getPreference(MainWindow.APP_NAME) + " v" + MainWindow.getPreference(MainWindow.APP_VERSION); //$NON-NLS-1$
 		if(MainWindow.getOpType()==OpType.INSTALL) {
-			taMessage.setText(String.format(Messages.getString("FolderSelection.INSTALL_MSG"), projectName)); //$NON-NLS-1$
+			taMessage.setText(Messages.format("FolderSelection.INSTALL_MSG", projectName)); //$NON-NLS-1$
 			if(tfFolder.getText().isEmpty()) {
 				String installFolder = System.getProperty("user.home") + ("/Programs/"+MainWindow.getPreference(MainWindow.DST_FOLDER_NAME)).replace('/', File.separatorChar); //$NON-NLS-1$ //$NON-NLS-2$
 				tfFolder.setText(installFolder);
@@ -141,18 +141,18 @@ public class FolderSelection extends JPanel implements WizardStep {
 			tfFolder.setEditable(true);
 			btnBrowse.setEnabled(true);
 		} else if(MainWindow.getOpType()==OpType.UPDATE) {
-			taMessage.setText(String.format(Messages.getString("FolderSelection.UPDATE_MSG"), projectName)); //$NON-NLS-1$
+			taMessage.setText(Messages.format("FolderSelection.UPDATE_MSG", projectName)); //$NON-NLS-1$
 			tfFolder.setText(Paths.get((String)MainWindow.getPreference(MainWindow.DESTINATION_FOLDER)).toString());
 			tfFolder.setEditable(false);
 			btnBrowse.setEnabled(false);
 			// TODO : Update space required for update.
 		} else if(MainWindow.getOpType()==OpType.RECOVER) {
-			taMessage.setText(String.format(Messages.getString("FolderSelection.RECOVER_MSG"), projectName)); //$NON-NLS-1$
+			taMessage.setText(Messages.format("FolderSelection.RECOVER_MSG", projectName)); //$NON-NLS-1$
             tfFolder.setText(Paths.get((String)MainWindow.getPreference(MainWindow.DESTINATION_FOLDER)).toString());
             tfFolder.setEditable(true);
             btnBrowse.setEnabled(true);
 		} else if(MainWindow.getOpType()==OpType.UNINSTALL) {
-    		taMessage.setText(String.format(Messages.getString("FolderSelection.UNINSTALL_MSG"), projectName)); //$NON-NLS-1$
+    		taMessage.setText(Messages.format("FolderSelection.UNINSTALL_MSG", projectName)); //$NON-NLS-1$
             tfFolder.setText(Paths.get(MainWindow.getPreference(MainWindow.DESTINATION_FOLDER).toString()).toString());
             tfFolder.setEditable(false);
             btnBrowse.setEnabled(false);
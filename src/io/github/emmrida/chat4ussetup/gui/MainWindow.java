@@ -22,34 +22,35 @@ import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 
 import java.awt.Font;
-import java.awt.Point;
+import java.awt.ComponentOrientation;
 import java.awt.Toolkit;
 
 import javax.swing.LayoutStyle.ComponentPlacement;
 import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.GraphicsEnvironment;
 import java.awt.Component;
 import java.awt.CardLayout;
 import javax.swing.border.MatteBorder;
 
 import io.github.emmrida.chat4ussetup.util.Helper;
 import io.github.emmrida.chat4ussetup.util.Messages;
+import io.github.emmrida.chat4ussetup.util.SetupCli;
+import io.github.emmrida.chat4ussetup.util.Tombstones;
 import io.github.emmrida.chat4ussetup.util.Helper.KeyValue;
 
 import javax.swing.UIManager;
 import javax.swing.JSeparator;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.function.Supplier;
 import java.awt.event.ActionListener;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.awt.event.ActionEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
@@ -74,6 +75,7 @@ public class MainWindow {
 	public static final String APP_RUNNABLE					= "app_runnable";	 // Jar name //$NON-NLS-1$
 	public static final String INSTALLED_APP_VERSION		= "installed_app_version"; //$NON-NLS-1$
 	public static final String MINIMUM_VERSION_UPDATE		= "minimum_version_update"; // Minimum installed jar version to update //$NON-NLS-1$
+	public static final String APPLICABLE_VERSIONS			= "applicable_versions"; // List of VersionRange the installed version must be in to update //$NON-NLS-1$
 	public static final String AVAILABLE_SPACE				= "available_space"; //$NON-NLS-1$
 	public static final String REQUIRED_SIZE				= "required_size"; //$NON-NLS-1$
 	public static final String CREATE_DESKTOP_ICON			= "create_desktop_icon"; //$NON-NLS-1$
@@ -86,7 +88,8 @@ public class MainWindow {
 
 	private int curStep;
 	private OpType opType;
-	private List<WizardStep> wzSteps;
+	private List<WizardStep> wzSteps; // null until the step is first shown
+	private List<Supplier<WizardStep>> wzStepFactories;
 	private Map<String, Object> wzPrefs;
 	private Map<String, List<KeyValue>> wzUpdate;
 
@@ -126,12 +129,12 @@ public class MainWindow {
 	}
 
 	/**
-     * Get the update entry set for the update wizard.
-     * Each Entry is a list of KeyValue strings of an update section. See update.cfg file for details.
-     * @return The update entry set.
-     */
-	public static Set<Entry<String, List<KeyValue>>> getUpdateEntrySet() {
-		return mainWindow.wzUpdate.entrySet();
+	 * Get the update sections for the update wizard, in the update.cfg order.
+	 * Each entry is a list of KeyValue strings of an update section. See update.cfg file for details.
+	 * @return The update sections.
+	 */
+	public static Map<String, List<KeyValue>> getUpdateSections() {
+		return mainWindow.wzUpdate;
 	}
 
 	/**
@@ -139,136 +142,92 @@ public class MainWindow {
 	 * @param lang Language code
 	 */
 	public static void onLanguageChanged(String lang) {
-		Point p = mainWindow.frmSetup.getLocation();
-		mainWindow.frmSetup.dispose();
-		Locale.setDefault(Locale.forLanguageTag(lang));
+		Messages.setLocale(Locale.forLanguageTag(lang));
 		JComponent.setDefaultLocale(Locale.getDefault());
-		mainWindow = new MainWindow();
-        mainWindow.frmSetup.setLocation(p);
-        mainWindow.frmSetup.setVisible(true);
+		// Later, the welcome step combo box that fired the change is replaced
+		SwingUtilities.invokeLater(() -> mainWindow.relocalize());
+	}
+
+	/**
+	 * Updates the texts of the frame in place, the loaded configuration is kept.
+	 * The language can only change on the welcome step, the wizard restarts there.
+	 */
+	private void relocalize() {
+		btnBack.setText(Messages.getString("MainWindow.BUTTON_BACK")); //$NON-NLS-1$
+		btnNext.setText(Messages.getString("MainWindow.BUTTON_NEXT")); //$NON-NLS-1$
+		btnInstall.setText(Messages.getString("MainWindow.BUTTON_INSTALL")); //$NON-NLS-1$
+		btnCancel.setText(Messages.getString("MainWindow.BUTTON_CANCEL")); //$NON-NLS-1$
+		frmSetup.applyComponentOrientation(Helper.isRTL(Locale.getDefault()) ? ComponentOrientation.RIGHT_TO_LEFT : ComponentOrientation.LEFT_TO_RIGHT);
+		panelStep.removeAll();
+		showIntroSteps();
+		frmSetup.revalidate();
+		frmSetup.repaint();
 	}
 
 	/**
 	 * Start the installation.
 	 */
 	public void startInstallation() {
-		wzUpdate.entrySet();
-		if(opType == OpType.INSTALL)
-			return;
-		int i = 0;
-		Iterator<WizardStep> it = wzSteps.iterator();
-		while(it.hasNext()) { // Remove all steps except the welcome and operation type selector
-			if(i > 1) {
-				it.remove();
-				i++;
-			}
-			it.next();
-		}
-		int n = wzSteps.size();
-		wzSteps.add(new LicenceAgreement());
-		wzSteps.add(new FolderSelection());
-		wzSteps.add(new TasksSelection());
-		wzSteps.add(new ProcessProgress());
-		wzSteps.add(new ProcessComplete());
-		for(i = n; i < wzSteps.size(); i++)
-			panelStep.add((Component)wzSteps.get(i), "step" + i); //$NON-NLS-1$
-		opType = OpType.INSTALL;
+		startOperation(OpType.INSTALL, List.of(LicenceAgreement::new, FolderSelection::new, TasksSelection::new, ProcessProgress::new, ProcessComplete::new));
 	}
 
 	/**
      * Start the update.
      */
 	public void startUpdate() {
-		if(opType == OpType.UPDATE)
-			return;
-		int i = 0;
-		Iterator<WizardStep> it = wzSteps.iterator();
-		while(it.hasNext()) { // Remove all steps except the welcome and operation type selector
-			if(i > 1) {
-				it.remove();
-				i++;
-			}
-			it.next();
-		}
-		int n = wzSteps.size();
-		wzSteps.add(new LicenceAgreement()); // In case when licence has changed
-		wzSteps.add(new FolderSelection());
-		wzSteps.add(new TasksSelection());
-		wzSteps.add(new ProcessProgress());
-		wzSteps.add(new ProcessComplete());
-		for(i = n; i < wzSteps.size(); i++)
-			panelStep.add((Component)wzSteps.get(i), "step" + i); //$NON-NLS-1$
-		opType = OpType.UPDATE;
+		// The licence step in case when licence has changed
+		startOperation(OpType.UPDATE, List.of(LicenceAgreement::new, FolderSelection::new, TasksSelection::new, ProcessProgress::new, ProcessComplete::new));
 	}
 
 	/**
      * Start the recovery.
      */
 	public void startRecovery() {
-		if(opType == OpType.RECOVER)
-			return;
-		int i = 0;
-		Iterator<WizardStep> it = wzSteps.iterator();
-		while(it.hasNext()) { // Remove all steps except the welcome and operation type selector
-			if(i > 1) {
-				it.remove();
-				i++;
-			}
-			it.next();
-		}
-		int n = wzSteps.size();
-		wzSteps.add(new FolderSelection());
-		wzSteps.add(new TasksSelection());
-		wzSteps.add(new ProcessProgress());
-		wzSteps.add(new ProcessComplete());
-		for(i = n; i < wzSteps.size(); i++)
-			panelStep.add((Component)wzSteps.get(i), "step" + i); //$NON-NLS-1$
-		opType = OpType.RECOVER;
+		startOperation(OpType.RECOVER, List.of(FolderSelection::new, TasksSelection::new, ProcessProgress::new, ProcessComplete::new));
 	}
 
 	/**
      * Start the uninstall.
      */
 	public void startUninstall() {
-		if(opType == OpType.UNINSTALL)
+		startOperation(OpType.UNINSTALL, List.of(FolderSelection::new, ProcessProgress::new, ProcessComplete::new));
+	}
+
+	/**
+	 * Replaces the steps after the operation selection with the steps of an operation.
+	 * The steps are built when first shown.
+	 * @param type The operation
+	 * @param steps The step factories
+	 */
+	private void startOperation(OpType type, List<Supplier<WizardStep>> steps) {
+		if(opType == type)
 			return;
-		int i = 0;
-		Iterator<WizardStep> it = wzSteps.iterator();
-		while(it.hasNext()) { // Remove all steps except the welcome and operation type selector
-			if(i > 1) {
-				it.remove();
-				i++;
-			}
-			it.next();
+		while(wzSteps.size() > 2) { // Remove all steps except the welcome and operation type selector
+			WizardStep step = wzSteps.remove(wzSteps.size() - 1);
+			wzStepFactories.remove(wzStepFactories.size() - 1);
+			if(step != null)
+				panelStep.remove((Component)step);
+		}
+		for(Supplier<WizardStep> factory : steps) {
+			wzSteps.add(null);
+			wzStepFactories.add(factory);
 		}
-		int n = wzSteps.size();
-		wzSteps.add(new FolderSelection());
-		wzSteps.add(new ProcessProgress());
-		wzSteps.add(new ProcessComplete());
-		for(i = n; i < wzSteps.size(); i++)
-			panelStep.add((Component)wzSteps.get(i), "step" + i); //$NON-NLS-1$
-		opType = OpType.UNINSTALL;
+		opType = type;
 	}
 
 	/**
-	 *  Load install.cfg
-	 * @return true on success
+	 * Returns a wizard step, built and added to the cards on first use
+	 * @param index The step index
+	 * @return The step
 	 */
-	private boolean loadInstallConfig() {
-		try(BufferedReader reader = new BufferedReader(new FileReader(new File("./setup/setup.cfg")))) { //$NON-NLS-1$
-			String line;
-			String[] parts;
-			while((line = reader.readLine()) != null) {
-				if(line.isBlank() || line.startsWith("#"))
-					continue;
-				parts = line.split("=", 2); //$NON-NLS-1$
-				setPreference(parts[0].trim(), parts[1].trim());
-			}
-			return true;
-		} catch (Exception ex) {
-			JOptionPane.showMessageDialog(frmSetup, Messages.getString("MainWindow.LOAD_INSTALL_CFG_FAILED") + ex.getMessage(), Messages.getString("MainWindow.MB_TITLE_ERROR"), JOptionPane.ERROR_MESSAGE); //$NON-NLS-1$ //$NON-NLS-2$
+	private WizardStep getStep(int index) {
+		WizardStep step = wzSteps.get(index);
+		if(step == null) {
+			step = wzStepFactories.get(index).get();
+			wzSteps.set(index, step);
+			panelStep.add((Component)step, "step" + index); //$NON-NLS-1$
 		}
-		return false;
+		return step;
 	}
 
 	/**
@@ -278,42 +237,41 @@ public class MainWindow {
 		mainWindow = this;
 		initialize();
 
-		wzPrefs = new HashMap<>();
-		wzUpdate = Helper.readConfigFile("./setup/update.cfg"); //$NON-NLS-1$
-		if(wzUpdate != null) {
-			List<KeyValue> versionSec = wzUpdate.get("version"); //$NON-NLS-1$
-			for(KeyValue pair : versionSec) {
-				if("minimum".equals(pair.key())) { //$NON-NLS-1$
-					MainWindow.setPreference(MINIMUM_VERSION_UPDATE, pair.value());
-					break;
-				}
-			}
-		}
-		if(!loadInstallConfig() || (wzUpdate == null)) {
+		// Parsed in the background since main started
+		Startup.Configs configs = Startup.start().join();
+		wzPrefs = new HashMap<>(configs.prefs());
+		wzUpdate = configs.update();
+		if(configs.setupError() != null)
+			JOptionPane.showMessageDialog(frmSetup, Messages.getString("MainWindow.LOAD_INSTALL_CFG_FAILED") + configs.setupError().getMessage(), Messages.getString("MainWindow.MB_TITLE_ERROR"), JOptionPane.ERROR_MESSAGE); //$NON-NLS-1$ //$NON-NLS-2$
+		if((configs.setupError() != null) || (wzUpdate == null)) {
 			JOptionPane.showMessageDialog(null, Messages.getString("MainWindow.ERROR_LOADING_CONFIGS"), Messages.getString("MainWindow.MB_TITLE_ERROR"), JOptionPane.ERROR_MESSAGE); //$NON-NLS-1$ //$NON-NLS-2$
 			frmSetup.dispose();
 			return;
 		}
-		wzSteps = new ArrayList<>();
-		wzSteps.add(new WelcomeStep());
-		wzSteps.add(new OperationSelection());
+		showIntroSteps();
+		lblIcon.setIcon(new ImageIcon(((String)wzPrefs.get(APP_ICON)).split(";")[0])); //$NON-NLS-1$
+	}
 
-		for(int i = 0; i < wzSteps.size(); i++)
-			panelStep.add((Component)wzSteps.get(i), "step" + i); //$NON-NLS-1$
+	/**
+	 * Shows the welcome and operation selection steps, built with the current language
+	 */
+	private void showIntroSteps() {
+		wzSteps = new ArrayList<>(Collections.nCopies(2, null));
+		wzStepFactories = new ArrayList<>(List.of(WelcomeStep::new, OperationSelection::new));
 
 		curStep = 0;
 		opType = OpType.INTRO;
+		WizardStep step = getStep(curStep);
 		CardLayout cl = (CardLayout) panelStep.getLayout();
 		cl.show(panelStep, "step" + curStep); //$NON-NLS-1$
 		btnBack.setVisible(false);
+		btnNext.setVisible(true);
 		btnInstall.setVisible(false);
-		WizardStep step = wzSteps.get(curStep);
 		lblStepTitle.setText(step.getTitle());
 		lblStepDescription.setText(step.getDescription());
 		step.onStepActivated(false);
 
 		frmSetup.setTitle(Messages.getString("MainWindow.TITLE_PREFIX") + (String)wzPrefs.get(APP_NAME) + " v" + (String)wzPrefs.get(APP_VERSION)); //$NON-NLS-1$ //$NON-NLS-2$
-		lblIcon.setIcon(new ImageIcon(((String)wzPrefs.get(APP_ICON)).split(";")[0])); //$NON-NLS-1$
 	}
 
 	/**
@@ -321,13 +279,21 @@ public class MainWindow {
 	 */
 	private void initialize() {
 		frmSetup = new JFrame();
+		frmSetup.setContentPane(new JPanel(new BorderLayout()) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public void paint(Graphics g) {
+				super.paint(g);
+				Startup.firstPaint();
+			}
+		});
 		frmSetup.setIconImage(Toolkit.getDefaultToolkit().getImage("./setup/setup.png")); //$NON-NLS-1$
 		frmSetup.addWindowListener(new WindowAdapter() {
 			@Override
 			public void windowClosing(WindowEvent e) {
 				boolean finish = "finish".equals(btnCancel.getClientProperty("role")); //$NON-NLS-1$ //$NON-NLS-2$
 				if(finish) {
-					WizardStep step = wzSteps.get(curStep);
+					WizardStep step = getStep(curStep);
 					step.onStepDeactivated(true);
 					frmSetup.dispose();
 				} else {
@@ -356,14 +322,14 @@ public class MainWindow {
 		btnBack.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
 				if(curStep > 0) {
-					WizardStep step = wzSteps.get(curStep);
+					WizardStep step = getStep(curStep);
 					step.onStepDeactivated(false);
+					step = getStep(--curStep);
 					CardLayout cl = (CardLayout) panelStep.getLayout();
-					cl.show(panelStep, "step" + (--curStep)); //$NON-NLS-1$
+					cl.show(panelStep, "step" + curStep); //$NON-NLS-1$
 					btnBack.setVisible(curStep > 0);
 					btnNext.setVisible(curStep < wzSteps.size() - 1);
 					btnInstall.setVisible(curStep == wzSteps.size() - 1);
-					step = wzSteps.get(curStep);
 					lblStepTitle.setText(step.getTitle());
 					lblStepDescription.setText(step.getDescription());
 					step.onStepActivated(false);
@@ -376,15 +342,15 @@ public class MainWindow {
 		btnNext.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
 				if(curStep < wzSteps.size()) {
-					WizardStep step = wzSteps.get(curStep);
+					WizardStep step = getStep(curStep);
 					if(step.validateStep()) {
 						step.onStepDeactivated(true);
+						step = getStep(++curStep);
 						CardLayout cl = (CardLayout) panelStep.getLayout();
-						cl.show(panelStep, "step" + (++curStep)); //$NON-NLS-1$
+						cl.show(panelStep, "step" + curStep); //$NON-NLS-1$
 						btnBack.setVisible(curStep > 0);
 						btnNext.setVisible(curStep < wzSteps.size() - 1);
 						btnInstall.setVisible(curStep == wzSteps.size() - 1);
-						step = wzSteps.get(curStep);
 						lblStepTitle.setText(step.getTitle());
 						lblStepDescription.setText(step.getDescription());
 						step.onStepActivated(true);
@@ -412,7 +378,7 @@ public class MainWindow {
 			public void actionPerformed(ActionEvent e) {
 				boolean finish = "finish".equals(btnCancel.getClientProperty("role")); //$NON-NLS-1$ //$NON-NLS-2$
 				if(finish) {
-					WizardStep step = wzSteps.get(curStep);
+					WizardStep step = getStep(curStep);
 					step.onStepDeactivated(true);
 					frmSetup.dispose();
 				} else { // Cancel
@@ -476,10 +442,44 @@ public class MainWindow {
 		Helper.enableRtlWhenNeeded(frmSetup);
 	}
 
+	/**
+	 * Runs the startup once for the class data sharing archive of the ant build, then exits.
+	 * Without a display only the classes loaded off the event dispatch thread are archived.
+	 */
+	private static void trainClassDataSharing() {
+		try {
+			Startup.start().join();
+			if(!GraphicsEnvironment.isHeadless()) {
+				EventQueue.invokeAndWait(() -> {
+					try {
+						UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+					} catch (Exception ex) {
+						ex.printStackTrace();
+					}
+					mainWindow = new MainWindow();
+					mainWindow.frmSetup.setVisible(true);
+				});
+				Startup.awaitFirstPaint(30_000);
+				EventQueue.invokeAndWait(() -> mainWindow.frmSetup.dispose());
+			}
+		} catch (Exception ex) {
+			ex.printStackTrace();
+		}
+		System.exit(0);
+	}
+
 	/**
 	 * Launch the application.
 	 */
 	public static void main(String[] args) {
+		if(SetupCli.isCommandLine(args)) {
+			System.exit(SetupCli.run(args)); // Unattended, no AWT
+		}
+		Startup.start(); // Messages, config files and installation lookup while Swing starts
+		if(args.length > 0 && "--cds-training".equals(args[0])) { //$NON-NLS-1$
+			trainClassDataSharing();
+			return;
+		}
 		EventQueue.invokeLater(new Runnable() {
 			public void run() {
 				try {
@@ -491,5 +491,6 @@ public class MainWindow {
 				}
 			}
 		});
+		Tombstones.cleanupLeftovers(); // Folders an interrupted run didn't finish deleting
 	}
 }
@@ -6,13 +6,15 @@ package io.github.emmrida.chat4ussetup.gui;
 
 import javax.swing.JPanel;
 
-import io.github.emmrida.chat4ussetup.util.AppLinkCreator;
+import io.github.emmrida.chat4ussetup.util.ArchivePreflight;
+import io.github.emmrida.chat4ussetup.util.InstallationDiscovery;
+import io.github.emmrida.chat4ussetup.util.InstallationDiscovery.Installation;
 import io.github.emmrida.chat4ussetup.util.CrossPlatformVersionReader;
 import io.github.emmrida.chat4ussetup.util.Helper;
 import io.github.emmrida.chat4ussetup.util.Messages;
-import io.github.emmrida.chat4ussetup.util.VersionComparator;
+import io.github.emmrida.chat4ussetup.util.SetupEngine;
+import io.github.emmrida.chat4ussetup.util.VersionRange;
 import io.github.emmrida.chat4ussetup.util.ZipArchiveHandler;
-import io.github.emmrida.chat4ussetup.util.ZipArchiveHandler.ProgressListener;
 import io.github.emmrida.chat4ussetup.util.ZipArchiveHandler.SizeInfo;
 
 import javax.swing.GroupLayout;
@@ -30,6 +32,8 @@ import javax.swing.JLabel;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
 
@@ -92,17 +96,20 @@ public class OperationSelection extends JPanel implements WizardStep {
 			MainWindow.getInstance().startUpdate();
 			String curVersion = (String)MainWindow.getPreference(MainWindow.INSTALLED_APP_VERSION);
 			String minVersion = (String)MainWindow.getPreference(MainWindow.MINIMUM_VERSION_UPDATE);
-			if(minVersion != null && curVersion != null && VersionComparator.compareVersions(minVersion, curVersion, true) <= 0) {
-				if(VersionComparator.compareVersions(curVersion, (String)MainWindow.getPreference(MainWindow.APP_VERSION), true) < 0) {
-					MainWindow.getInstance().startUpdate();
+			@SuppressWarnings("unchecked")
+			List<VersionRange> ranges = (List<VersionRange>)MainWindow.getPreference(MainWindow.APPLICABLE_VERSIONS);
+			switch(SetupEngine.checkUpdate(curVersion, (String)MainWindow.getPreference(MainWindow.APP_VERSION), minVersion, ranges)) {
+				case OK:
 					return true;
-				} else {
+				case NOT_APPLICABLE:
+					JOptionPane.showMessageDialog(MainWindow.getMainFrame(), Messages.format("OperationSelection.MB_MSG_VERSION_NOT_APPLICABLE", curVersion), Messages.getString("OperationSelection.MB_TITLE_ERROR"), JOptionPane.INFORMATION_MESSAGE); //$NON-NLS-1$ //$NON-NLS-2$
+					return false;
+				case UP_TO_DATE:
 					JOptionPane.showMessageDialog(MainWindow.getMainFrame(), Messages.getString("OperationSelection.MB_MSG_LATEST_UPDATE_FOUND"), Messages.getString("OperationSelection.MB_TITLE_INFORMATION"), JOptionPane.INFORMATION_MESSAGE); //$NON-NLS-1$ //$NON-NLS-2$
 					return false;
-				}
-			} else {
-				JOptionPane.showMessageDialog(MainWindow.getMainFrame(), Messages.getString("OperationSelection.MB_MSG_TOO_OLD_TO_UPDATE"), Messages.getString("OperationSelection.MB_TITLE_ERROR"), JOptionPane.INFORMATION_MESSAGE); //$NON-NLS-1$ //$NON-NLS-2$
-				return false;
+				case TOO_OLD:
+					JOptionPane.showMessageDialog(MainWindow.getMainFrame(), Messages.getString("OperationSelection.MB_MSG_TOO_OLD_TO_UPDATE"), Messages.getString("OperationSelection.MB_TITLE_ERROR"), JOptionPane.INFORMATION_MESSAGE); //$NON-NLS-1$ //$NON-NLS-2$
+					return false;
 			}
 		} else if(rbtnRecover.isSelected()) {
 			int ret = JOptionPane.showConfirmDialog(MainWindow.getMainFrame(), Messages.getString("OperationSelection.MB_MSG_RECOVER_CONFIRM"), Messages.getString("OperationSelection.MB_TITLE_CONFIRM"), JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE); //$NON-NLS-1$ //$NON-NLS-2$
@@ -127,7 +134,7 @@ public class OperationSelection extends JPanel implements WizardStep {
 		MainWindow.getInstallButton().setVisible(false);
 		MainWindow.getNextButton().setVisible(true);
 
-		String linkFolder = AppLinkCreator.readAppParentFolder((String)MainWindow.getPreference(MainWindow.APP_NAME));
+		String linkFolder = getInstallation().folder();
 		if(linkFolder != null) {
 			MainWindow.setPreference(MainWindow.DESTINATION_FOLDER, linkFolder);
 		} else {
@@ -143,6 +150,14 @@ public class OperationSelection extends JPanel implements WizardStep {
 	@Override
 	public void onStepDeactivated(boolean nextClicked) { }
 
+	/**
+	 * Returns the current installation, discovered once per session
+	 * @return The installation, its folder is null when the application is not installed
+	 */
+	private static Installation getInstallation() {
+		return InstallationDiscovery.get((String)MainWindow.getPreference(MainWindow.APP_NAME), (String)MainWindow.getPreference(MainWindow.APP_RUNNABLE));
+	}
+
 	/**
 	 * Tests the archive for corruption and retrieves its uncompressed size
 	 * @param zipFile The path to the archive
@@ -159,11 +174,12 @@ public class OperationSelection extends JPanel implements WizardStep {
 				progressBar.setIndeterminate(true);
 			});
 			try {
-				ZipArchiveHandler zip = new ZipArchiveHandler(zipFile);
-				SizeInfo info = zip.calculateSizes();
+				final Installation installation = getInstallation(); // Off the EDT, reused below
+				ArchivePreflight preflight = ArchivePreflight.of(zipFile); // The setup archive is already checked since the first paint
+				SizeInfo info = preflight.sizes().join();
 				if(info.uncompressedSize <= 0) {
 					SwingUtilities.invokeLater(() -> {
-						String linkFolder = AppLinkCreator.readAppParentFolder((String)MainWindow.getPreference(MainWindow.APP_NAME));
+						String linkFolder = installation.folder();
 						progressBar.setIndeterminate(false);
 						rbtnInstall.setEnabled(true);
 						rbtnUpdate.setEnabled(linkFolder != null);
@@ -181,19 +197,17 @@ public class OperationSelection extends JPanel implements WizardStep {
 					progressBar.setMaximum((int)info.uncompressedSize);
 					progressBar.setValue(0);
 				});
-				zip.setProgressListener(new ProgressListener() {
-					int progress = 0;
-					@Override
-					public void onProgress(int blockSize) {
-						progress += blockSize;
+				while(true) {
+					try {
+						archiveTested = preflight.tested().get(100, TimeUnit.MILLISECONDS);
+						break;
+					} catch (TimeoutException ex) { // Still reading, show where the test is
+						int progress = (int)preflight.progress();
 						SwingUtilities.invokeLater(() -> progressBar.setValue(progress));
 					}
-					@Override
-					public void onFileCreated(String name) { }
-				});
-				archiveTested = zip.testArchive();
+				}
 				SwingUtilities.invokeLater(() -> {
-					String linkFolder = AppLinkCreator.readAppParentFolder((String)MainWindow.getPreference(MainWindow.APP_NAME));
+					String linkFolder = installation.folder();
 					progressBar.setMaximum(100);
 					progressBar.setValue(progressBar.getMaximum());
 					lblSrcArchiveState.setText(lblSrcArchiveState.getClientProperty("text").toString() + Messages.getString("OperationSelection.LBL_ARC_TST_OK")); //$NON-NLS-1$ //$NON-NLS-2$
@@ -203,19 +217,20 @@ public class OperationSelection extends JPanel implements WizardStep {
 					rbtnUninstall.setEnabled(archiveTested && linkFolder != null);
 				});
 
-				String linkFolder = AppLinkCreator.readAppParentFolder((String)MainWindow.getPreference(MainWindow.APP_NAME));
+				String linkFolder = installation.folder();
 				if(linkFolder != null)
 					MainWindow.setPreference(MainWindow.DESTINATION_FOLDER, linkFolder);
 
 				if(rbtnUpdate.isSelected() || rbtnRecover.isSelected()) {
 					if(linkFolder == null) {
 						String defaultFolder = Path.of((String)System.getProperty("user.home"), "Programs", (String)MainWindow.getPreference(MainWindow.DST_FOLDER_NAME)).toString(); //$NON-NLS-1$ //$NON-NLS-2$
-						JOptionPane.showMessageDialog(MainWindow.getMainFrame(), String.format(Messages.getString("OperationSelection.MB_MSG_DST_FOLDER_NOT_FOUND"), defaultFolder), Messages.getString(Messages.getString("OperationSelection.1")), JOptionPane.WARNING_MESSAGE); //$NON-NLS-3$ //$NON-NLS-1$ //$NON-NLS-2$
+						JOptionPane.showMessageDialog(MainWindow.getMainFrame(), Messages.format("OperationSelection.MB_MSG_DST_FOLDER_NOT_FOUND", defaultFolder), Messages.getString(Messages.getString("OperationSelection.1")), JOptionPane.WARNING_MESSAGE); //$NON-NLS-3$ //$NON-NLS-1$ //$NON-NLS-2$
                         linkFolder = defaultFolder;
 					}
 					if(linkFolder != null) {
 						MainWindow.setPreference(MainWindow.DESTINATION_FOLDER, linkFolder);
-						String curVersion = CrossPlatformVersionReader.extractVersion(linkFolder + File.separator + (String)MainWindow.getPreference(MainWindow.APP_RUNNABLE));
+						String curVersion = linkFolder.equals(installation.folder()) && installation.version() != null ? installation.version()
+								: CrossPlatformVersionReader.extractVersion(linkFolder + File.separator + (String)MainWindow.getPreference(MainWindow.APP_RUNNABLE));
 						MainWindow.setPreference(MainWindow.INSTALLED_APP_VERSION, curVersion);
 					} else {
 						SwingUtilities.invokeLater(() -> {
@@ -229,7 +244,13 @@ public class OperationSelection extends JPanel implements WizardStep {
 				}
 			} catch (Exception ex) {
 				System.err.println(Messages.getString("OperationSelection.LOG_INSTALL_ARC_TST_FAILED") + ex.getMessage()); //$NON-NLS-1$
-				lblSrcArchiveState.setText(lblSrcArchiveState.getClientProperty("text") + Messages.getString("OperationSelection.LBL_ARC_TST_FAILED")); //$NON-NLS-1$ //$NON-NLS-2$
+				archiveTested = false;
+				SwingUtilities.invokeLater(() -> { // Let the user pick another archive, the wait below ends
+					progressBar.setIndeterminate(false);
+					rbtnInstall.setEnabled(true);
+					rbtnRecover.setEnabled(true);
+					lblSrcArchiveState.setText(lblSrcArchiveState.getClientProperty("text") + Messages.getString("OperationSelection.LBL_ARC_TST_FAILED")); //$NON-NLS-1$ //$NON-NLS-2$
+				});
 			}
 			while(!rbtnInstall.isEnabled())
 				try { Thread.sleep(100); } catch (InterruptedException e) { e.printStackTrace(); }
@@ -320,7 +341,7 @@ public class OperationSelection extends JPanel implements WizardStep {
 			if(((JRadioButton)e.getSource()).isSelected()) {
 				panelProgress.setVisible(false);
 				archiveTested = true;
-				String linkFolder = AppLinkCreator.readAppParentFolder((String)MainWindow.getPreference(MainWindow.APP_NAME));
+				String linkFolder = getInstallation().folder();
 				if(linkFolder != null)
 					MainWindow.setPreference(MainWindow.DESTINATION_FOLDER, linkFolder);
 				MainWindow.getMainFrame().setTitle(Messages.getString("OperationSelection.MWND_TITLE_PREFIX") + MainWindow.getPreference(MainWindow.APP_NAME)); //$NON-NLS-1$
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.gui;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.github.emmrida.chat4ussetup.util.ArchivePreflight;
+import io.github.emmrida.chat4ussetup.util.Helper.KeyValue;
+import io.github.emmrida.chat4ussetup.util.InstallationDiscovery;
+import io.github.emmrida.chat4ussetup.util.Messages;
+import io.github.emmrida.chat4ussetup.util.SetupConfig;
+
+/**
+ * Startup work done off the event dispatch thread. main starts it before Swing is
+ * initialized: the messages are loaded, the configuration files parsed and the
+ * current installation looked up. The setup archive is checked from the first paint
+ * of the frame on, while the user reads the first steps: checked earlier, it competes
+ * with the frame for the processor. Run with -Dchat4us.startup.trace=true to report
+ * the time to the first paint on the error stream.
+ * @author El Mhadder Mohamed Rida
+ */
+final class Startup {
+	private static final long mainNanos = System.nanoTime(); // Startup is first used by main
+	private static final boolean trace = Boolean.getBoolean("chat4us.startup.trace"); //$NON-NLS-1$
+	private static final CountDownLatch firstPaint = new CountDownLatch(1);
+	private static CompletableFuture<Configs> configs = null;
+
+	/**
+	 * The configuration files content
+	 * @param prefs The setup.cfg entries and the [version] rules of update.cfg
+	 * @param update The update.cfg sections, null when one of its version ranges is invalid
+	 * @param setupError Why setup.cfg could not be read, null on success
+	 */
+	static record Configs(Map<String, Object> prefs, Map<String, List<KeyValue>> update, Exception setupError) {}
+
+	private Startup() {
+	}
+
+	/**
+	 * Starts loading the configuration, once
+	 * @return The configuration, completed in the background
+	 */
+	static synchronized CompletableFuture<Configs> start() {
+		if(configs == null)
+			configs = CompletableFuture.supplyAsync(Startup::load);
+		return configs;
+	}
+
+	private static Configs load() {
+		Messages.getString("MainWindow.TITLE_PREFIX"); // Loads the messages table before the frame needs it //$NON-NLS-1$
+
+		SetupConfig config = SetupConfig.load(SetupConfig.SETUP_FILE, SetupConfig.UPDATE_FILE);
+		Exception setupError = config.getSetupError();
+		Map<String, List<KeyValue>> update = config.getUpdate();
+		Map<String, Object> prefs = new HashMap<>(config.getSetup());
+		if(config.getMinimumVersion() != null)
+			prefs.put(MainWindow.MINIMUM_VERSION_UPDATE, config.getMinimumVersion());
+		prefs.put(MainWindow.APPLICABLE_VERSIONS, config.getApplicableVersions());
+
+		if(setupError == null) // Ready by the time the user selects an operation
+			InstallationDiscovery.preload((String)prefs.get(MainWindow.APP_NAME), (String)prefs.get(MainWindow.APP_RUNNABLE));
+		return new Configs(prefs, update, setupError);
+	}
+
+	/**
+	 * Starts the setup archive check once the frame is painted, reports the time to the
+	 * first paint when traced. Called on the event dispatch thread.
+	 */
+	static void firstPaint() {
+		if(firstPaint.getCount() == 0)
+			return;
+		firstPaint.countDown();
+		start().thenAccept(Startup::preflight);
+		if(trace) {
+			long sinceMain = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mainNanos);
+			String sinceLaunch = ProcessHandle.current().info().startInstant()
+					.map(start -> Long.toString(Duration.between(start, Instant.now()).toMillis())).orElse("?"); //$NON-NLS-1$
+			System.err.println(Messages.format("Startup.LOG_FIRST_PAINT", sinceLaunch, sinceMain)); //$NON-NLS-1$
+		}
+	}
+
+	private static void preflight(Configs configs) {
+		String archive = (String)configs.prefs().get(MainWindow.SOURCE_ARCHIVE);
+		if(configs.setupError() == null && archive != null && new File(archive).isFile())
+			ArchivePreflight.of(archive);
+	}
+
+	/**
+	 * Waits for the first paint of the frame
+	 * @param timeoutMillis The maximum time to wait
+	 * @return true if the frame was painted
+	 */
+	static boolean awaitFirstPaint(long timeoutMillis) throws InterruptedException {
+		return firstPaint.await(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+}
@@ -75,15 +75,15 @@ public class TasksSelection extends JPanel implements WizardStep {
 			chkBackup.setVisible(true);
 			MainWindow.getInstallButton().setText(Messages.getString("TasksSelection.BUTTON_UPDATE")); //$NON-NLS-1$
 			op = Messages.getString("TasksSelection.OP_UPDATING_TO"); //$NON-NLS-1$
-    		taMessage.setText(String.format(Messages.getString("TasksSelection.MSG_SEL_TASK"), op + projectName, Messages.getString("TasksSelection.BUTTON_UPDATE"))); //$NON-NLS-1$ //$NON-NLS-1$
+    		taMessage.setText(Messages.format("TasksSelection.MSG_SEL_TASK", op + projectName, Messages.getString("TasksSelection.BUTTON_UPDATE"))); //$NON-NLS-1$ //$NON-NLS-1$
 		} else if(MainWindow.getOpType()==OpType.INSTALL) {
 			MainWindow.getInstallButton().setText(Messages.getString("TasksSelection.BUTTON_INSTALL")); //$NON-NLS-1$
             op = Messages.getString("TasksSelection.OP_INSTALLING"); //$NON-NLS-1$
-    		taMessage.setText(String.format(Messages.getString("TasksSelection.MSG_SEL_TASK"), op + projectName, Messages.getString("TasksSelection.BUTTON_INSTALL"))); //$NON-NLS-1$ //$NON-NLS-1$
+    		taMessage.setText(Messages.format("TasksSelection.MSG_SEL_TASK", op + projectName, Messages.getString("TasksSelection.BUTTON_INSTALL"))); //$NON-NLS-1$ //$NON-NLS-1$
 		} else if(MainWindow.getOpType()==OpType.RECOVER) {
 			MainWindow.getInstallButton().setText(Messages.getString("TasksSelection.BUTTON_RECOVER")); //$NON-NLS-1$
             op = Messages.getString("TasksSelection.OP_RECOVERING"); //$NON-NLS-1$
-    		taMessage.setText(String.format(Messages.getString("TasksSelection.MSG_SEL_TASK"), op + projectName, Messages.getString("TasksSelection.BUTTON_RECOVER"))); //$NON-NLS-1$ //$NON-NLS-1$
+    		taMessage.setText(Messages.format("TasksSelection.MSG_SEL_TASK", op + projectName, Messages.getString("TasksSelection.BUTTON_RECOVER"))); //$NON-NLS-1$ //$NON-NLS-1$
 		}
 	}
 
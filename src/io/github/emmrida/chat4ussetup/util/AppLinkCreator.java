@@ -229,6 +229,7 @@ public class AppLinkCreator {
         if (linkPath != null && Files.exists(linkPath)) {
             try {
                 Files.delete(linkPath);
+                InstallationDiscovery.invalidate(linkName);
                 System.out.println(Messages.getString("AppLinkCreator.LOG_DESKTOP_LINK_REMOVED") + linkPath); //$NON-NLS-1$
                 return true;
             } catch (IOException ex) {
@@ -250,6 +251,7 @@ public class AppLinkCreator {
         if (linkPath != null && Files.exists(linkPath)) {
             try {
                 Files.delete(linkPath);
+                InstallationDiscovery.invalidate(linkName);
                 System.out.println(Messages.getString("AppLinkCreator.LOG_SYSMNU_LINK_REMOVED") + linkPath); //$NON-NLS-1$
                 return true;
             } catch (IOException ex) {
@@ -398,6 +400,7 @@ public class AppLinkCreator {
             }
 
             if (linkPath != null && Files.exists(linkPath)) {
+                InstallationDiscovery.invalidate(linkName);
                 String message = Messages.getString("AppLinkCreator.LOG_LINK_CREATED_SUCCESS") + linkPath; //$NON-NLS-1$
                 System.out.println(message);
                 return LinkCreationResult.success(message, linkPath);
@@ -545,9 +548,6 @@ public class AppLinkCreator {
             // Make the desktop entry executable
             desktopFile.toFile().setExecutable(true);
 
-            // Update desktop database (optional but recommended)
-            updateDesktopDatabase();
-
             return desktopFile;
 
         } catch (Exception ex) {
@@ -748,34 +748,18 @@ public class AppLinkCreator {
         return null;
     }
 
-    private static void updateDesktopDatabase() {
-        if (OperatingSystem.getCurrent() != OperatingSystem.LINUX) return;
-
-        try {
-            // Try to update desktop database for new applications
-            String[] updateCommands = {
-                "update-desktop-database", //$NON-NLS-1$
-                "xdg-desktop-menu forceupdate" //$NON-NLS-1$
-            };
-
-            for (String command : updateCommands) {
-                try {
-                    Process process = new ProcessBuilder("sh", "-c", "which " + command.split(" ")[0]) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-                        .start();
-                    if (process.waitFor() == 0) {
-                        new ProcessBuilder(command.split(" ")) //$NON-NLS-1$
-                            .start()
-                            .waitFor();
-                        System.out.println(Messages.getString("AppLinkCreator.LOG_UPATED_DESKTOP_DB_WITH") + command); //$NON-NLS-1$
-                        break;
-                    }
-                } catch (Exception ignored) {
-                    // Ignore - command might not be available
-                }
-            }
-        } catch (Exception e) {
-            System.out.println(Messages.getString("AppLinkCreator.LOG_UPDATE_DESKTOP_DB_FAILURE") + e.getMessage()); //$NON-NLS-1$
-        }
+    /**
+     * Schedules the desktop database and menu cache refresh needed once system menu links
+     * are created, desktop folder entries are not indexed
+     * @param hooks The collector of the caller, see {@link PostInstallHooks}
+     * @return The scheduled commands, none outside Linux
+     */
+    public static List<PostInstallHooks.Hook> scheduleDesktopDatabaseUpdate(PostInstallHooks hooks) {
+        if (OperatingSystem.getCurrent() != OperatingSystem.LINUX)
+            return List.of();
+        return List.of(
+            hooks.schedule("update-desktop-database", getSystemMenuDirectory().toString()), //$NON-NLS-1$
+            hooks.schedule("xdg-desktop-menu", "forceupdate")); //$NON-NLS-1$ //$NON-NLS-2$
     }
 
     // Helper methods for command building
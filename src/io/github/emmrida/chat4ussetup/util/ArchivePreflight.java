@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.emmrida.chat4ussetup.util.ZipArchiveHandler.ProgressListener;
+import io.github.emmrida.chat4ussetup.util.ZipArchiveHandler.SizeInfo;
+
+/**
+ * Size calculation and integrity test of a source archive, run once in the background.
+ * The setup archive is checked as soon as the frame is painted, when the user selects
+ * an operation the result is usually ready. Results are kept per archive path and
+ * modification time, a replaced archive is checked again. A preflight ended by an error
+ * is dropped, the next request checks the archive again.
+ */
+public class ArchivePreflight {
+    private static final Map<String, ArchivePreflight> preflights = new ConcurrentHashMap<>();
+
+    private final String zipFile;
+    private final String key;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicLong progress = new AtomicLong();
+    private final CompletableFuture<SizeInfo> sizes = new CompletableFuture<>();
+    private final CompletableFuture<Boolean> tested = new CompletableFuture<>();
+
+    private ArchivePreflight(String zipFile, String key) {
+        this.zipFile = zipFile;
+        this.key = key;
+    }
+
+    /**
+     * Returns the preflight of an archive, started now when not already running or done
+     * @param zipFile The archive path
+     * @return The preflight
+     */
+    public static ArchivePreflight of(String zipFile) {
+        File file = new File(zipFile).getAbsoluteFile();
+        String key = file.getPath() + '@' + file.lastModified();
+        ArchivePreflight preflight = preflights.computeIfAbsent(key, k -> new ArchivePreflight(zipFile, k));
+        preflight.start(); // Once cached, so that a failure can drop it
+        return preflight;
+    }
+
+    private void start() {
+        if (!started.compareAndSet(false, true))
+            return;
+        Thread thread = new Thread(this::run, "archive-preflight"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    // Both futures are completed whatever happens, the callers wait for them
+    private void run() {
+        try {
+            ZipArchiveHandler zip = new ZipArchiveHandler(zipFile);
+            SizeInfo info = zip.calculateSizes();
+            sizes.complete(info);
+            if (info.uncompressedSize <= 0) {
+                tested.complete(false);
+                return;
+            }
+            zip.setProgressListener(new ProgressListener() {
+                @Override
+                public void onProgress(int blockSize) {
+                    progress.addAndGet(blockSize);
+                }
+                @Override
+                public void onFileCreated(String name) { }
+            });
+            tested.complete(zip.testArchive());
+        } catch (Throwable ex) {
+            preflights.remove(key, this);
+            sizes.completeExceptionally(ex);
+            tested.completeExceptionally(ex);
+            if (ex instanceof Error error)
+                throw error;
+        }
+    }
+
+    /**
+     * @return The archive path
+     */
+    public String getZipFile() { return zipFile; }
+
+    /**
+     * @return The archive sizes, completed before the integrity test starts
+     */
+    public CompletableFuture<SizeInfo> sizes() { return sizes; }
+
+    /**
+     * @return true when all the entries could be read
+     */
+    public CompletableFuture<Boolean> tested() { return tested; }
+
+    /**
+     * @return The uncompressed bytes read so far by the integrity test
+     */
+    public long progress() { return progress.get(); }
+}
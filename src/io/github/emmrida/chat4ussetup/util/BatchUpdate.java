@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.github.emmrida.chat4ussetup.util.Helper.KeyValue;
+import io.github.emmrida.chat4ussetup.util.SetupEngine.Operation;
+
+/**
+ * Updates several installations of the same application from one archive. The archive
+ * is opened once and each entry copied by the update is inflated once then written to
+ * all the folders, the folders are updated in parallel up to a concurrency limit.
+ * The archive is expected to be tested already, see {@link ArchivePreflight}.
+ */
+public class BatchUpdate {
+    public static final int DEFAULT_CONCURRENCY = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Receives the progress of the folders
+     */
+    public static interface Listener {
+        /**
+         * A folder update is starting
+         * @param root The installation folder
+         * @return The listener of its engine
+         */
+        SetupEngine.Listener onRootStarted(String root);
+
+        /**
+         * A folder update ended, its background work included
+         * @param result The folder result
+         */
+        void onRootEnded(RootResult result);
+    }
+
+    /**
+     * The outcome of a folder update
+     * @param root The installation folder
+     * @param success true if the update succeeded
+     * @param elapsedMillis The update duration
+     */
+    public static record RootResult(String root, boolean success, long elapsedMillis) {}
+
+    private final String archive;
+    private final Map<String, List<KeyValue>> update;
+    private final Map<String, String> roots = new LinkedHashMap<>();
+    private String appName;
+    private String appVersion;
+    private String appRunnable;
+    private boolean backup = false;
+    private long requiredSize = 0;
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private int inflatedCount = 0;
+
+    /**
+     * Creates a batch update
+     * @param archive The update archive
+     * @param update The update.cfg sections
+     */
+    public BatchUpdate(String archive, Map<String, List<KeyValue>> update) {
+        this.archive = archive;
+        this.update = update;
+    }
+
+    /**
+     * Adds an installation folder
+     * @param root The installation folder
+     * @param installedVersion Its installed version, for the applies: ranges, may be null
+     */
+    public void addRoot(String root, String installedVersion) { roots.put(root, installedVersion); }
+
+    /**
+     * Sets the application, see setup.cfg
+     * @param name The application name
+     * @param version The version being installed
+     * @param runnable The application jar, relative to the installation folders
+     */
+    public void setApplication(String name, String version, String runnable) {
+        this.appName = name;
+        this.appVersion = version;
+        this.appRunnable = runnable;
+    }
+
+    /**
+     * Sets whether each folder is backed up before its update
+     * @param backup true to create the backups in the user home
+     */
+    public void setBackup(boolean backup) { this.backup = backup; }
+
+    /**
+     * Sets the uncompressed size of the archive, calculated when not set
+     * @param size The size in bytes
+     */
+    public void setRequiredSize(long size) { this.requiredSize = size; }
+
+    /**
+     * Sets the number of folders updated at the same time
+     * @param concurrency The folders count, at least 1
+     */
+    public void setConcurrency(int concurrency) { this.concurrency = Math.max(1, concurrency); }
+
+    /**
+     * @return The number of archive entries inflated by the last run
+     */
+    public int getInflatedCount() { return inflatedCount; }
+
+    /**
+     * Updates the folders
+     * @param listener The progress listener
+     * @return The folders results, in the order they were added
+     * @throws IOException If the archive can't be opened
+     * @throws InterruptedException If interrupted while waiting for the folders
+     */
+    public List<RootResult> run(Listener listener) throws IOException, InterruptedException {
+        List<RootResult> results = new ArrayList<>(roots.size());
+        if (roots.isEmpty())
+            return results;
+        try (StagedArchive stagedArchive = new StagedArchive(archive)) {
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(concurrency, roots.size()));
+            try {
+                List<String> folders = new ArrayList<>(roots.keySet());
+                List<Future<RootResult>> futures = new ArrayList<>(folders.size());
+                for (String root : folders)
+                    futures.add(pool.submit(() -> updateRoot(root, roots.get(root), stagedArchive, listener)));
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        results.add(futures.get(i).get());
+                    } catch (ExecutionException ex) { // Unexpected, the engine reports its failures
+                        System.err.println(ex.getCause());
+                        results.add(new RootResult(folders.get(i), false, 0));
+                    }
+                }
+            } finally {
+                pool.shutdownNow();
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            }
+            inflatedCount = stagedArchive.getInflatedCount();
+        }
+        return results;
+    }
+
+    // Updates one folder and waits for its background work
+    private RootResult updateRoot(String root, String installedVersion, StagedArchive stagedArchive, Listener listener) throws InterruptedException {
+        long start = System.nanoTime();
+        SetupEngine engine = new SetupEngine(Operation.UPDATE, root, archive);
+        engine.setListener(listener.onRootStarted(root));
+        engine.setApplication(appName, appVersion, appRunnable);
+        engine.setBackup(backup);
+        engine.setInstalledVersion(installedVersion);
+        engine.setRequiredSize(requiredSize);
+        engine.setUpdate(update);
+        engine.setStagedArchive(stagedArchive);
+        boolean success = engine.run();
+        engine.awaitBackgroundWork();
+        RootResult result = new RootResult(root, success, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        listener.onRootEnded(result);
+        return result;
+    }
+}
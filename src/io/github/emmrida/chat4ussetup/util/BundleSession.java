@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.github.emmrida.chat4ussetup.util.Helper.KeyValue;
+import io.github.emmrida.chat4ussetup.util.InstallationDiscovery.Installation;
+import io.github.emmrida.chat4ussetup.util.SetupEngine.Operation;
+
+/**
+ * Installs or updates several products in one session. The bundle manifest has one
+ * section per product, the paths being relative to the working folder:
+ * <pre>
+ * [product:Chat4Us-Server]
+ * setup:server/setup.cfg
+ * update:server/update.cfg
+ * archive:server/chat4us-server.zip
+ * dest:/opt/chat4us-server
+ * </pre>
+ * Only setup: is required. update: defaults to the update.cfg next to setup.cfg,
+ * archive: to its source_archive and dest: to the default or the discovered installation
+ * folder. The products run at the same time, their archives being extracted by one
+ * shared {@link IoScheduler}, and their progress is combined into one.
+ */
+public class BundleSession {
+    private static final Path REPORTS = Paths.get(System.getProperty("user.home"), ".chat4us-setup"); //$NON-NLS-1$ //$NON-NLS-2$
+
+    /**
+     * A product of the bundle
+     * @param name The section name, after product:
+     * @param config Its setup and update configuration
+     * @param archive Its archive
+     * @param destination Its installation folder, null when no installation was found to update
+     * @param installedVersion Its installed version for an update, may be null
+     */
+    public static record Product(String name, SetupConfig config, String archive, String destination, String installedVersion) {}
+
+    /**
+     * The outcome of a product
+     * @param product The product
+     * @param success true if its operation succeeded
+     * @param elapsedMillis The operation duration
+     */
+    public static record ProductResult(Product product, boolean success, long elapsedMillis) {}
+
+    /**
+     * Receives the progress of the session
+     */
+    public static interface Listener {
+        /**
+         * A product is starting
+         * @param product The product
+         * @return The listener of its engine
+         */
+        SetupEngine.Listener onProductStarted(Product product);
+
+        /**
+         * The combined progress of the products
+         * @param done The bytes done, each product counting for the size of its archive
+         * @param total The size of all the archives
+         */
+        void onProgress(long done, long total);
+
+        /**
+         * A product ended, its background work included
+         * @param result The product result
+         */
+        void onProductEnded(ProductResult result);
+    }
+
+    private final Operation operation;
+    private final List<Product> products;
+    private boolean backup = false;
+    private boolean desktopLink = false;
+    private boolean menuLink = false;
+    private Path report = null;
+
+    private BundleSession(Operation operation, List<Product> products) {
+        this.operation = operation;
+        this.products = products;
+    }
+
+    /**
+     * Loads a bundle manifest and starts testing the archives of its products
+     * @param manifestFile The manifest path
+     * @param operation {@link Operation#INSTALL} or {@link Operation#UPDATE}, the folders and versions are resolved for it
+     * @return The session
+     * @throws IllegalArgumentException If the manifest or a product configuration can't be read
+     */
+    public static BundleSession load(String manifestFile, Operation operation) {
+        if (operation != Operation.INSTALL && operation != Operation.UPDATE)
+            throw new IllegalArgumentException(operation.name());
+        if (!new File(manifestFile).isFile())
+            throw new IllegalArgumentException(Messages.getString("BundleSession.ERR_MANIFEST") + manifestFile); //$NON-NLS-1$
+        List<Product> products = new ArrayList<>();
+        for (Map.Entry<String, List<KeyValue>> section : Helper.readConfigFile(manifestFile).entrySet()) {
+            if (!section.getKey().startsWith("product:")) //$NON-NLS-1$
+                continue;
+            String name = section.getKey().split(":", 2)[1].trim(); //$NON-NLS-1$
+            String setupFile = null, updateFile = null, archive = null, dest = null;
+            for (KeyValue pair : section.getValue()) {
+                switch (pair.key()) {
+                    case "setup" -> setupFile = pair.value(); //$NON-NLS-1$
+                    case "update" -> updateFile = pair.value(); //$NON-NLS-1$
+                    case "archive" -> archive = pair.value(); //$NON-NLS-1$
+                    case "dest" -> dest = pair.value(); //$NON-NLS-1$
+                    default -> System.err.println(Messages.getString("BundleSession.LOG_UNK_PRODUCT_KEY") + pair.key()); //$NON-NLS-1$
+                }
+            }
+            if (setupFile == null)
+                throw new IllegalArgumentException(Messages.format("BundleSession.ERR_MISSING_SETUP", name)); //$NON-NLS-1$
+            if (updateFile == null)
+                updateFile = Paths.get(setupFile).resolveSibling("update.cfg").toString(); //$NON-NLS-1$
+            SetupConfig config = SetupConfig.load(setupFile, updateFile);
+            if (config.getSetupError() != null || config.getUpdate() == null)
+                throw new IllegalArgumentException(Messages.format("BundleSession.ERR_PRODUCT_CONFIG", name, //$NON-NLS-1$
+                        config.getSetupError() != null ? config.getSetupError().getMessage() : updateFile));
+            Map<String, String> setup = config.getSetup();
+            if (archive == null)
+                archive = setup.get(SetupConfig.SOURCE_ARCHIVE);
+            if (archive != null && new File(archive).isFile())
+                ArchivePreflight.of(archive); // The archives are tested at the same time
+
+            String installedVersion = null;
+            if (operation == Operation.INSTALL) {
+                if (dest == null)
+                    dest = Path.of(System.getProperty("user.home"), "Programs", setup.get(SetupConfig.DST_FOLDER_NAME)).toString(); //$NON-NLS-1$ //$NON-NLS-2$
+            } else {
+                String runnable = setup.get(SetupConfig.APP_RUNNABLE);
+                Installation installation = InstallationDiscovery.get(setup.get(SetupConfig.APP_NAME), runnable);
+                if (dest == null)
+                    dest = installation.folder();
+                if (dest != null && Files.isDirectory(Path.of(dest))) {
+                    dest = Path.of(dest).toAbsolutePath().normalize().toString();
+                    installedVersion = dest.equals(installation.folder()) && installation.version() != null ? installation.version()
+                            : CrossPlatformVersionReader.extractVersion(dest + File.separator + runnable);
+                } else dest = null;
+            }
+            if (dest != null)
+                dest = Path.of(dest).toAbsolutePath().normalize().toString();
+            products.add(new Product(name, config, archive, dest, installedVersion));
+        }
+        if (products.isEmpty())
+            throw new IllegalArgumentException(Messages.getString("BundleSession.ERR_NO_PRODUCT") + manifestFile); //$NON-NLS-1$
+        return new BundleSession(operation, products);
+    }
+
+    /**
+     * @return The products, in the manifest order
+     */
+    public List<Product> getProducts() { return Collections.unmodifiableList(products); }
+
+    /**
+     * @return The operation of the session
+     */
+    public Operation getOperation() { return operation; }
+
+    /**
+     * Sets whether the installation folders are backed up before an update
+     * @param backup true to create the backups in the user home
+     */
+    public void setBackup(boolean backup) { this.backup = backup; }
+
+    /**
+     * Sets the links to create for each product
+     * @param desktop true to create desktop links
+     * @param menu true to create system menu links
+     */
+    public void setLinks(boolean desktop, boolean menu) {
+        this.desktopLink = desktop;
+        this.menuLink = menu;
+    }
+
+    /**
+     * @return The combined report of the last run, null if it could not be written
+     */
+    public Path getReport() { return report; }
+
+    /**
+     * Runs the operation of some products at the same time
+     * @param selected The products to run, checked by the caller
+     * @param listener The progress listener
+     * @return The products results, in the given order
+     * @throws InterruptedException If interrupted while waiting for the products
+     */
+    public List<ProductResult> run(List<Product> selected, Listener listener) throws InterruptedException {
+        List<ProductResult> results = new ArrayList<>(selected.size());
+        if (selected.isEmpty())
+            return results;
+        long[] sizes = new long[selected.size()];
+        SetupEngine[] engines = new SetupEngine[selected.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            try {
+                sizes[i] = Math.max(1, ArchivePreflight.of(selected.get(i).archive()).sizes().join().uncompressedSize);
+            } catch (CompletionException ex) {
+                sizes[i] = 1;
+            }
+        }
+        CombinedProgress progress = new CombinedProgress(sizes, operation == Operation.UPDATE && backup ? 2 : 1, listener);
+
+        ExecutorService pool = Executors.newFixedThreadPool(selected.size());
+        PostInstallHooks hooks = new PostInstallHooks(); // Refreshes needed by several products run once
+        try (IoScheduler scheduler = new IoScheduler()) {
+            List<Future<ProductResult>> futures = new ArrayList<>(selected.size());
+            for (int i = 0; i < selected.size(); i++) {
+                final int index = i;
+                Product product = selected.get(i);
+                SetupEngine.Listener productListener = listener.onProductStarted(product);
+                engines[i] = createEngine(product, sizes[i], scheduler, hooks, new SetupEngine.Listener() {
+                    @Override
+                    public void onLog(String message) { productListener.onLog(message); }
+                    @Override
+                    public void onProgress(long done, long phaseTotal) {
+                        productListener.onProgress(done, phaseTotal);
+                        progress.update(index, done, phaseTotal);
+                    }
+                    @Override
+                    public void onPhase(SetupEngine.Phase phase) {
+                        productListener.onPhase(phase);
+                        progress.phase(index, phase);
+                    }
+                    @Override
+                    public void onDeleting(long filesDeleted, long filesPerSecond) { productListener.onDeleting(filesDeleted, filesPerSecond); }
+                });
+                futures.add(pool.submit(() -> {
+                    long start = System.nanoTime();
+                    boolean success = engines[index].run();
+                    engines[index].awaitBackgroundWork();
+                    ProductResult result = new ProductResult(product, success, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    progress.finish(index); // A finished product counts for its whole size
+                    listener.onProductEnded(result);
+                    return result;
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException ex) { // Unexpected, the engine reports its failures
+                    System.err.println(ex.getCause());
+                    results.add(new ProductResult(selected.get(i), false, 0));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        writeReport(results, engines);
+        return results;
+    }
+
+    /**
+     * The progress of the products weighted by the size of their archives. The backup
+     * and the processing of an update count for one half each.
+     */
+    private static class CombinedProgress {
+        private final long[] sizes;
+        private final int phaseCount;
+        private final double[] fractions; // Of the product, phases done included
+        private final int[] phasesDone;
+        private final SetupEngine.Phase[] phases;
+        private final long total;
+        private final Listener listener;
+
+        CombinedProgress(long[] sizes, int phaseCount, Listener listener) {
+            this.sizes = sizes;
+            this.phaseCount = phaseCount;
+            this.fractions = new double[sizes.length];
+            this.phasesDone = new int[sizes.length];
+            this.phases = new SetupEngine.Phase[sizes.length];
+            this.listener = listener;
+            long sum = 0;
+            for (long size : sizes)
+                sum += size;
+            this.total = sum;
+        }
+
+        synchronized void phase(int index, SetupEngine.Phase phase) {
+            if (phases[index] == SetupEngine.Phase.BACKUP && phase == SetupEngine.Phase.PROCESSING)
+                phasesDone[index] = Math.min(phasesDone[index] + 1, phaseCount - 1);
+            phases[index] = phase;
+        }
+
+        synchronized void update(int index, long productDone, long productTotal) {
+            if (productTotal > 0)
+                fractions[index] = (phasesDone[index] + Math.min(1.0, (double)productDone / productTotal)) / phaseCount;
+            report();
+        }
+
+        synchronized void finish(int index) {
+            fractions[index] = 1;
+            report();
+        }
+
+        private void report() {
+            long combined = 0;
+            for (int i = 0; i < sizes.length; i++)
+                combined += (long)(sizes[i] * fractions[i]);
+            listener.onProgress(combined, total);
+        }
+    }
+
+    private SetupEngine createEngine(Product product, long size, IoScheduler scheduler, PostInstallHooks hooks, SetupEngine.Listener listener) {
+        Map<String, String> setup = product.config().getSetup();
+        SetupEngine engine = new SetupEngine(operation, product.destination(), product.archive());
+        engine.setListener(listener);
+        engine.setApplication(setup.get(SetupConfig.APP_NAME), setup.get(SetupConfig.APP_VERSION), setup.get(SetupConfig.APP_RUNNABLE));
+        engine.setLinks(desktopLink, menuLink, setup.get(SetupConfig.LINK_ICONS),
+                product.config().get(SetupConfig.LINK_DESCRIPTION, Locale.getDefault().getLanguage()));
+        engine.setBackup(backup);
+        engine.setInstalledVersion(product.installedVersion());
+        engine.setRequiredSize(size);
+        engine.setUpdate(product.config().getUpdate());
+        engine.setScheduler(scheduler);
+        engine.setPostInstallHooks(hooks);
+        return engine;
+    }
+
+    /**
+     * Writes the results and the logs of all the products in one file
+     */
+    private void writeReport(List<ProductResult> results, SetupEngine[] engines) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < results.size(); i++) {
+            ProductResult result = results.get(i);
+            sb.append(Messages.format(result.success() ? "BundleSession.REPORT_SUCCESS" : "BundleSession.REPORT_FAILURE", //$NON-NLS-1$ //$NON-NLS-2$
+                    result.product().name(), result.product().destination(), result.elapsedMillis())).append('\n');
+            sb.append(engines[i].getLog()).append('\n');
+        }
+        try {
+            Files.createDirectories(REPORTS);
+            report = REPORTS.resolve("bundle-" + operation.name().toLowerCase(Locale.ROOT) + "-" + Helper.getCurrentDate() + ".log"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            Files.writeString(report, sb);
+        } catch (IOException ex) {
+            System.err.println(Messages.getString("BundleSession.ERR_REPORT") + ex.getMessage()); //$NON-NLS-1$
+            report = null;
+        }
+    }
+}
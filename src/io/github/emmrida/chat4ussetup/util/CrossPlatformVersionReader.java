@@ -5,9 +5,13 @@
 package io.github.emmrida.chat4ussetup.util;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.*;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
@@ -16,6 +20,17 @@ import java.util.regex.Matcher;
  * Utility class to extract version from any supported file type
  */
 public class CrossPlatformVersionReader {
+    private static final Path PROBE_CACHE = Paths.get(System.getProperty("user.home"), ".chat4us-setup", "jar-versions.properties"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    private static final int PROBE_CACHE_LIMIT = 32;
+    // Property files where versions are usually kept, looked at before any other
+    private static final Set<String> KNOWN_VERSION_FILES = Set.of(
+        "version.properties", "build.properties", "app.properties", "application.properties", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        "project.properties", "pom.properties", "build-info.properties"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+    private static final Pattern VERSION_IN_TEXT = Pattern.compile("\\b([0-9]+\\.[0-9]+(\\.[0-9]+)*([.-]?[a-zA-Z0-9]+)*)\\b"); //$NON-NLS-1$
+
+    // Jar probes by absolute path, value is "size@mtime|appVersion|buildNumber"
+    private static Map<String, String> probes = null;
 
     /**
      * Main method to extract version from any supported file type
@@ -58,7 +73,7 @@ public class CrossPlatformVersionReader {
      * Extract version from JAR files - returns combined app.version + '.' + build.number
      */
     private static String extractFromJar(String jarPath) {
-        JarVersionInfo versionInfo = extractAllJarVersionInfo(jarPath);
+        JarVersionInfo versionInfo = probeJar(jarPath);
 
         if (versionInfo.hasCombinedVersion()) {
             return versionInfo.getCombinedVersion();
@@ -73,8 +88,10 @@ public class CrossPlatformVersionReader {
 
     /**
      * Extract all version information from JAR
+     * @param full true to read every properties file and list all the version sources,
+     *             false to stop as soon as the app version and build number are known
      */
-    private static JarVersionInfo extractAllJarVersionInfo(String jarPath) {
+    private static JarVersionInfo extractAllJarVersionInfo(String jarPath, boolean full) {
         JarVersionInfo versionInfo = new JarVersionInfo();
 
         try (JarFile jarFile = new JarFile(jarPath)) {
@@ -82,7 +99,8 @@ public class CrossPlatformVersionReader {
             extractFromManifest(jarFile, versionInfo);
 
             // 2. Check properties files
-            extractFromPropertiesFiles(jarFile, versionInfo);
+            if (full || !versionInfo.hasCombinedVersion())
+                extractFromPropertiesFiles(jarFile, versionInfo, full);
 
         } catch (IOException e) {
             // Ignore - return whatever we found
@@ -91,6 +109,69 @@ public class CrossPlatformVersionReader {
         return versionInfo;
     }
 
+    /**
+     * Returns the app version and build number of a JAR, memoised by path, size and
+     * modification time in memory and in a small cache file next to the user settings
+     */
+    private static JarVersionInfo probeJar(String jarPath) {
+        File file = new File(jarPath).getAbsoluteFile();
+        String stamp = file.length() + "@" + file.lastModified(); //$NON-NLS-1$
+        synchronized (CrossPlatformVersionReader.class) {
+            if (probes == null)
+                probes = loadProbeCache();
+            String cached = probes.get(file.getPath());
+            if (cached != null) {
+                String[] parts = cached.split("\\|", -1); //$NON-NLS-1$
+                if (parts.length == 3 && parts[0].equals(stamp)) {
+                    JarVersionInfo versionInfo = new JarVersionInfo();
+                    versionInfo.setAppVersion(parts[1].isEmpty() ? null : parts[1]);
+                    versionInfo.setBuildNumber(parts[2].isEmpty() ? null : parts[2]);
+                    return versionInfo;
+                }
+            }
+        }
+
+        JarVersionInfo versionInfo = extractAllJarVersionInfo(file.getPath(), false);
+        synchronized (CrossPlatformVersionReader.class) {
+            if (probes.size() >= PROBE_CACHE_LIMIT && !probes.containsKey(file.getPath()))
+                probes.clear(); // Only a handful of jars are ever probed
+            probes.put(file.getPath(), stamp + "|" + Objects.toString(versionInfo.getAppVersion(), "") //$NON-NLS-1$ //$NON-NLS-2$
+                + "|" + Objects.toString(versionInfo.getBuildNumber(), "")); //$NON-NLS-1$ //$NON-NLS-2$
+            saveProbeCache(probes);
+        }
+        return versionInfo;
+    }
+
+    private static Map<String, String> loadProbeCache() {
+        Map<String, String> cache = new ConcurrentHashMap<>();
+        if (Files.exists(PROBE_CACHE)) {
+            try (Reader reader = Files.newBufferedReader(PROBE_CACHE, StandardCharsets.UTF_8)) {
+                Properties props = new Properties();
+                props.load(reader);
+                for (String key : props.stringPropertyNames())
+                    cache.put(key, props.getProperty(key));
+            } catch (IOException e) {
+                System.err.println(Messages.getString("CrossPlatformVersionReader.EX_PROBE_CACHE_ERROR") + e.getMessage()); //$NON-NLS-1$
+            }
+        }
+        return cache;
+    }
+
+    private static void saveProbeCache(Map<String, String> cache) {
+        Properties props = new Properties();
+        props.putAll(cache);
+        try {
+            Files.createDirectories(PROBE_CACHE.getParent());
+            Path tmp = Helper.createSiblingTempFile(PROBE_CACHE);
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                props.store(writer, null);
+            }
+            Helper.moveAtomically(tmp, PROBE_CACHE);
+        } catch (IOException e) {
+            System.err.println(Messages.getString("CrossPlatformVersionReader.EX_PROBE_CACHE_ERROR") + e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
     /**
      * Extract version from MANIFEST.MF
      */
@@ -107,6 +188,18 @@ public class CrossPlatformVersionReader {
                     String version = manifest.getMainAttributes().getValue(attr);
                     if (isValidVersion(version)) {
                         versionInfo.addVersionSource("MANIFEST-" + attr, version); //$NON-NLS-1$
+                        if (!versionInfo.hasAppVersion())
+                            versionInfo.setManifestAppVersion(version);
+                    }
+                }
+
+                String[] buildAttributes = { "Implementation-Build", "Build-Number" }; //$NON-NLS-1$ //$NON-NLS-2$
+                for (String attr : buildAttributes) {
+                    String build = manifest.getMainAttributes().getValue(attr);
+                    if (isBuildNumberProperty("build.number", build)) { //$NON-NLS-1$
+                        versionInfo.addVersionSource("MANIFEST-" + attr, build); //$NON-NLS-1$
+                        if (!versionInfo.hasBuildNumber())
+                            versionInfo.setBuildNumber(build);
                     }
                 }
             }
@@ -116,16 +209,32 @@ public class CrossPlatformVersionReader {
     }
 
     /**
-     * Extract version from properties files in JAR
+     * Extract version from properties files in JAR. The candidates are picked by name
+     * from the central directory: known version files first, then files named after a
+     * version or build, and the remaining ones only when nothing was found at all.
      */
-    private static void extractFromPropertiesFiles(JarFile jarFile, JarVersionInfo versionInfo) {
+    private static void extractFromPropertiesFiles(JarFile jarFile, JarVersionInfo versionInfo, boolean full) {
+        List<List<JarEntry>> ranks = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
         Enumeration<JarEntry> entries = jarFile.entries();
-
         while (entries.hasMoreElements()) {
             JarEntry entry = entries.nextElement();
-            String entryName = entry.getName();
-
-            if (entryName.toLowerCase().endsWith(".properties")) { //$NON-NLS-1$
+            String entryName = entry.getName().toLowerCase();
+            if (entry.isDirectory() || !entryName.endsWith(".properties")) //$NON-NLS-1$
+                continue;
+            String baseName = entryName.substring(entryName.lastIndexOf('/') + 1);
+            if (KNOWN_VERSION_FILES.contains(baseName)) {
+                ranks.get(0).add(entry);
+            } else if (baseName.contains("version") || baseName.contains("build")) { //$NON-NLS-1$ //$NON-NLS-2$
+                ranks.get(1).add(entry);
+            } else ranks.get(2).add(entry);
+        }
+
+        for (List<JarEntry> rank : ranks) {
+            if (!full && (versionInfo.hasCombinedVersion()
+                    || (rank == ranks.get(2) && (versionInfo.hasAppVersion() || versionInfo.hasBuildNumber()))))
+                return;
+            for (JarEntry entry : rank) {
+                String entryName = entry.getName();
                 try (InputStream is = jarFile.getInputStream(entry)) {
                     Properties props = new Properties();
                     props.load(is);
@@ -135,13 +244,13 @@ public class CrossPlatformVersionReader {
                         String propValue = props.getProperty(propName);
 
                         // Look for app.version
-                        if (isAppVersionProperty(propName, propValue)) {
+                        if (isAppVersionProperty(propName, propValue) && (full || !versionInfo.hasPropertiesAppVersion())) {
                             versionInfo.setAppVersion(propValue);
                             versionInfo.addVersionSource(entryName + "::" + propName, propValue); //$NON-NLS-1$
                         }
 
                         // Look for build.number
-                        if (isBuildNumberProperty(propName, propValue)) {
+                        if (isBuildNumberProperty(propName, propValue) && (full || !versionInfo.hasBuildNumber())) {
                             versionInfo.setBuildNumber(propValue);
                             versionInfo.addVersionSource(entryName + "::" + propName, propValue); //$NON-NLS-1$
                         }
@@ -154,6 +263,8 @@ public class CrossPlatformVersionReader {
                 } catch (IOException e) {
                     // Ignore this properties file, continue with next
                 }
+                if (!full && versionInfo.hasPropertiesAppVersion() && versionInfo.hasBuildNumber())
+                    return;
             }
         }
     }
@@ -162,7 +273,7 @@ public class CrossPlatformVersionReader {
      * Get detailed version information from JAR file
      */
     public static Map<String, String> getDetailedJarVersionInfo(String jarPath) {
-        JarVersionInfo versionInfo = extractAllJarVersionInfo(jarPath);
+        JarVersionInfo versionInfo = extractAllJarVersionInfo(jarPath, true);
         return versionInfo.getAllVersionSources();
     }
 
@@ -171,7 +282,7 @@ public class CrossPlatformVersionReader {
      */
     public static String getCombinedVersion(String filePath) {
         if (filePath.toLowerCase().endsWith(".jar")) { //$NON-NLS-1$
-            JarVersionInfo versionInfo = extractAllJarVersionInfo(filePath);
+            JarVersionInfo versionInfo = probeJar(filePath);
             if (versionInfo.hasCombinedVersion()) {
                 return versionInfo.getCombinedVersion();
             }
@@ -184,7 +295,7 @@ public class CrossPlatformVersionReader {
      */
     public static String getAppVersion(String filePath) {
         if (filePath.toLowerCase().endsWith(".jar")) { //$NON-NLS-1$
-            JarVersionInfo versionInfo = extractAllJarVersionInfo(filePath);
+            JarVersionInfo versionInfo = probeJar(filePath);
             if (versionInfo.hasAppVersion()) {
                 return versionInfo.getAppVersion();
             }
@@ -197,7 +308,7 @@ public class CrossPlatformVersionReader {
      */
     public static String getBuildNumber(String filePath) {
         if (filePath.toLowerCase().endsWith(".jar")) { //$NON-NLS-1$
-            JarVersionInfo versionInfo = extractAllJarVersionInfo(filePath);
+            JarVersionInfo versionInfo = probeJar(filePath);
             if (versionInfo.hasBuildNumber()) {
                 return versionInfo.getBuildNumber();
             }
@@ -264,11 +375,22 @@ public class CrossPlatformVersionReader {
      */
     private static class JarVersionInfo {
         private String appVersion;
+        private boolean appVersionFromManifest = false; // Replaced by a properties file app version
         private String buildNumber;
         private Map<String, String> versionSources = new LinkedHashMap<>();
 
         public void setAppVersion(String appVersion) {
             this.appVersion = cleanVersionString(appVersion);
+            appVersionFromManifest = false;
+        }
+
+        public void setManifestAppVersion(String appVersion) {
+            this.appVersion = cleanVersionString(appVersion);
+            appVersionFromManifest = true;
+        }
+
+        public boolean hasPropertiesAppVersion() {
+            return hasAppVersion() && !appVersionFromManifest;
         }
 
         public void setBuildNumber(String buildNumber) {
@@ -328,6 +450,24 @@ public class CrossPlatformVersionReader {
     // (Windows executable, Unix executable, macOS, Debian, RPM extraction)
 
     private static String extractFromWindowsExecutable(String filePath) {
+        // Version resource of PE files, read in-process on any system
+        try {
+            PeVersionReader.VersionInfo info = PeVersionReader.read(Paths.get(filePath));
+            if (info == null) {
+                return Messages.getString("CrossPlatformVersionReader.LOG_VERSION_NFOUND_IN_WINEX"); //$NON-NLS-1$
+            }
+            // Same string as VersionInfo.FileVersion, without a trailing comment like "(WinBuild.160101.0800)"
+            String version = info.fileVersion() == null ? "" : info.fileVersion().split("\\s+")[0]; //$NON-NLS-1$ //$NON-NLS-2$
+            if (isValidVersion(version)) {
+                return version;
+            } else if (info.fixedFileVersion() != null && !"0.0.0.0".equals(info.fixedFileVersion())) { //$NON-NLS-1$
+                return info.fixedFileVersion();
+            }
+            return Messages.getString("CrossPlatformVersionReader.LOG_VERSION_NFOUND_IN_WINEX"); //$NON-NLS-1$
+        } catch (IOException e) {
+            // Not a PE file (.msi packages), only Windows can tell
+        }
+
         if (!isWindows()) {
             return Messages.getString("CrossPlatformVersionReader.LOG_WIN_REQUIRED_TO_EXTRACT_VERSION"); //$NON-NLS-1$
         }
@@ -364,14 +504,10 @@ public class CrossPlatformVersionReader {
         }
 
         try {
-            ProcessBuilder pb = new ProcessBuilder("strings", filePath); //$NON-NLS-1$
-            Process process = pb.start();
-            String output = readProcessOutput(process);
-            process.waitFor();
-
-            List<String> potentialVersions = findVersionsInText(output);
-            if (!potentialVersions.isEmpty()) {
-                return potentialVersions.get(0);
+            String version = new PrintableStringScanner(4)
+                .findFirst(Paths.get(filePath), VERSION_IN_TEXT, v -> isValidVersion(v) && v.length() > 2);
+            if (version != null) {
+                return version;
             }
 
         } catch (Exception e) {
@@ -416,14 +552,14 @@ public class CrossPlatformVersionReader {
         return Messages.getString("CrossPlatformVersionReader.LOG_MACOSEX_APP_BUNDLE_VERSION_NFOUND"); //$NON-NLS-1$
     }
 
-    private static String extractFromDebPackage(String filePath) {
-        if (!isLinux()) return Messages.getString("CrossPlatformVersionReader.LOG_DEBIAN_PKG_EXTRACT_REQUIRES_LINUX"); //$NON-NLS-1$
-        return Messages.getString("CrossPlatformVersionReader.LOG_DEBIAN_PKG_VERSION_NFOUND"); //$NON-NLS-1$
+    private static String extractFromDebPackage(String filePath) throws IOException {
+        String version = PackageVersionReader.readDebVersion(Paths.get(filePath));
+        return version != null ? version : Messages.getString("CrossPlatformVersionReader.LOG_DEBIAN_PKG_VERSION_NFOUND"); //$NON-NLS-1$
     }
 
-    private static String extractFromRpmPackage(String filePath) {
-        if (!isLinux()) return Messages.getString("CrossPlatformVersionReader.LOG_RPM_PKG_EXTRACT_REQUIRES_LINUX"); //$NON-NLS-1$
-        return Messages.getString("CrossPlatformVersionReader.LOG_RPM_PKG_VERSION_NFOUND"); //$NON-NLS-1$
+    private static String extractFromRpmPackage(String filePath) throws IOException {
+        String version = PackageVersionReader.readRpmVersion(Paths.get(filePath));
+        return version != null ? version : Messages.getString("CrossPlatformVersionReader.LOG_RPM_PKG_VERSION_NFOUND"); //$NON-NLS-1$
     }
 
     private static String readProcessOutput(Process process) throws IOException {
@@ -441,21 +577,6 @@ public class CrossPlatformVersionReader {
         }
     }
 
-    private static List<String> findVersionsInText(String text) {
-        List<String> versions = new ArrayList<>();
-        Pattern pattern = Pattern.compile("\\b([0-9]+\\.[0-9]+(\\.[0-9]+)*([.-]?[a-zA-Z0-9]+)*)\\b"); //$NON-NLS-1$
-        Matcher matcher = pattern.matcher(text);
-
-        while (matcher.find()) {
-            String version = matcher.group(1);
-            if (isValidVersion(version) && version.length() > 2) {
-                versions.add(version);
-            }
-        }
-
-        return versions;
-    }
-
     // Platform detection methods (same as before)
     private static boolean isUnixExecutable(File file) {
         if (!isWindows()) {
@@ -9,19 +9,35 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.DirectoryStream;
+import java.nio.file.LinkOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Utility class for listing files based on provided path strings.
+ * Wildcard paths are glob patterns, see {@link GlobMatcher}.
  */
 public class FilesLister {
+    // Cached folder listings of the current run, null outside a run
+    private static volatile Map<Path, List<Entry>> listingCache = null;
+    private static int activeRuns = 0;
+
+    // A folder entry as seen by the listing
+    private static record Entry(String name, boolean directory, boolean file) {}
 
     /**
      * Returns a list of files based on the provided path string.
-     * Supports simple filenames, relative/absolute paths, and wildcard patterns.
+     * Supports simple filenames, relative/absolute paths, and wildcard patterns
+     * including multi-segment and '**' recursive patterns.
      *
      * @param pathString the path string (can contain wildcards)
      * @return list of matching files
@@ -30,7 +46,7 @@ public class FilesLister {
         List<String> result = new ArrayList<>();
 
         try {
-            if (pathString.contains("*")) { //$NON-NLS-1$
+            if (pathString.contains("*") || pathString.contains("?")) { //$NON-NLS-1$ //$NON-NLS-2$
                 // Handle wildcard patterns
                 result = handleWildcardSearch(pathString);
             } else {
@@ -45,51 +61,137 @@ public class FilesLister {
     }
 
     /**
-     * Handles wildcard patterns in file paths
+     * Handles wildcard patterns in file paths. The folders before the first wildcard
+     * segment are the base, the rest is matched with a {@link GlobMatcher}.
      *
      * @param pathString the path string (can contain wildcards)
      * @return list of matching files
      */
     private static List<String> handleWildcardSearch(String pathString) throws IOException {
-        List<String> result = new ArrayList<>();
-
-        // Convert to Path object
+        List<String> segments = GlobMatcher.split(pathString);
+        int first = 0;
+        while (first < segments.size() && !GlobMatcher.hasWildcard(segments.get(first)))
+            first++;
+        int baseEnd = Math.max(0, findLastSeparatorBeforeWildcard(pathString));
         Path basePath;
-        String pattern;
-
         if (pathString.startsWith("/") || pathString.startsWith("\\")) { //$NON-NLS-1$ //$NON-NLS-2$
-            // Absolute path with wildcard
-            int lastSeparator = findLastSeparatorBeforeWildcard(pathString);
-            String directoryPath = pathString.substring(0, lastSeparator);
-            pattern = pathString.substring(lastSeparator + 1);
+            String directoryPath = pathString.substring(0, baseEnd);
             basePath = Paths.get(directoryPath.isEmpty() ? "/" : directoryPath); //$NON-NLS-1$
-        } else {
-            // Relative path with wildcard
-            int lastSeparator = findLastSeparatorBeforeWildcard(pathString);
-            if (lastSeparator == -1) {
-                // No directory specified, use current directory
-                basePath = Paths.get("."); //$NON-NLS-1$
-                pattern = pathString;
-            } else {
-                String directoryPath = pathString.substring(0, lastSeparator);
-                pattern = pathString.substring(lastSeparator + 1);
-                basePath = Paths.get(directoryPath);
+        } else basePath = baseEnd > 0 ? Paths.get(pathString.substring(0, baseEnd)) : Paths.get("."); //$NON-NLS-1$
+        GlobMatcher matcher = new GlobMatcher(String.join("/", segments.subList(first, segments.size()))); //$NON-NLS-1$
+
+        List<String> result = Collections.synchronizedList(new ArrayList<>());
+        if (!Files.isDirectory(basePath))
+            return result;
+        WalkTask walk = new WalkTask(basePath, matcher, matcher.start(), result);
+        if (matcher.isRecursive()) {
+            ForkJoinPool.commonPool().invoke(walk); // Deep trees: sibling folders are walked in parallel
+        } else walk.compute();
+        if (walk.failure != null)
+            throw walk.failure;
+        Collections.sort(result);
+        return result;
+    }
+
+    // Walks a folder, keeps the matching files and forks the subfolders that can still match
+    private static class WalkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient Path folder;
+        private final transient GlobMatcher matcher;
+        private final long state;
+        private final transient List<String> result;
+        transient IOException failure;
+
+        WalkTask(Path folder, GlobMatcher matcher, long state, List<String> result) {
+            this.folder = folder;
+            this.matcher = matcher;
+            this.state = state;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            List<WalkTask> subtasks = new ArrayList<>();
+            try {
+                for (Entry entry : listDirectory(folder)) {
+                    long next = matcher.next(state, entry.name());
+                    if (next == 0)
+                        continue;
+                    Path path = folder.resolve(entry.name());
+                    if (entry.file() && matcher.accepts(next)) {
+                        result.add(path.toString());
+                    } else if (entry.directory() && matcher.canDescend(next)) {
+                        WalkTask task = new WalkTask(path, matcher, next, result);
+                        if (matcher.isRecursive()) {
+                            task.fork();
+                        } else task.compute();
+                        subtasks.add(task);
+                    }
+                }
+            } catch (IOException ex) {
+                failure = ex;
+            }
+            for (WalkTask task : subtasks) {
+                if (matcher.isRecursive())
+                    task.join();
+                if (failure == null)
+                    failure = task.failure;
             }
         }
+    }
 
-        // Convert wildcard pattern to regex
-        String regexPattern = convertWildcardToRegex(pattern);
+    /**
+     * Starts a run during which folder listings are cached, see {@link #invalidate(Path)}.
+     * Runs may overlap, the listings are kept until the last one ends.
+     */
+    public static synchronized void beginRun() {
+        if (activeRuns++ == 0)
+            listingCache = new ConcurrentHashMap<>();
+    }
 
-        // Search for files matching the pattern
-        try (Stream<Path> paths = Files.walk(basePath, 1)) {
-            result = paths
-                .filter(Files::isRegularFile)
-                .filter(path -> path.getFileName().toString().matches(regexPattern))
-                .map(Path::toString)
-                .collect(Collectors.toList());
-        }
+    /**
+     * Ends the current run and drops the cached listings when no other run is active
+     */
+    public static synchronized void endRun() {
+        if (activeRuns > 0 && --activeRuns == 0)
+            listingCache = null;
+    }
 
-        return result;
+    /**
+     * Drops the cached listings made stale by a write to a path: the listing of its
+     * folder and, for a folder, the listings of everything under it
+     * @param path The file or folder created, replaced or removed
+     */
+    public static void invalidate(Path path) {
+        Map<Path, List<Entry>> cache = listingCache;
+        if (cache == null)
+            return;
+        Path absolute = path.toAbsolutePath().normalize();
+        if (absolute.getParent() != null)
+            cache.remove(absolute.getParent());
+        cache.keySet().removeIf(dir -> dir.startsWith(absolute));
+    }
+
+    /**
+     * Lists a folder, from the run cache when one is active
+     */
+    private static List<Entry> listDirectory(Path folder) throws IOException {
+        Map<Path, List<Entry>> cache = listingCache;
+        Path key = cache != null ? folder.toAbsolutePath().normalize() : null;
+        List<Entry> entries = cache != null ? cache.get(key) : null;
+        if (entries != null)
+            return entries;
+        entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+            for (Path path : stream) {
+                // Like Files.walk, symbolic links to folders are not followed
+                entries.add(new Entry(path.getFileName().toString(),
+                    Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS), Files.isRegularFile(path)));
+            }
+        }
+        if (cache != null)
+            cache.put(key, entries);
+        return entries;
     }
 
     /**
@@ -128,6 +230,9 @@ public class FilesLister {
      */
     private static int findLastSeparatorBeforeWildcard(String path) {
         int firstWildcard = path.indexOf('*');
+        int firstJoker = path.indexOf('?');
+        if (firstWildcard < 0 || (firstJoker >= 0 && firstJoker < firstWildcard))
+            firstWildcard = firstJoker;
         String pathBeforeWildcard = path.substring(0, firstWildcard);
 
         int lastSlash = pathBeforeWildcard.lastIndexOf('/');
@@ -136,33 +241,6 @@ public class FilesLister {
         return Math.max(lastSlash, lastBackslash);
     }
 
-    /**
-     * Converts wildcard pattern to regex pattern
-     *
-     * @param pattern the wildcard pattern
-     * @return the regex pattern
-     */
-    private static String convertWildcardToRegex(String pattern) {
-        // Escape regex special characters except * and ?
-        String regex = pattern
-            .replace(".", "\\.") //$NON-NLS-1$ //$NON-NLS-2$
-            .replace("+", "\\+") //$NON-NLS-1$ //$NON-NLS-2$
-            .replace("(", "\\(") //$NON-NLS-1$ //$NON-NLS-2$
-            .replace(")", "\\)") //$NON-NLS-1$ //$NON-NLS-2$
-            .replace("[", "\\[") //$NON-NLS-1$ //$NON-NLS-2$
-            .replace("]", "\\]") //$NON-NLS-1$ //$NON-NLS-2$
-            .replace("{", "\\{") //$NON-NLS-1$ //$NON-NLS-2$
-            .replace("}", "\\}") //$NON-NLS-1$ //$NON-NLS-2$
-            .replace("^", "\\^") //$NON-NLS-1$ //$NON-NLS-2$
-            .replace("$", "\\$") //$NON-NLS-1$ //$NON-NLS-2$
-            .replace("|", "\\|"); //$NON-NLS-1$ //$NON-NLS-2$
-
-        // Convert wildcards to regex
-        regex = regex.replace("*", ".*").replace("?", "."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-
-        return "^" + regex + "$"; //$NON-NLS-1$ //$NON-NLS-2$
-    }
-
     /**
      * Alternative implementation using File class (simpler but less flexible)
      * @param pathString The path string (can contain wildcards)
@@ -205,8 +283,9 @@ public class FilesLister {
             }
 
             if (parentDir.exists() && parentDir.isDirectory()) {
+                Pattern regex = Pattern.compile(GlobMatcher.toRegex(pattern));
                 File[] files = parentDir.listFiles((dir, name) ->
-                    name.matches(convertWildcardToRegex(pattern))
+                    regex.matcher(name).matches()
                 );
                 if (files != null) {
                     for (File f : files) {
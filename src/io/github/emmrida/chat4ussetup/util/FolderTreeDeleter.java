@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes a folder tree in parallel. Subfolders are split across a fork/join pool
+ * and each folder is deleted once its children are gone. Failures are collected up
+ * to a limit, past which the deletion stops.
+ */
+public class FolderTreeDeleter {
+    private static final long PROGRESS_INTERVAL = 500; // Milliseconds between progress reports
+
+    private final int maxFailures;
+    private boolean background = false;
+    private ProgressListener progressListener = null;
+
+    // Outcome of a deletion
+    public static record Result(long filesDeleted, List<String> failures, boolean aborted, long elapsedMillis) {
+        public boolean success() { return failures.isEmpty(); }
+    }
+
+    // Interface for progress updates
+    public static interface ProgressListener {
+        void onProgress(long filesDeleted, long filesPerSecond);
+    }
+
+    /**
+     * Constructs a deleter
+     * @param maxFailures Failures tolerated before the deletion stops
+     */
+    public FolderTreeDeleter(int maxFailures) {
+        this.maxFailures = Math.max(1, maxFailures);
+    }
+
+    /**
+     * Runs the deletion on two minimum priority workers so it doesn't compete with the foreground work
+     * @param background true for a background deletion
+     */
+    public void setBackground(boolean background) {
+        this.background = background;
+    }
+
+    /**
+     * Sets the progress listener, called from the worker threads
+     * @param listener A listener for progress updates.
+     */
+    public void setProgressListener(ProgressListener listener) {
+        progressListener = listener;
+    }
+
+    /**
+     * Deletes a folder and everything under it. Symbolic links are deleted, not followed.
+     * @param root The folder to delete
+     * @return The number of files deleted and the failures
+     */
+    public Result delete(Path root) {
+        Run run = new Run();
+        ForkJoinPool pool = background
+            ? new ForkJoinPool(2, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }, null, false)
+            : new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        try {
+            pool.invoke(new FolderTask(run, root));
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = (System.nanoTime() - run.start) / 1_000_000;
+        if (progressListener != null)
+            progressListener.onProgress(run.files.get(), run.files.get() * 1000 / Math.max(1, elapsed));
+        return new Result(run.files.get(), new ArrayList<>(run.failures), run.aborted, elapsed);
+    }
+
+    // State shared by the tasks of one deletion
+    private class Run {
+        final long start = System.nanoTime();
+        final AtomicLong files = new AtomicLong();
+        final AtomicLong lastReport = new AtomicLong(start);
+        final AtomicInteger failureCount = new AtomicInteger();
+        final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        volatile boolean aborted = false;
+
+        void fail(Path path, IOException ex) {
+            if (failureCount.incrementAndGet() <= maxFailures) {
+                failures.add(path + ": " + ex.getMessage()); //$NON-NLS-1$
+            } else aborted = true;
+        }
+
+        void fileDeleted() {
+            long count = files.incrementAndGet();
+            if (progressListener == null)
+                return;
+            long now = System.nanoTime();
+            long last = lastReport.get();
+            if (now - last >= PROGRESS_INTERVAL * 1_000_000 && lastReport.compareAndSet(last, now))
+                progressListener.onProgress(count, count * 1_000_000_000L / Math.max(1, now - start));
+        }
+    }
+
+    // Deletes the files of a folder, forks its subfolders, then deletes the folder itself
+    private static class FolderTask extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+        private final transient FolderTreeDeleter.Run run;
+        private final transient Path folder;
+
+        FolderTask(FolderTreeDeleter.Run run, Path folder) {
+            this.run = run;
+            this.folder = folder;
+        }
+
+        @Override
+        protected Boolean compute() {
+            boolean clean = true;
+            List<FolderTask> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(folder)) {
+                for (Path entry : entries) {
+                    if (run.aborted) {
+                        clean = false;
+                        break;
+                    }
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        FolderTask task = new FolderTask(run, entry);
+                        task.fork();
+                        subtasks.add(task);
+                    } else {
+                        try {
+                            Files.delete(entry);
+                            run.fileDeleted();
+                        } catch (IOException ex) {
+                            run.fail(entry, ex);
+                            clean = false;
+                        }
+                    }
+                }
+            } catch (IOException ex) {
+                run.fail(folder, ex);
+                clean = false;
+            }
+            for (FolderTask task : subtasks)
+                clean &= task.join();
+            if (!clean || run.aborted)
+                return false; // A folder with leftovers can't be deleted, don't count it twice
+            try {
+                Files.delete(folder);
+                return true;
+            } catch (IOException ex) {
+                run.fail(folder, ex);
+                return false;
+            }
+        }
+    }
+}
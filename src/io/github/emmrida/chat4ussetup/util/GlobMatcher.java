@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled glob pattern over '/' or '\' separated path segments.
+ * '*' matches any run of characters and '?' one character within a segment,
+ * a '**' segment matches any number of directories, including none.
+ *
+ * Matching walks the segments as a small automaton: a state is a bit mask of the
+ * pattern segments that can match the next path segment, so a directory walk can
+ * prune subtrees that no longer match and test each name once.
+ */
+public class GlobMatcher {
+    private static final String ANY_DIRS = "**"; //$NON-NLS-1$
+
+    private final Segment[] segments;
+    private final long accept; // State bit reached once every segment is matched
+    private final boolean recursive;
+
+    // One compiled pattern segment
+    private static class Segment {
+        final boolean anyDirs;
+        final String literal; // Set when the segment has no wildcard
+        final Pattern pattern;
+
+        Segment(String glob) {
+            anyDirs = ANY_DIRS.equals(glob);
+            boolean wildcard = glob.indexOf('*') >= 0 || glob.indexOf('?') >= 0;
+            literal = anyDirs || wildcard ? null : glob;
+            pattern = anyDirs || !wildcard ? null : Pattern.compile(toRegex(glob));
+        }
+
+        boolean matches(String name) {
+            if (literal != null)
+                return literal.equals(name);
+            return pattern.matcher(name).matches();
+        }
+    }
+
+    /**
+     * Compiles a pattern relative to the folder the matching starts from
+     * @param glob The pattern, for example chatbots/**&#47;*.ria
+     */
+    public GlobMatcher(String glob) {
+        List<String> parts = split(glob);
+        if (parts.size() > 62)
+            throw new IllegalArgumentException(Messages.getString("GlobMatcher.EX_PATTERN_TOO_LONG") + glob); //$NON-NLS-1$
+        segments = new Segment[parts.size()];
+        boolean anyDirs = false;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(parts.get(i));
+            anyDirs |= segments[i].anyDirs;
+        }
+        accept = 1L << segments.length;
+        recursive = anyDirs;
+    }
+
+    /**
+     * Splits a path on both separators, dropping empty and "." segments
+     * @param path The path or pattern
+     * @return The segments
+     */
+    public static List<String> split(String path) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/' || path.charAt(i) == '\\') {
+                if (i > start && !(i - start == 1 && path.charAt(start) == '.'))
+                    parts.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Checks whether a path segment holds a wildcard
+     * @param segment The segment
+     * @return true if it contains '*' or '?'
+     */
+    public static boolean hasWildcard(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+    }
+
+    /**
+     * Returns whether the pattern has a '**' segment and can match at any depth
+     * @return true for a recursive pattern
+     */
+    public boolean isRecursive() { return recursive; }
+
+    /**
+     * Returns the state of the folder the matching starts from
+     * @return The initial state
+     */
+    public long start() {
+        return closure(1L);
+    }
+
+    /**
+     * Consumes one path segment
+     * @param state The state of the parent folder
+     * @param name The name of a file or folder in it
+     * @return The state after the name, 0 when nothing below it can match
+     */
+    public long next(long state, String name) {
+        long next = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if ((state & (1L << i)) == 0)
+                continue;
+            if (segments[i].anyDirs) {
+                next |= 1L << i;
+            } else if (segments[i].matches(name)) {
+                next |= 1L << (i + 1);
+            }
+        }
+        return closure(next);
+    }
+
+    /**
+     * Checks whether a state matches the whole pattern
+     * @param state The state after the last segment of a path
+     * @return true if the path matches
+     */
+    public boolean accepts(long state) {
+        return (state & accept) != 0;
+    }
+
+    /**
+     * Checks whether a folder with this state can hold matching paths
+     * @param state The state of the folder
+     * @return true if the folder is worth walking
+     */
+    public boolean canDescend(long state) {
+        return (state & (accept - 1)) != 0;
+    }
+
+    /**
+     * Matches a relative path
+     * @param relativePath The path, relative to the folder the matching starts from
+     * @return true if it matches the pattern
+     */
+    public boolean matches(String relativePath) {
+        long state = start();
+        for (String name : split(relativePath)) {
+            state = next(state, name);
+            if (state == 0)
+                return false;
+        }
+        return accepts(state);
+    }
+
+    // A '**' segment may match no folder at all
+    private long closure(long state) {
+        for (int i = 0; i < segments.length; i++) {
+            if ((state & (1L << i)) != 0 && segments[i].anyDirs)
+                state |= 1L << (i + 1);
+        }
+        return state;
+    }
+
+    /**
+     * Converts a wildcard segment to a regex
+     * @param glob The segment
+     * @return The regex pattern
+     */
+    static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : "."); //$NON-NLS-1$ //$NON-NLS-2$
+            } else literal.append(c);
+        }
+        if (literal.length() > 0)
+            regex.append(Pattern.quote(literal.toString()));
+        return regex.toString();
+    }
+}
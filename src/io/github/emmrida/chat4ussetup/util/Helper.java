@@ -11,12 +11,12 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.sql.Connection;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -26,16 +26,78 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
  * Helper class for various utility methods
  */
 public class Helper {
+    private static final int MAX_DELETE_FAILURES = 100; // Failures reported before a folder deletion stops
 
     // Simple KeyValue record to hold key-value pairs
     public record KeyValue(String key, String value) {}
 
+    // Work applied to each item of a parallel batch
+    @FunctionalInterface
+    public static interface ItemTask<T> {
+        void run(T item) throws Exception;
+    }
+
+    /**
+     * Runs a task over a list of items on a worker pool sized to the available processors.
+     * Single item batches run on the calling thread.
+     * @param items Items to process
+     * @param task Task to run for each item
+     * @throws Exception The first failure raised by a task, once the tasks already started
+     * ended. The tasks not started yet are skipped and the later failures are suppressed by the first one.
+     */
+    public static <T> void runParallel(List<T> items, ItemTask<T> task) throws Exception {
+        int workers = Math.min(items.size(), Runtime.getRuntime().availableProcessors());
+        if (workers <= 1) {
+            for (T item : items)
+                task.run(item);
+            return;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            AtomicBoolean failed = new AtomicBoolean();
+            List<Future<Void>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(pool.submit(() -> {
+                    if (failed.get())
+                        return null; // Cancelled by an earlier failure
+                    try {
+                        task.run(item);
+                    } catch (Exception | Error ex) {
+                        failed.set(true);
+                        throw ex;
+                    }
+                    return null;
+                }));
+            }
+            Exception failure = null;
+            for (Future<Void> future : futures) { // Waits for every started task, they may be writing files
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    Exception cause = ex.getCause() instanceof Exception e ? e : ex;
+                    if (failure == null) {
+                        failure = cause;
+                    } else failure.addSuppressed(cause);
+                }
+            }
+            if (failure != null)
+                throw failure;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
     /**
      * Enable RTL when needed.
      * @param container Container of the components to enable RTL.
@@ -210,12 +272,50 @@ public class Helper {
 	    }
 	}
 
+    /**
+     * Creates a temporary file next to the target file, on the same file system so it can be renamed over it
+     * @param target The file that will be replaced
+     * @return The temporary file path
+     * @throws IOException If the file cannot be created
+     */
+    public static Path createSiblingTempFile(Path target) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        return Files.createTempFile(dir, "." + target.getFileName().toString(), ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Replaces the target file by the source file with a rename, atomically when the file system allows it.
+     * The POSIX permissions of the replaced file are kept.
+     * @param source The fully written temporary file
+     * @param target The file to replace
+     * @throws IOException If the file cannot be moved
+     */
+    public static void moveAtomically(Path source, Path target) throws IOException {
+        if (Files.exists(target) && Files.getFileAttributeView(target, PosixFileAttributeView.class) != null)
+            Files.setPosixFilePermissions(source, Files.getPosixFilePermissions(target));
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /**
      * Deletes folder using Java NIO (more efficient)
      * @param folderPath Path to the folder to delete
      * @return true if successful, false otherwise
      */
     public static boolean deleteFolderTree(String folderPath) {
+        return deleteFolderTree(folderPath, null);
+    }
+
+    /**
+     * Deletes a folder tree in parallel, see {@link FolderTreeDeleter}
+     * @param folderPath Path to the folder to delete
+     * @param listener Listener told of the files deleted and the deletion rate, may be null
+     * @return true if successful, false otherwise
+     */
+    public static boolean deleteFolderTree(String folderPath, FolderTreeDeleter.ProgressListener listener) {
         Path path = Paths.get(folderPath);
 
         if (!Files.exists(path)) {
@@ -228,28 +328,13 @@ public class Helper {
             return false;
         }
 
-        try {
-            // Walk the file tree and delete all files and directories
-            Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    Files.delete(file);
-                    return FileVisitResult.CONTINUE;
-                }
-
-                @Override
-                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                    if (exc != null) {
-                        throw exc;
-                    }
-                    Files.delete(dir);
-                    return FileVisitResult.CONTINUE;
-                }
-            });
-            return true;
-        } catch (IOException e) {
-            System.err.println(Messages.getString("Helper.EX_DEL_FOLDER_ERROR") + e.getMessage()); //$NON-NLS-1$
-            return false;
-        }
+        FolderTreeDeleter deleter = new FolderTreeDeleter(MAX_DELETE_FAILURES);
+        deleter.setProgressListener(listener);
+        FolderTreeDeleter.Result result = deleter.delete(path);
+        for (String failure : result.failures())
+            System.err.println(Messages.getString("Helper.EX_DEL_FOLDER_ERROR") + failure); //$NON-NLS-1$
+        if (result.aborted())
+            System.err.println(Messages.getString("Helper.EX_DEL_FOLDER_ABORTED") + folderPath); //$NON-NLS-1$
+        return result.success();
     }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the current installation of an application once per session.
+ * The installation folder, installed version and links are resolved in the background
+ * and then served from memory. An install record kept next to the user settings lets
+ * later sessions skip parsing the links (and starting wscript on Windows) as long as
+ * the installed runnable is unchanged. Creating or removing links drops both.
+ */
+public class InstallationDiscovery {
+    private static final Path RECORD_DIR = Paths.get(System.getProperty("user.home"), ".chat4us-setup"); //$NON-NLS-1$ //$NON-NLS-2$
+
+    private static final Map<String, CompletableFuture<Installation>> sessions = new ConcurrentHashMap<>();
+
+    // What is known about an installation, folder is null when the application is not installed
+    public static record Installation(String folder, String version, Path desktopLink, Path menuLink) {
+        public boolean isInstalled() { return folder != null; }
+    }
+
+    /**
+     * Starts the discovery in the background if it has not been started yet
+     * @param linkName Name of the application links (without extension)
+     * @param runnable The application runnable, relative to the installation folder
+     */
+    public static void preload(String linkName, String runnable) {
+        sessions.computeIfAbsent(linkName, name -> CompletableFuture.supplyAsync(() -> discover(name, runnable)));
+    }
+
+    /**
+     * Returns the installation, waiting for the background discovery when it is still running
+     * @param linkName Name of the application links (without extension)
+     * @param runnable The application runnable, relative to the installation folder
+     * @return The installation
+     */
+    public static Installation get(String linkName, String runnable) {
+        preload(linkName, runnable);
+        return sessions.get(linkName).join();
+    }
+
+    /**
+     * Forgets the installation after its links changed, the next call discovers it again
+     * @param linkName Name of the application links (without extension)
+     */
+    public static void invalidate(String linkName) {
+        sessions.remove(linkName);
+        try {
+            Files.deleteIfExists(recordFile(linkName));
+        } catch (IOException ex) {
+            System.err.println(Messages.getString("InstallationDiscovery.EX_RECORD_ERROR") + ex.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Resolves the installation from the install record when still valid, else from the links
+     */
+    private static Installation discover(String linkName, String runnable) {
+        Path desktopLink = existing(AppLinkCreator.getLinkPath(linkName, true));
+        Path menuLink = existing(AppLinkCreator.getLinkPath(linkName, false));
+        if (desktopLink == null && menuLink == null)
+            return new Installation(null, null, null, null);
+
+        Properties record = readRecord(linkName);
+        String folder = record.getProperty("folder"); //$NON-NLS-1$
+        if (folder != null && runnable != null && stamp(Paths.get(folder, runnable)).equals(record.getProperty("runnable"))) //$NON-NLS-1$
+            return new Installation(folder, record.getProperty("version"), desktopLink, menuLink); //$NON-NLS-1$
+
+        folder = AppLinkCreator.readAppParentFolder(linkName);
+        String version = null;
+        if (folder != null && runnable != null) {
+            Path app = Paths.get(folder, runnable);
+            if (Files.isRegularFile(app)) {
+                version = CrossPlatformVersionReader.extractVersion(app.toString());
+                writeRecord(linkName, folder, version, stamp(app));
+            }
+        }
+        return new Installation(folder, version, desktopLink, menuLink);
+    }
+
+    private static Path existing(Path path) {
+        return path != null && Files.exists(path) ? path : null;
+    }
+
+    // Size and modification time of a file, to notice a replaced runnable
+    private static String stamp(Path file) {
+        try {
+            return Files.size(file) + "@" + Files.getLastModifiedTime(file).toMillis(); //$NON-NLS-1$
+        } catch (IOException ex) {
+            return ""; //$NON-NLS-1$
+        }
+    }
+
+    private static Path recordFile(String linkName) {
+        return RECORD_DIR.resolve("install-" + linkName.replaceAll("[^A-Za-z0-9._-]", "_") + ".properties"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+
+    private static Properties readRecord(String linkName) {
+        Properties record = new Properties();
+        Path file = recordFile(linkName);
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                record.load(reader);
+            } catch (IOException ex) {
+                System.err.println(Messages.getString("InstallationDiscovery.EX_RECORD_ERROR") + ex.getMessage()); //$NON-NLS-1$
+            }
+        }
+        return record;
+    }
+
+    private static void writeRecord(String linkName, String folder, String version, String runnableStamp) {
+        Properties record = new Properties();
+        record.setProperty("folder", folder); //$NON-NLS-1$
+        if (version != null)
+            record.setProperty("version", version); //$NON-NLS-1$
+        record.setProperty("runnable", runnableStamp); //$NON-NLS-1$
+        try {
+            Path file = recordFile(linkName);
+            Files.createDirectories(RECORD_DIR);
+            Path tmp = Helper.createSiblingTempFile(file);
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                record.store(writer, null);
+            }
+            Helper.moveAtomically(tmp, file);
+        } catch (IOException ex) {
+            System.err.println(Messages.getString("InstallationDiscovery.EX_RECORD_ERROR") + ex.getMessage()); //$NON-NLS-1$
+        }
+    }
+}
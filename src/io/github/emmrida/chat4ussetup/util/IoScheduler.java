@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import io.github.emmrida.chat4ussetup.util.ZipArchiveHandler.ProgressListener;
+
+/**
+ * Archive extraction shared by the products of a bundle. Entries are inflated by a CPU
+ * pool and their blocks written by a separate, smaller disk pool, so the products of a
+ * session keep all the cores and the disk busy together instead of one after the other.
+ * The inflated blocks waiting for the disk are limited by a memory budget.
+ */
+public class IoScheduler implements Closeable {
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    private static final int MEMORY_BUDGET = 64 * BLOCK_SIZE; // Inflated bytes waiting for the disk at most
+
+    private final ExecutorService cpuPool;
+    private final ExecutorService diskPool;
+    private final Semaphore budget = new Semaphore(MEMORY_BUDGET);
+    private final Map<String, ZipFile> archives = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a scheduler
+     * @param cpuThreads The inflating threads
+     * @param diskThreads The writing threads
+     */
+    public IoScheduler(int cpuThreads, int diskThreads) {
+        AtomicInteger count = new AtomicInteger();
+        cpuPool = Executors.newFixedThreadPool(Math.max(1, cpuThreads), r -> worker(r, "inflate-" + count.incrementAndGet())); //$NON-NLS-1$
+        diskPool = Executors.newFixedThreadPool(Math.max(1, diskThreads), r -> worker(r, "write-" + count.incrementAndGet())); //$NON-NLS-1$
+    }
+
+    /**
+     * Creates a scheduler using all the cores and two writing threads
+     */
+    public IoScheduler() {
+        this(Runtime.getRuntime().availableProcessors(), 2);
+    }
+
+    private static Thread worker(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Extracts a whole archive to a folder
+     * @param archive The archive path
+     * @param destFolderPath The destination folder path
+     * @param listener Receives the created entries and the bytes written, may be null
+     * @return true if successful
+     */
+    public boolean extractTo(String archive, String destFolderPath, ProgressListener listener) {
+        try {
+            ZipFile zip = open(archive);
+            Path destPath = Paths.get(destFolderPath).toAbsolutePath().normalize();
+            Files.createDirectories(destPath);
+            List<CompletableFuture<Void>> entries = new ArrayList<>();
+            for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements();) {
+                ZipEntry entry = e.nextElement();
+                Path filePath = destPath.resolve(entry.getName()).normalize();
+                if (!filePath.startsWith(destPath))
+                    throw new IOException(Messages.getString("ZipArchiveHandler.EX_EXTRACT_ZIP") + entry.getName()); //$NON-NLS-1$
+                if (entry.isDirectory()) {
+                    Files.createDirectories(filePath);
+                } else entries.add(schedule(zip, entry, filePath, listener));
+            }
+            CompletableFuture.allOf(entries.toArray(new CompletableFuture<?>[0])).join();
+            return true;
+        } catch (IOException | CompletionException ex) {
+            System.err.println(Messages.getString("ZipArchiveHandler.EX_EXTRACT_ZIP") + message(ex)); //$NON-NLS-1$
+            return false;
+        }
+    }
+
+    /**
+     * Extracts an entry of an archive to a file
+     * @param archive The archive path
+     * @param fileInZip The entry name
+     * @param destFilePath The file to create or replace
+     * @param listener Receives the created entry and the bytes written, may be null
+     * @return true if successful
+     */
+    public boolean extractFile(String archive, String fileInZip, String destFilePath, ProgressListener listener) {
+        try {
+            ZipFile zip = open(archive);
+            ZipEntry entry = zip.getEntry(fileInZip);
+            if (entry == null || entry.isDirectory()) {
+                System.err.println(Messages.getString("ZipArchiveHandler.EX_ZIP_FILE_NFOUND") + fileInZip); //$NON-NLS-1$
+                return false;
+            }
+            schedule(zip, entry, Paths.get(destFilePath), listener).join();
+            return true;
+        } catch (IOException | CompletionException ex) {
+            System.err.println(Messages.getString("ZipArchiveHandler.EX_ZIP_EXTRACT_FILE") + message(ex)); //$NON-NLS-1$
+            return false;
+        }
+    }
+
+    // Opens an archive once for the session, its entries are read concurrently
+    private ZipFile open(String archive) throws IOException {
+        String key = Paths.get(archive).toAbsolutePath().normalize().toString();
+        ZipFile zip = archives.get(key);
+        if (zip == null) {
+            synchronized (archives) {
+                zip = archives.get(key);
+                if (zip == null) {
+                    zip = new ZipFile(key);
+                    archives.put(key, zip);
+                }
+            }
+        }
+        return zip;
+    }
+
+    /**
+     * Inflates an entry on the CPU pool, each inflated block being written at its
+     * position on the disk pool. Entries smaller than a block are written by the
+     * inflating thread, a disk pool hop would cost more than the write.
+     * @return Completed once the file is written and closed
+     */
+    private CompletableFuture<Void> schedule(ZipFile zip, ZipEntry entry, Path filePath, ProgressListener listener) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            FileChannel channel = null;
+            try (InputStream is = zip.getInputStream(entry)) {
+                Files.createDirectories(filePath.getParent());
+                if (listener != null)
+                    listener.onFileCreated(entry.getName());
+                if (entry.getSize() >= 0 && entry.getSize() < BLOCK_SIZE) {
+                    byte[] data = is.readAllBytes();
+                    Files.write(filePath, data);
+                    if (listener != null && data.length > 0)
+                        listener.onProgress(data.length);
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+                channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                long position = 0;
+                while (true) {
+                    byte[] block = is.readNBytes(BLOCK_SIZE);
+                    if (block.length == 0)
+                        break;
+                    budget.acquireUninterruptibly(block.length);
+                    try {
+                        writes.add(write(channel, block, position, listener));
+                    } catch (RuntimeException ex) { // Not scheduled, its memory is given back here
+                        budget.release(block.length);
+                        throw ex;
+                    }
+                    position += block.length;
+                }
+                final FileChannel written = channel;
+                channel = null; // Closed by the writes from now on
+                return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]))
+                        .whenComplete((result, ex) -> close(written));
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            } finally {
+                if (channel != null) { // Failed while reading, closed once the scheduled writes ended
+                    final FileChannel opened = channel;
+                    CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).whenComplete((result, e) -> close(opened));
+                }
+            }
+        }, cpuPool).thenCompose(written -> written);
+    }
+
+    // Writes a block at its position then gives its memory back
+    private CompletableFuture<Void> write(FileChannel channel, byte[] block, long position, ProgressListener listener) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(block);
+                while (buffer.hasRemaining())
+                    channel.write(buffer, position + buffer.position());
+                if (listener != null)
+                    listener.onProgress(block.length);
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            } finally {
+                budget.release(block.length);
+            }
+        }, diskPool);
+    }
+
+    private static void close(FileChannel channel) {
+        try {
+            if (channel != null)
+                channel.close();
+        } catch (IOException ignore) { }
+    }
+
+    private static String message(Exception ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause.getMessage();
+    }
+
+    /**
+     * Closes the archives and stops the pools
+     */
+    @Override
+    public void close() {
+        cpuPool.shutdownNow();
+        diskPool.shutdownNow();
+        for (ZipFile zip : archives.values()) {
+            try {
+                zip.close();
+            } catch (IOException ignore) { }
+        }
+        archives.clear();
+    }
+}
@@ -1,21 +1,160 @@
 package io.github.emmrida.chat4ussetup.util;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.MissingFormatArgumentException;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Localized messages. The bundle of the current locale is loaded once into a table
+ * indexed like the keys of the default bundle, and the String.format templates are
+ * split ahead of time. Lookups read an immutable table without locking, a locale
+ * change swaps in a new table.
+ */
 public class Messages {
 	private static final String BUNDLE_NAME = Messages.class.getPackageName() + ".messages"; //$NON-NLS-1$
+	private static final Pattern FORMAT_SPECIFIER = Pattern.compile("%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])"); //$NON-NLS-1$
+	private static final Map<String, Integer> KEYS = loadKeys();
+
+	private static volatile Table table = null;
+
+	// Messages of one locale, aligned with KEYS
+	private static final class Table {
+		final Locale locale;
+		final String[] values;
+		final Template[] templates; // null for messages without format specifiers
+
+		Table(Locale locale) {
+			this.locale = locale;
+			values = new String[KEYS.size()];
+			templates = new Template[KEYS.size()];
+			ResourceBundle bundle = ResourceBundle.getBundle(BUNDLE_NAME, locale);
+			for (Map.Entry<String, Integer> key : KEYS.entrySet()) {
+				String value = bundle.getString(key.getKey());
+				values[key.getValue()] = value;
+				if (value.indexOf('%') >= 0)
+					templates[key.getValue()] = Template.compile(value);
+			}
+		}
+	}
+
+	// A String.format pattern split into literals and specifiers
+	private static final class Template {
+		final String[] literals; // One more than specifiers, the text around them
+		final String[] specifiers; // null for a plain %s
+
+		Template(String[] literals, String[] specifiers) {
+			this.literals = literals;
+			this.specifiers = specifiers;
+		}
+
+		/**
+		 * Splits a pattern
+		 * @return The template, null when the pattern needs Formatter for more than one argument at a time
+		 */
+		static Template compile(String pattern) {
+			List<String> literals = new ArrayList<>();
+			List<String> specifiers = new ArrayList<>();
+			Matcher matcher = FORMAT_SPECIFIER.matcher(pattern);
+			int last = 0;
+			while (matcher.find()) {
+				if (matcher.group(1) != null || (matcher.group(2) != null && matcher.group(2).contains("<"))) //$NON-NLS-1$
+					return null; // Indexed arguments
+				literals.add(pattern.substring(last, matcher.start()));
+				String specifier = matcher.group();
+				specifiers.add("%s".equals(specifier) ? null : specifier); //$NON-NLS-1$
+				last = matcher.end();
+			}
+			literals.add(pattern.substring(last));
+			return new Template(literals.toArray(new String[0]), specifiers.toArray(new String[0]));
+		}
+
+		String format(Object... args) {
+			StringBuilder sb = new StringBuilder(literals[0]);
+			int arg = 0;
+			for (int i = 0; i < specifiers.length; i++) {
+				String specifier = specifiers[i];
+				if ("%%".equals(specifier)) { //$NON-NLS-1$
+					sb.append('%');
+				} else if ("%n".equals(specifier)) { //$NON-NLS-1$
+					sb.append(System.lineSeparator());
+				} else {
+					if (args == null || arg >= args.length)
+						throw new MissingFormatArgumentException(specifier == null ? "%s" : specifier); //$NON-NLS-1$
+					sb.append(specifier == null ? String.valueOf(args[arg]) : String.format(specifier, args[arg]));
+					arg++;
+				}
+				sb.append(literals[i + 1]);
+			}
+			return sb.toString();
+		}
+	}
 
 	private Messages() {
 	}
 
 	public static String getString(String key) {
+		Integer index = KEYS.get(key);
+		if (index == null)
+			return '!' + key + '!';
+		return current().values[index];
+	}
+
+	/**
+	 * Formats a message like String.format, with its pattern split when the table was loaded
+	 * @param key The message key
+	 * @param args The format arguments
+	 * @return The formatted message
+	 */
+	public static String format(String key, Object... args) {
+		Integer index = KEYS.get(key);
+		if (index == null)
+			return '!' + key + '!';
+		Table t = current();
+		Template template = t.templates[index];
+		return template != null ? template.format(args) : String.format(t.values[index], args);
+	}
+
+	/**
+	 * Loads the messages of a locale, the following lookups use them
+	 * @param locale The locale, also made the default one
+	 */
+	public static void setLocale(Locale locale) {
+		Locale.setDefault(locale);
+		load(locale);
+	}
+
+	// The table of the default locale, loaded again when the default locale changed
+	private static Table current() {
+		Table t = table;
+		Locale locale = Locale.getDefault();
+		if (t == null || !t.locale.equals(locale))
+			t = load(locale);
+		return t;
+	}
+
+	private static synchronized Table load(Locale locale) {
+		Table t = table;
+		if (t == null || !t.locale.equals(locale))
+			table = t = new Table(locale);
+		return t;
+	}
+
+	private static Map<String, Integer> loadKeys() {
+		Map<String, Integer> keys = new HashMap<>();
 		try {
-			//return RESOURCE_BUNDLE.getString(key);
-			return ResourceBundle.getBundle(BUNDLE_NAME, Locale.getDefault()).getString(key);
+			for (String key : ResourceBundle.getBundle(BUNDLE_NAME, Locale.ROOT).keySet())
+				keys.put(key, keys.size());
 		} catch (MissingResourceException e) {
-			return '!' + key + '!';
+			System.err.println(e.getMessage());
 		}
+		return Collections.unmodifiableMap(keys);
 	}
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the version of .deb and .rpm packages on any system, from their metadata only.
+ * For a .deb the ar members are walked by their headers and only control.tar is read
+ * and decompressed. For a .rpm only the header index and the version tags are read.
+ * The payload is never touched, a package of any size costs a few KB of I/O.
+ */
+public class PackageVersionReader {
+    private static final int MAX_CONTROL_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_HEADER_ENTRIES = 65536;
+
+    private static final int RPM_TAG_VERSION = 1001;
+    private static final int RPM_TAG_RELEASE = 1002;
+    private static final int RPM_TAG_EPOCH = 1003;
+    private static final int RPM_TYPE_INT32 = 4;
+    private static final int RPM_TYPE_STRING = 6;
+
+    /**
+     * Reads the Version field of a Debian package
+     * @param file The .deb file
+     * @return The version, null when the control file has none
+     * @throws IOException If the file is not a Debian package or can't be read
+     */
+    public static String readDebVersion(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (!"!<arch>\n".equals(readAscii(channel, 0, 8))) //$NON-NLS-1$
+                throw new IOException(Messages.getString("PackageVersionReader.EX_NOT_DEB_PACKAGE") + file); //$NON-NLS-1$
+            long position = 8;
+            while (position + 60 <= channel.size()) {
+                String header = readAscii(channel, position, 60);
+                String name = header.substring(0, 16).trim();
+                long size = Long.parseLong(header.substring(48, 58).trim());
+                long data = position + 60;
+                if (name.endsWith("/")) //$NON-NLS-1$
+                    name = name.substring(0, name.length() - 1); // GNU ar names
+                if (name.startsWith("control.tar")) { //$NON-NLS-1$
+                    if (size > MAX_CONTROL_SIZE)
+                        throw new IOException(Messages.getString("PackageVersionReader.EX_NOT_DEB_PACKAGE") + file); //$NON-NLS-1$
+                    byte[] member = read(channel, data, (int)size).array();
+                    String control = readTarEntry(decompress(name, member), "control"); //$NON-NLS-1$
+                    return control == null ? null : controlField(control, "Version"); //$NON-NLS-1$
+                }
+                position = data + size + (size & 1); // Members are 2 bytes aligned
+            }
+            throw new IOException(Messages.getString("PackageVersionReader.EX_NOT_DEB_PACKAGE") + file); //$NON-NLS-1$
+        } catch (NumberFormatException ex) {
+            throw new IOException(Messages.getString("PackageVersionReader.EX_NOT_DEB_PACKAGE") + file); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Reads the version of an RPM package as [epoch:]version-release
+     * @param file The .rpm file
+     * @return The version, null when the header has no VERSION tag
+     * @throws IOException If the file is not an RPM package or can't be read
+     */
+    public static String readRpmVersion(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (read(channel, 0, 4).getInt() != 0xEDABEEDB) // Lead magic
+                throw new IOException(Messages.getString("PackageVersionReader.EX_NOT_RPM_PACKAGE") + file); //$NON-NLS-1$
+
+            // Signature header, padded to 8 bytes, then the main header
+            long signature = 96;
+            long signatureEnd = signature + headerSize(channel, signature, file);
+            long header = (signatureEnd + 7) & ~7L;
+            ByteBuffer intro = read(channel, header, 16);
+            if (intro.getInt(0) != 0x8EADE801)
+                throw new IOException(Messages.getString("PackageVersionReader.EX_NOT_RPM_PACKAGE") + file); //$NON-NLS-1$
+            int entries = intro.getInt(8);
+            int storeSize = intro.getInt(12);
+            if (entries < 0 || entries > MAX_HEADER_ENTRIES || storeSize < 0)
+                throw new IOException(Messages.getString("PackageVersionReader.EX_NOT_RPM_PACKAGE") + file); //$NON-NLS-1$
+            ByteBuffer index = read(channel, header + 16, entries * 16);
+            long store = header + 16 + entries * 16L;
+
+            String version = null, release = null, epoch = null;
+            for (int i = 0; i < entries; i++) {
+                int tag = index.getInt(i * 16);
+                int type = index.getInt(i * 16 + 4);
+                int offset = index.getInt(i * 16 + 8);
+                if (offset < 0 || offset >= storeSize)
+                    continue;
+                if (tag == RPM_TAG_VERSION && type == RPM_TYPE_STRING) {
+                    version = readCString(channel, store + offset, storeSize - offset);
+                } else if (tag == RPM_TAG_RELEASE && type == RPM_TYPE_STRING) {
+                    release = readCString(channel, store + offset, storeSize - offset);
+                } else if (tag == RPM_TAG_EPOCH && type == RPM_TYPE_INT32) {
+                    epoch = Integer.toString(read(channel, store + offset, 4).getInt());
+                }
+            }
+            if (version == null)
+                return null;
+            return (epoch == null ? "" : epoch + ":") + version + (release == null ? "" : "-" + release); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        }
+    }
+
+    // Size of an RPM header structure from its intro
+    private static long headerSize(FileChannel channel, long position, Path file) throws IOException {
+        ByteBuffer intro = read(channel, position, 16);
+        if (intro.getInt(0) != 0x8EADE801)
+            throw new IOException(Messages.getString("PackageVersionReader.EX_NOT_RPM_PACKAGE") + file); //$NON-NLS-1$
+        return 16 + (intro.getInt(8) & 0xFFFFFFFFL) * 16 + (intro.getInt(12) & 0xFFFFFFFFL);
+    }
+
+    private static InputStream decompress(String name, byte[] member) throws IOException {
+        if (name.equals("control.tar")) //$NON-NLS-1$
+            return new ByteArrayInputStream(member);
+        if (name.equals("control.tar.gz")) //$NON-NLS-1$
+            return new GZIPInputStream(new ByteArrayInputStream(member));
+        if (name.equals("control.tar.xz")) //$NON-NLS-1$
+            return new ByteArrayInputStream(XzDecoder.decode(member, MAX_CONTROL_SIZE));
+        throw new IOException(Messages.getString("PackageVersionReader.EX_UNSUPPORTED_COMPRESSION") + name); //$NON-NLS-1$
+    }
+
+    /**
+     * Returns the content of a file in a tar stream
+     * @param tar The tar stream
+     * @param fileName The file name, with or without a leading ./
+     * @return The file content, null if not found
+     */
+    private static String readTarEntry(InputStream tar, String fileName) throws IOException {
+        byte[] header = new byte[512];
+        while (tar.readNBytes(header, 0, 512) == 512 && header[0] != 0) {
+            String name = cString(header, 0, 100);
+            String sizeField = cString(header, 124, 12).trim();
+            long size = sizeField.isEmpty() ? 0 : Long.parseLong(sizeField, 8);
+            if (name.startsWith("./")) //$NON-NLS-1$
+                name = name.substring(2);
+            if (name.equals(fileName) && size <= MAX_CONTROL_SIZE)
+                return new String(tar.readNBytes((int)size), StandardCharsets.UTF_8);
+            tar.skipNBytes((size + 511) & ~511L);
+        }
+        return null;
+    }
+
+    // Value of a field of a Debian control file
+    private static String controlField(String control, String field) {
+        for (String line : control.split("\n")) { //$NON-NLS-1$
+            if (line.regionMatches(true, 0, field + ":", 0, field.length() + 1)) //$NON-NLS-1$
+                return line.substring(field.length() + 1).trim();
+        }
+        return null;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new EOFException();
+        }
+        return buffer.flip();
+    }
+
+    private static String readAscii(FileChannel channel, long position, int size) throws IOException {
+        return new String(read(channel, position, size).array(), StandardCharsets.ISO_8859_1);
+    }
+
+    // Null terminated string of the RPM header store, read in small steps
+    private static String readCString(FileChannel channel, long position, int maxSize) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int done = 0; done < maxSize; ) {
+            int size = (int)Math.min(256, Math.min(maxSize - done, channel.size() - position - done));
+            if (size <= 0)
+                break;
+            byte[] chunk = read(channel, position + done, size).array();
+            int end = 0;
+            while (end < size && chunk[end] != 0)
+                end++;
+            bytes.write(chunk, 0, end);
+            if (end < size)
+                break;
+            done += size;
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String cString(byte[] bytes, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && bytes[end] != 0)
+            end++;
+        return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import io.github.emmrida.chat4ussetup.util.Helper.KeyValue;
+
+/**
+ * Key/value file editor for the update.cfg [pair:...] sections.
+ * The add/update/remove operations of a section are compiled once into a key index,
+ * then each file is rewritten in a single streaming pass keeping comments and layout.
+ */
+public class PairFileEditor {
+    private final Map<String, String> replaced = new HashMap<>(); // Existing key -> new line
+    private final Set<String> removed = new HashSet<>();          // Existing keys to drop
+    private final List<String> appended = new ArrayList<>();      // Lines added at the end of file
+
+    /**
+     * Compiles the operations of a section. Unknown operations are ignored, see {@link #isOperation(String)}.
+     * @param tasks The section tasks: add:key=value, update:key=value or remove:key
+     */
+    public PairFileEditor(List<KeyValue> tasks) {
+        List<String[]> added = new ArrayList<>(); // { key, line } or { key, null } once removed
+        Map<String, List<String[]>> addedByKey = new HashMap<>();
+        for (KeyValue task : tasks) {
+            String op = task.key();
+            if ("add".equals(op)) { //$NON-NLS-1$
+                String[] line = new String[] { keyOf(task.value()), task.value() };
+                added.add(line);
+                addedByKey.computeIfAbsent(line[0], k -> new ArrayList<>()).add(line);
+            } else if ("remove".equals(op)) { //$NON-NLS-1$
+                String key = task.value().trim();
+                removed.add(key);
+                replaced.remove(key);
+                for (String[] line : addedByKey.getOrDefault(key, List.of()))
+                    line[1] = null;
+            } else if ("update".equals(op)) { //$NON-NLS-1$
+                String[] parts = task.value().split("=", 2); //$NON-NLS-1$
+                if (parts.length < 2)
+                    throw new IllegalArgumentException(Messages.getString("PairFileEditor.EX_INVALID_PAIR") + task.value()); //$NON-NLS-1$
+                String key = parts[0].trim();
+                String line = key + "=" + parts[1].trim(); //$NON-NLS-1$
+                if (!removed.contains(key))
+                    replaced.put(key, line);
+                for (String[] a : addedByKey.getOrDefault(key, List.of()))
+                    if (a[1] != null)
+                        a[1] = line;
+            }
+        }
+        for (String[] line : added)
+            if (line[1] != null)
+                appended.add(line[1]);
+    }
+
+    /**
+     * Checks whether an operation name is handled by this editor
+     * @param op The operation name
+     * @return true for add, update and remove
+     */
+    public static boolean isOperation(String op) {
+        return "add".equals(op) || "update".equals(op) || "remove".equals(op); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    /**
+     * Applies the operations to a file, creating it when missing.
+     * The file is replaced atomically and left untouched when nothing changes.
+     * @param filePath The file to edit
+     * @return true if the file was written
+     * @throws IOException If the file cannot be read or written
+     */
+    public boolean edit(String filePath) throws IOException {
+        Path file = Paths.get(filePath);
+        boolean exists = Files.exists(file);
+        boolean modified = !exists || !appended.isEmpty();
+        Path tmp = Helper.createSiblingTempFile(file);
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                String newLine = System.lineSeparator();
+                boolean terminated = true;
+                if (exists) {
+                    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                        LineReader lines = new LineReader(reader);
+                        String line;
+                        while ((line = lines.next()) != null) {
+                            String key = isComment(line) ? null : keyOf(line);
+                            if (key != null && removed.contains(key)) {
+                                modified = true;
+                                continue;
+                            }
+                            String replacement = key != null ? replaced.get(key) : null;
+                            if (replacement != null && !replacement.equals(line)) {
+                                line = replacement;
+                                modified = true;
+                            }
+                            writer.write(line);
+                            if (lines.separator() != null) {
+                                writer.write(lines.separator());
+                            } else terminated = false;
+                        }
+                        if (lines.firstSeparator() != null)
+                            newLine = lines.firstSeparator();
+                    }
+                }
+                for (String line : appended) {
+                    if (!terminated) {
+                        writer.write(newLine);
+                        terminated = true;
+                    }
+                    writer.write(line);
+                    writer.write(newLine);
+                }
+            }
+            if (modified)
+                Helper.moveAtomically(tmp, file);
+            return modified;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Returns the trimmed key of a key=value line, the whole trimmed line when there is no '='
+     */
+    private static String keyOf(String line) {
+        int eq = line.indexOf('=');
+        return (eq >= 0 ? line.substring(0, eq) : line).trim();
+    }
+
+    private static boolean isComment(String line) {
+        String trimmed = line.strip();
+        return trimmed.isEmpty() || trimmed.charAt(0) == '#' || trimmed.charAt(0) == '!';
+    }
+
+    // Reads lines and keeps their separators so the file layout is preserved
+    private static class LineReader {
+        private final Reader reader;
+        private final StringBuilder line = new StringBuilder();
+        private String separator;
+        private String firstSeparator;
+        private int pending = -2; // Char read ahead after a '\r', -2 when none
+
+        LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        String next() throws IOException {
+            line.setLength(0);
+            separator = null;
+            int c = pending != -2 ? pending : reader.read();
+            pending = -2;
+            if (c < 0)
+                return null;
+            while (c >= 0) {
+                if (c == '\n') {
+                    separator = "\n"; //$NON-NLS-1$
+                    break;
+                } else if (c == '\r') {
+                    int n = reader.read();
+                    if (n == '\n') {
+                        separator = "\r\n"; //$NON-NLS-1$
+                    } else {
+                        separator = "\r"; //$NON-NLS-1$
+                        pending = n;
+                    }
+                    break;
+                }
+                line.append((char)c);
+                c = reader.read();
+            }
+            if (firstSeparator == null)
+                firstSeparator = separator;
+            return line.toString();
+        }
+
+        String separator() { return separator; }
+        String firstSeparator() { return firstSeparator; }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the version resource of a Windows PE/COFF file (.exe, .dll) on any system.
+ * The file is memory-mapped, the RT_VERSION resource is found through the resource
+ * section tree and its VS_VERSIONINFO block is decoded: the VS_FIXEDFILEINFO numbers
+ * and the FileVersion and ProductVersion strings of the first string table.
+ */
+public class PeVersionReader {
+    private static final int RT_VERSION = 16;
+    private static final int RESOURCE_DIRECTORY = 2; // Index in the optional header data directories
+    private static final int FIXED_FILE_INFO_SIGNATURE = 0xFEEF04BD;
+
+    /**
+     * Version resource content, strings are null when missing
+     * @param fileVersion The StringFileInfo FileVersion
+     * @param productVersion The StringFileInfo ProductVersion
+     * @param fixedFileVersion The VS_FIXEDFILEINFO file version as a.b.c.d
+     * @param fixedProductVersion The VS_FIXEDFILEINFO product version as a.b.c.d
+     */
+    public static record VersionInfo(String fileVersion, String productVersion, String fixedFileVersion, String fixedProductVersion) {}
+
+    /**
+     * Reads the version resource of a PE file
+     * @param file The file
+     * @return The version information, null when the file has no version resource
+     * @throws IOException If the file can't be read or is not a valid PE file
+     */
+    public static VersionInfo read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException(Messages.getString("PeVersionReader.EX_NOT_PE_FILE") + file); //$NON-NLS-1$
+            ByteBuffer pe = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            return read(pe);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException(Messages.getString("PeVersionReader.EX_NOT_PE_FILE") + file); //$NON-NLS-1$
+        }
+    }
+
+    private static VersionInfo read(ByteBuffer pe) throws IOException {
+        // DOS header then PE signature
+        if (pe.getShort(0) != 0x5A4D) // MZ
+            throw new IllegalArgumentException();
+        int peOffset = pe.getInt(0x3C);
+        if (pe.getInt(peOffset) != 0x00004550) // PE\0\0
+            throw new IllegalArgumentException();
+
+        // COFF header then optional header
+        int sections = pe.getShort(peOffset + 6) & 0xffff;
+        int optionalSize = pe.getShort(peOffset + 20) & 0xffff;
+        int optional = peOffset + 24;
+        int magic = pe.getShort(optional) & 0xffff;
+        int directories;
+        if (magic == 0x10b) {
+            directories = optional + 96; // PE32
+        } else if (magic == 0x20b) {
+            directories = optional + 112; // PE32+
+        } else throw new IllegalArgumentException();
+        int directoryCount = pe.getInt(directories - 4);
+        if (directoryCount <= RESOURCE_DIRECTORY)
+            return null;
+        int resourceRva = pe.getInt(directories + RESOURCE_DIRECTORY * 8);
+        if (resourceRva == 0)
+            return null;
+
+        int sectionTable = optional + optionalSize;
+        int resources = toOffset(pe, sectionTable, sections, resourceRva);
+
+        // Resource tree: type, then name, then language
+        int entry = findEntry(pe, resources, resources, RT_VERSION);
+        for (int level = 0; level < 2 && entry >= 0; level++)
+            entry = isDirectory(pe, entry) ? findEntry(pe, resources, subdirectory(pe, resources, entry), -1) : -1;
+        if (entry < 0 || isDirectory(pe, entry))
+            return null;
+        int dataEntry = resources + (pe.getInt(entry + 4) & 0x7fffffff);
+        int data = toOffset(pe, sectionTable, sections, pe.getInt(dataEntry));
+        int size = pe.getInt(dataEntry + 4);
+        return parseVersionInfo(pe.slice(data, size).order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    // Converts a relative virtual address to a file offset through the section table
+    private static int toOffset(ByteBuffer pe, int sectionTable, int sections, int rva) throws IOException {
+        for (int i = 0; i < sections; i++) {
+            int section = sectionTable + i * 40;
+            int virtualSize = pe.getInt(section + 8);
+            int virtualAddress = pe.getInt(section + 12);
+            int rawSize = pe.getInt(section + 16);
+            int rawPointer = pe.getInt(section + 20);
+            if (Integer.compareUnsigned(rva, virtualAddress) >= 0
+                    && Integer.compareUnsigned(rva - virtualAddress, Math.max(virtualSize, rawSize)) < 0)
+                return rva - virtualAddress + rawPointer;
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Finds an entry of a resource directory
+     * @param id The entry id, -1 for the first entry
+     * @return The entry offset, -1 if not found
+     */
+    private static int findEntry(ByteBuffer pe, int resources, int directory, int id) {
+        int named = pe.getShort(directory + 12) & 0xffff;
+        int ids = pe.getShort(directory + 14) & 0xffff;
+        int first = directory + 16;
+        if (id < 0)
+            return named + ids > 0 ? first : -1;
+        for (int i = named; i < named + ids; i++) {
+            int entry = first + i * 8;
+            if (pe.getInt(entry) == id)
+                return entry;
+        }
+        return -1;
+    }
+
+    private static boolean isDirectory(ByteBuffer pe, int entry) {
+        return pe.getInt(entry + 4) < 0; // High bit set
+    }
+
+    private static int subdirectory(ByteBuffer pe, int resources, int entry) {
+        return resources + (pe.getInt(entry + 4) & 0x7fffffff);
+    }
+
+    /**
+     * Decodes a VS_VERSIONINFO block
+     */
+    private static VersionInfo parseVersionInfo(ByteBuffer info) {
+        int length = info.getShort(0) & 0xffff;
+        int valueLength = info.getShort(2) & 0xffff;
+        int value = align(keyEnd(info, 6));
+        if (!"VS_VERSION_INFO".equals(readString(info, 6))) //$NON-NLS-1$
+            throw new IllegalArgumentException();
+
+        String fixedFileVersion = null;
+        String fixedProductVersion = null;
+        if (valueLength >= 52 && info.getInt(value) == FIXED_FILE_INFO_SIGNATURE) {
+            fixedFileVersion = fixedVersion(info.getInt(value + 8), info.getInt(value + 12));
+            fixedProductVersion = fixedVersion(info.getInt(value + 16), info.getInt(value + 20));
+        }
+
+        // Children: StringFileInfo and VarFileInfo
+        String fileVersion = null;
+        String productVersion = null;
+        int end = Math.min(length, info.limit());
+        for (int child = align(value + valueLength); child + 6 < end; ) {
+            int childLength = info.getShort(child) & 0xffff;
+            if (childLength == 0)
+                break;
+            if ("StringFileInfo".equals(readString(info, child + 6))) { //$NON-NLS-1$
+                // First string table, its strings follow
+                int table = align(keyEnd(info, child + 6));
+                int tableEnd = Math.min(table + (info.getShort(table) & 0xffff), child + childLength);
+                for (int string = align(keyEnd(info, table + 6)); string + 6 < tableEnd; ) {
+                    int stringLength = info.getShort(string) & 0xffff;
+                    if (stringLength == 0)
+                        break;
+                    int stringValue = align(keyEnd(info, string + 6));
+                    String key = readString(info, string + 6);
+                    if ((info.getShort(string + 2) & 0xffff) > 0 && stringValue < string + stringLength) {
+                        if ("FileVersion".equals(key)) //$NON-NLS-1$
+                            fileVersion = readString(info, stringValue).trim();
+                        else if ("ProductVersion".equals(key)) //$NON-NLS-1$
+                            productVersion = readString(info, stringValue).trim();
+                    }
+                    string = align(string + stringLength);
+                }
+                break;
+            }
+            child = align(child + childLength);
+        }
+        return new VersionInfo(fileVersion, productVersion, fixedFileVersion, fixedProductVersion);
+    }
+
+    private static String fixedVersion(int ms, int ls) {
+        return (ms >>> 16) + "." + (ms & 0xffff) + "." + (ls >>> 16) + "." + (ls & 0xffff); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    // Reads a null terminated UTF-16LE string
+    private static String readString(ByteBuffer info, int offset) {
+        StringBuilder sb = new StringBuilder();
+        for (char c; offset + 1 < info.limit() && (c = info.getChar(offset)) != 0; offset += 2)
+            sb.append(c);
+        return sb.toString();
+    }
+
+    // Offset after the null terminated UTF-16LE key at offset
+    private static int keyEnd(ByteBuffer info, int offset) {
+        while (offset + 1 < info.limit() && info.getChar(offset) != 0)
+            offset += 2;
+        return offset + 2;
+    }
+
+    private static int align(int offset) {
+        return (offset + 3) & ~3;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects the external refresh commands needed after links are created (desktop
+ * database, menu cache...) and runs them in parallel and off the critical path.
+ * A collector belongs to one engine, or to the engines of a bundle session: identical
+ * commands scheduled by its engines before one of them runs it run once, and each engine
+ * waits for the commands it scheduled. Tools are looked up in PATH without starting a
+ * shell and each command is killed past its timeout.
+ */
+public class PostInstallHooks {
+    private static final Map<String, Optional<Path>> toolCache = new ConcurrentHashMap<>();
+
+    private final Map<List<String>, Hook> pending = new HashMap<>(); // Scheduled and not started yet
+
+    // Outcome of a hook command, message is the error of a command that could not be started
+    public static enum Status { DONE, FAILED, TIMED_OUT, NOT_FOUND }
+    public static record Result(String command, Status status, int exitCode, long elapsedMillis, String message) {}
+
+    // A scheduled command, shared by the engines scheduling it before it starts
+    public static final class Hook {
+        private final List<String> command;
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+
+        private Hook(List<String> command) {
+            this.command = command;
+        }
+
+        /**
+         * @return A future completed with the outcome of the command once it has run
+         */
+        public CompletableFuture<Result> result() { return result; }
+    }
+
+    /**
+     * Schedules a command, the same command already scheduled and not started yet is shared.
+     * A command scheduled after the same one has started runs again, for the files created since.
+     * @param command The tool name and its arguments
+     * @return The scheduled command, to give to {@link #runAsync(Collection, long, Consumer)}
+     */
+    public synchronized Hook schedule(String... command) {
+        return pending.computeIfAbsent(List.of(command), Hook::new);
+    }
+
+    /**
+     * Starts the given commands not started yet, in parallel, and returns at once
+     * @param hooks The commands scheduled by the caller
+     * @param timeoutMillis Time allowed to each command before it is killed
+     * @param onResult Called from a worker thread as each of the given commands completes, may be null
+     * @return A future completed once every given command is done, including those started by another engine
+     */
+    public CompletableFuture<Void> runAsync(Collection<Hook> hooks, long timeoutMillis, Consumer<Result> onResult) {
+        List<Hook> starting = new ArrayList<>();
+        synchronized (this) {
+            for (Hook hook : hooks)
+                if (pending.remove(hook.command, hook))
+                    starting.add(hook);
+        }
+        if (!starting.isEmpty()) {
+            ExecutorService pool = Executors.newFixedThreadPool(starting.size()); // Not daemons: hooks complete before exit
+            for (Hook hook : starting) {
+                CompletableFuture.supplyAsync(() -> run(hook.command, timeoutMillis), pool)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            hook.result.completeExceptionally(ex);
+                        } else hook.result.complete(result);
+                    });
+            }
+            pool.shutdown();
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Hook hook : hooks) {
+            futures.add(hook.result.thenAccept(result -> {
+                if (onResult != null)
+                    onResult.accept(result);
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Finds an executable in the PATH folders
+     * @param tool The tool name
+     * @return The executable path, or null when not found
+     */
+    public static Path findOnPath(String tool) {
+        return toolCache.computeIfAbsent(tool, name -> {
+            String path = System.getenv("PATH"); //$NON-NLS-1$
+            if (path == null)
+                return Optional.empty();
+            List<String> extensions = new ArrayList<>(List.of("")); //$NON-NLS-1$
+            String pathExt = AppLinkCreator.isWindows() ? System.getenv("PATHEXT") : null; //$NON-NLS-1$
+            if (pathExt != null)
+                extensions.addAll(List.of(pathExt.toLowerCase().split(";"))); //$NON-NLS-1$
+            for (String dir : path.split(File.pathSeparator)) {
+                if (dir.isEmpty())
+                    continue;
+                for (String ext : extensions) {
+                    Path candidate = Paths.get(dir, name + ext);
+                    if (Files.isRegularFile(candidate) && Files.isExecutable(candidate))
+                        return Optional.of(candidate);
+                }
+            }
+            return Optional.empty();
+        }).orElse(null);
+    }
+
+    private static Result run(List<String> command, long timeoutMillis) {
+        String text = String.join(" ", command); //$NON-NLS-1$
+        long start = System.nanoTime();
+        Path tool = findOnPath(command.get(0));
+        if (tool == null)
+            return new Result(text, Status.NOT_FOUND, -1, 0, null);
+        List<String> args = new ArrayList<>(command);
+        args.set(0, tool.toString());
+        try {
+            Process process = new ProcessBuilder(args)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                return new Result(text, Status.TIMED_OUT, -1, (System.nanoTime() - start) / 1_000_000, null);
+            }
+            int exitCode = process.exitValue();
+            return new Result(text, exitCode == 0 ? Status.DONE : Status.FAILED, exitCode, (System.nanoTime() - start) / 1_000_000, null);
+        } catch (Exception ex) {
+            return new Result(text, Status.FAILED, -1, (System.nanoTime() - start) / 1_000_000, String.valueOf(ex.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds text in a binary file the way the strings tool does, without starting it.
+ * The file is memory-mapped and walked by a small state machine that collects runs
+ * of printable ASCII and well-formed UTF-8 into a reused buffer. Only the runs where
+ * a digit, a dot and a digit follow each other reach the pattern, and the scan stops
+ * at the first accepted match.
+ */
+public class PrintableStringScanner {
+    private static final long MAP_WINDOW = 64L * 1024 * 1024; // Bytes mapped at once
+    private static final int MAX_RUN = 4096; // Longer runs are matched in pieces
+
+    private final int minLength;
+    private final byte[] run = new byte[MAX_RUN];
+    private final RunText text = new RunText();
+    private int length = 0;
+    private int pendingContinuations = 0; // UTF-8 continuation bytes still expected
+    private int sequenceStart = 0; // Run index of the UTF-8 sequence being read
+    private int candidateState = 0; // 0 nothing, 1 after a digit, 2 after a digit and a dot, 3 candidate
+
+    // The current run seen as chars, non ASCII bytes read as '?' so they never form words
+    private class RunText implements CharSequence {
+        @Override public int length() { return length; }
+        @Override public char charAt(int index) { return run[index] < 0 ? '?' : (char)run[index]; }
+        @Override public CharSequence subSequence(int start, int end) {
+            StringBuilder sb = new StringBuilder(end - start);
+            for (int i = start; i < end; i++)
+                sb.append(charAt(i));
+            return sb;
+        }
+        @Override public String toString() { return subSequence(0, length).toString(); }
+    }
+
+    /**
+     * Constructs a scanner
+     * @param minLength The shortest run considered as text, 4 like strings
+     */
+    public PrintableStringScanner(int minLength) {
+        this.minLength = Math.max(1, minLength);
+    }
+
+    /**
+     * Returns the first match of a pattern in the text runs of a file
+     * @param file The file to scan
+     * @param pattern The pattern, group 1 is returned when it has groups
+     * @param accept Filter applied to each match, the scan goes on when it is refused
+     * @return The first accepted match or null
+     * @throws IOException If the file cannot be read
+     */
+    public String findFirst(Path file, Pattern pattern, Predicate<String> accept) throws IOException {
+        Matcher matcher = pattern.matcher(text);
+        reset();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_WINDOW) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (push(b))
+                        continue;
+                    boolean consumed = length == MAX_RUN;
+                    String found = endRun(matcher, accept);
+                    if (found != null)
+                        return found;
+                    if (!consumed)
+                        push(b); // A byte that broke a UTF-8 sequence may start the next run
+                }
+            }
+        }
+        return endRun(matcher, accept);
+    }
+
+    private void reset() {
+        length = 0;
+        pendingContinuations = 0;
+        candidateState = 0;
+    }
+
+    /**
+     * Adds a byte to the current run
+     * @return false when the byte ends the run and is not added, or when the run buffer is full
+     */
+    private boolean push(byte b) {
+        int c = b & 0xff;
+        if (pendingContinuations > 0) {
+            if ((c & 0xc0) != 0x80)
+                return false;
+            pendingContinuations--;
+        } else if (c >= 0xc2 && c <= 0xf4) {
+            sequenceStart = length;
+            pendingContinuations = c >= 0xf0 ? 3 : c >= 0xe0 ? 2 : 1;
+        } else if (c < 0x20 && c != '\t' || c >= 0x7f) {
+            return false;
+        }
+        run[length++] = b;
+        if (candidateState < 3) {
+            boolean digit = c >= '0' && c <= '9';
+            candidateState = digit ? (candidateState == 2 ? 3 : 1) : (c == '.' && candidateState == 1 ? 2 : 0);
+        }
+        return length < MAX_RUN;
+    }
+
+    // Matches the run when it may hold a candidate, then starts a new one
+    private String endRun(Matcher matcher, Predicate<String> accept) {
+        String found = null;
+        if (pendingContinuations > 0)
+            length = sequenceStart; // Drop an unfinished UTF-8 sequence
+        if (candidateState == 3 && length >= minLength) {
+            matcher.reset(text);
+            while (found == null && matcher.find()) {
+                String match = matcher.groupCount() > 0 ? matcher.group(1) : matcher.group();
+                if (accept.test(match))
+                    found = match;
+            }
+        }
+        reset();
+        return found;
+    }
+}
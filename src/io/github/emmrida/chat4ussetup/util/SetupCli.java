@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import io.github.emmrida.chat4ussetup.util.BatchUpdate.RootResult;
+import io.github.emmrida.chat4ussetup.util.InstallationDiscovery.Installation;
+import io.github.emmrida.chat4ussetup.util.SetupEngine.Operation;
+
+/**
+ * Unattended command line mode, for scripted rollouts on headless hosts:
+ * <pre>java -jar setup.jar --op update [--dest folder] [--archive file.zip] [--backup]</pre>
+ * Nothing touches AWT or Swing. The progress is written to stdout as one JSON object
+ * per line, anything else printed goes to stderr. The exit code tells the outcome,
+ * see {@link Exit}. An update accepts several folders, see {@link BatchUpdate}, and
+ * several products are installed or updated together with a bundle manifest, see
+ * {@link BundleSession}.
+ */
+public class SetupCli {
+    private static final Set<String> VALUE_OPTIONS = Set.of("--op", "--dest", "--dest-list", "--archive", "--jobs", "--bundle", "--lang"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+    private static final Set<String> FLAG_OPTIONS = Set.of("--backup", "--desktop-link", "--menu-link", "--help"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+    /**
+     * Process exit codes, also reported by the end event
+     */
+    public static enum Exit {
+        SUCCESS(0), FAILED(1), USAGE(2), CONFIG(3), ARCHIVE(4), NOT_INSTALLED(5), NOT_UPDATABLE(6), UP_TO_DATE(7), NO_SPACE(8), PARTIAL(9);
+
+        private final int code;
+        private Exit(int code) { this.code = code; }
+        public int code() { return code; }
+    }
+
+    // A check that failed
+    private static record Failure(Exit exit, String message) {}
+
+    private final PrintStream out;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, String> options = new HashMap<>();
+    private final Set<String> destinations = new LinkedHashSet<>();
+    private String operation = null;
+    private long requiredSize = 0;
+
+    private SetupCli(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Checks whether the arguments ask for the command line mode
+     * @param args The main arguments
+     * @return true when the first argument is a command line option
+     */
+    public static boolean isCommandLine(String[] args) {
+        return args.length > 0 && (VALUE_OPTIONS.contains(args[0]) || FLAG_OPTIONS.contains(args[0]));
+    }
+
+    /**
+     * Runs the command line mode
+     * @param args The main arguments
+     * @return The process exit code
+     */
+    public static int run(String[] args) {
+        System.setProperty("java.awt.headless", "true"); //$NON-NLS-1$ //$NON-NLS-2$
+        PrintStream json = new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
+        System.setOut(System.err); // Only the JSON lines on stdout
+        return new SetupCli(json).execute(args).code();
+    }
+
+    private Exit execute(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (VALUE_OPTIONS.contains(args[i]) && i + 1 < args.length) {
+                String value = args[++i];
+                if ("--dest".equals(args[i - 1])) { //$NON-NLS-1$
+                    destinations.add(Path.of(value).toAbsolutePath().normalize().toString());
+                } else options.put(args[i - 1], value);
+            } else if (FLAG_OPTIONS.contains(args[i])) {
+                options.put(args[i], "true"); //$NON-NLS-1$
+            } else {
+                System.err.println(Messages.getString("SetupCli.USAGE")); //$NON-NLS-1$
+                return end(Exit.USAGE, Messages.getString("SetupCli.ERR_BAD_ARGUMENT") + args[i]); //$NON-NLS-1$
+            }
+        }
+        if (options.containsKey("--help")) { //$NON-NLS-1$
+            System.err.println(Messages.getString("SetupCli.USAGE")); //$NON-NLS-1$
+            return Exit.SUCCESS;
+        }
+        if (options.containsKey("--lang")) //$NON-NLS-1$
+            Messages.setLocale(Locale.forLanguageTag(options.get("--lang"))); //$NON-NLS-1$
+        Operation op;
+        try {
+            operation = options.getOrDefault("--op", ""); //$NON-NLS-1$ //$NON-NLS-2$
+            op = Operation.valueOf(operation.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            System.err.println(Messages.getString("SetupCli.USAGE")); //$NON-NLS-1$
+            return end(Exit.USAGE, Messages.getString("SetupCli.ERR_BAD_OPERATION") + operation); //$NON-NLS-1$
+        }
+        operation = op.name().toLowerCase(Locale.ROOT);
+        if (options.containsKey("--dest-list")) { //$NON-NLS-1$
+            try {
+                for (String line : Files.readAllLines(Path.of(options.get("--dest-list")))) { //$NON-NLS-1$
+                    if (!line.isBlank() && !line.startsWith("#")) //$NON-NLS-1$
+                        destinations.add(Path.of(line.trim()).toAbsolutePath().normalize().toString());
+                }
+            } catch (IOException ex) {
+                return end(Exit.USAGE, Messages.getString("SetupCli.ERR_DEST_LIST") + ex.getMessage()); //$NON-NLS-1$
+            }
+        }
+        if (destinations.size() > 1 && op != Operation.UPDATE)
+            return end(Exit.USAGE, Messages.getString("SetupCli.ERR_MULTIPLE_DEST")); //$NON-NLS-1$
+
+        Tombstones.cleanupLeftovers(); // Folders an interrupted run didn't finish deleting
+        if (options.containsKey("--bundle")) //$NON-NLS-1$
+            return executeBundle(op);
+        SetupConfig config = SetupConfig.load(SetupConfig.SETUP_FILE, SetupConfig.UPDATE_FILE);
+        if (config.getSetupError() != null || config.getUpdate() == null)
+            return end(Exit.CONFIG, Messages.getString("SetupCli.ERR_CONFIG") //$NON-NLS-1$
+                    + (config.getSetupError() != null ? config.getSetupError().getMessage() : SetupConfig.UPDATE_FILE));
+        if (destinations.size() > 1)
+            return executeBatch(config);
+        Map<String, String> setup = config.getSetup();
+        String appName = setup.get(SetupConfig.APP_NAME);
+        String appVersion = setup.get(SetupConfig.APP_VERSION);
+        String runnable = setup.get(SetupConfig.APP_RUNNABLE);
+
+        // Installation folder
+        String dest = destinations.isEmpty() ? null : destinations.iterator().next();
+        Installation installation = null;
+        if (op != Operation.INSTALL) {
+            installation = InstallationDiscovery.get(appName, runnable);
+            if (dest == null)
+                dest = installation.folder();
+            if (dest == null || (op != Operation.RECOVER && !Files.isDirectory(Path.of(dest))))
+                return end(Exit.NOT_INSTALLED, Messages.getString("SetupCli.ERR_NOT_INSTALLED") + (dest != null ? dest : appName)); //$NON-NLS-1$
+        } else if (dest == null) {
+            dest = Path.of(System.getProperty("user.home"), "Programs", setup.get(SetupConfig.DST_FOLDER_NAME)).toString(); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        dest = Path.of(dest).toAbsolutePath().normalize().toString();
+
+        // Source archive, tested before anything is changed
+        String archive = null;
+        if (op != Operation.UNINSTALL) {
+            archive = options.get("--archive"); //$NON-NLS-1$
+            if (archive == null && op == Operation.RECOVER)
+                return end(Exit.USAGE, Messages.getString("SetupCli.ERR_RECOVER_ARCHIVE")); //$NON-NLS-1$
+            if (archive == null)
+                archive = setup.get(SetupConfig.SOURCE_ARCHIVE);
+            Failure failure = testArchive(op, archive, runnable);
+            if (failure != null)
+                return end(failure.exit(), failure.message());
+            if (op != Operation.UPDATE && Helper.getDriveFreeSpace(dest) < requiredSize)
+                return end(Exit.NO_SPACE, Messages.format("SetupCli.ERR_NO_SPACE", Helper.formatBytes(requiredSize), dest)); //$NON-NLS-1$
+        }
+
+        // An update needs an installed version it applies to
+        String installed = null;
+        if (op == Operation.UPDATE) {
+            installed = dest.equals(installation.folder()) && installation.version() != null ? installation.version()
+                    : CrossPlatformVersionReader.extractVersion(dest + File.separator + runnable);
+            Failure failure = checkVersion(config, installed);
+            if (failure != null)
+                return end(failure.exit(), failure.message());
+        }
+
+        SetupEngine engine = new SetupEngine(op, dest, archive);
+        engine.setApplication(appName, appVersion, runnable);
+        engine.setLinks(options.containsKey("--desktop-link"), options.containsKey("--menu-link"), //$NON-NLS-1$ //$NON-NLS-2$
+                setup.get(SetupConfig.LINK_ICONS), config.get(SetupConfig.LINK_DESCRIPTION, Locale.getDefault().getLanguage()));
+        engine.setBackup(options.containsKey("--backup")); //$NON-NLS-1$
+        engine.setInstalledVersion(installed);
+        engine.setRequiredSize(requiredSize);
+        engine.setUpdate(config.getUpdate());
+        engine.setListener(new JsonListener(null, null));
+
+        event("start", "destination", dest, "archive", archive, "installedVersion", installed, "version", appVersion); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+        boolean success = engine.run();
+        if (success && op != Operation.UPDATE)
+            InstallationDiscovery.invalidate(appName); // The links changed
+        try {
+            engine.awaitBackgroundWork();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return end(success ? Exit.SUCCESS : Exit.FAILED, null);
+    }
+
+    /**
+     * Updates several folders from one archive session. Each folder ends with a root-end
+     * event, the folders that can't be updated are reported before the others start.
+     */
+    private Exit executeBatch(SetupConfig config) {
+        Map<String, String> setup = config.getSetup();
+        String appVersion = setup.get(SetupConfig.APP_VERSION);
+        String runnable = setup.get(SetupConfig.APP_RUNNABLE);
+        String archive = options.getOrDefault("--archive", setup.get(SetupConfig.SOURCE_ARCHIVE)); //$NON-NLS-1$
+        int jobs = BatchUpdate.DEFAULT_CONCURRENCY;
+        if (options.containsKey("--jobs")) { //$NON-NLS-1$
+            try {
+                jobs = Integer.parseInt(options.get("--jobs")); //$NON-NLS-1$
+            } catch (NumberFormatException ex) {
+                return end(Exit.USAGE, Messages.getString("SetupCli.ERR_BAD_ARGUMENT") + options.get("--jobs")); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+        Failure failure = testArchive(Operation.UPDATE, archive, runnable);
+        if (failure != null)
+            return end(failure.exit(), failure.message());
+
+        event("start", "roots", destinations.size(), "archive", archive, "version", appVersion, "jobs", jobs); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+        List<Exit> exits = new ArrayList<>(destinations.size());
+        BatchUpdate batch = new BatchUpdate(archive, config.getUpdate());
+        batch.setApplication(setup.get(SetupConfig.APP_NAME), appVersion, runnable);
+        batch.setBackup(options.containsKey("--backup")); //$NON-NLS-1$
+        batch.setRequiredSize(requiredSize);
+        batch.setConcurrency(jobs);
+        for (String dest : destinations) {
+            if (!Files.isDirectory(Path.of(dest))) {
+                exits.add(rootEnd(dest, Exit.NOT_INSTALLED, Messages.getString("SetupCli.ERR_NOT_INSTALLED") + dest, 0)); //$NON-NLS-1$
+                continue;
+            }
+            String installed = CrossPlatformVersionReader.extractVersion(dest + File.separator + runnable);
+            failure = checkVersion(config, installed);
+            if (failure != null) {
+                exits.add(rootEnd(dest, failure.exit(), failure.message(), 0));
+            } else batch.addRoot(dest, installed);
+        }
+        try {
+            List<RootResult> results = batch.run(new BatchUpdate.Listener() {
+                @Override
+                public SetupEngine.Listener onRootStarted(String root) {
+                    event("root-start", "root", root); //$NON-NLS-1$ //$NON-NLS-2$
+                    return new JsonListener("root", root); //$NON-NLS-1$
+                }
+                @Override
+                public void onRootEnded(RootResult result) {
+                    rootEnd(result.root(), result.success() ? Exit.SUCCESS : Exit.FAILED, null, result.elapsedMillis());
+                }
+            });
+            for (RootResult result : results)
+                exits.add(result.success() ? Exit.SUCCESS : Exit.FAILED);
+        } catch (IOException ex) {
+            return end(Exit.ARCHIVE, Messages.getString("SetupCli.ERR_ARCHIVE_CORRUPTED") + ex.getMessage()); //$NON-NLS-1$
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return end(Exit.FAILED, null);
+        }
+
+        return endAll(exits, "inflated", batch.getInflatedCount()); //$NON-NLS-1$
+    }
+
+    /**
+     * Installs or updates the products of a bundle manifest in one session. Each product
+     * ends with a product-end event, the combined progress is reported by session-progress
+     * events and the logs of all the products are written to one report.
+     */
+    private Exit executeBundle(Operation op) {
+        if (op != Operation.INSTALL && op != Operation.UPDATE)
+            return end(Exit.USAGE, Messages.getString("SetupCli.ERR_BUNDLE_OPERATION")); //$NON-NLS-1$
+        BundleSession session;
+        try {
+            session = BundleSession.load(options.get("--bundle"), op); //$NON-NLS-1$
+        } catch (IllegalArgumentException ex) {
+            return end(Exit.CONFIG, Messages.getString("SetupCli.ERR_CONFIG") + ex.getMessage()); //$NON-NLS-1$
+        }
+        session.setBackup(options.containsKey("--backup")); //$NON-NLS-1$
+        session.setLinks(options.containsKey("--desktop-link"), options.containsKey("--menu-link")); //$NON-NLS-1$ //$NON-NLS-2$
+        event("start", "bundle", options.get("--bundle"), "products", session.getProducts().size()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+        // Products that can't be processed are reported before the others start
+        List<Exit> exits = new ArrayList<>();
+        List<BundleSession.Product> selected = new ArrayList<>();
+        for (BundleSession.Product product : session.getProducts()) {
+            Map<String, String> setup = product.config().getSetup();
+            Failure failure = null;
+            if (product.destination() == null) {
+                failure = new Failure(Exit.NOT_INSTALLED, Messages.getString("SetupCli.ERR_NOT_INSTALLED") + setup.get(SetupConfig.APP_NAME)); //$NON-NLS-1$
+            } else if ((failure = testArchive(op, product.archive(), setup.get(SetupConfig.APP_RUNNABLE))) == null) {
+                if (op == Operation.INSTALL && Helper.getDriveFreeSpace(product.destination()) < requiredSize) {
+                    failure = new Failure(Exit.NO_SPACE, Messages.format("SetupCli.ERR_NO_SPACE", Helper.formatBytes(requiredSize), product.destination())); //$NON-NLS-1$
+                } else if (op == Operation.UPDATE) {
+                    failure = checkVersion(product.config(), product.installedVersion());
+                }
+            }
+            if (failure != null) {
+                exits.add(productEnd(product, failure.exit(), failure.message(), 0));
+            } else selected.add(product);
+        }
+        try {
+            List<BundleSession.ProductResult> results = session.run(selected, new BundleSession.Listener() {
+                private long percent = -1;
+                @Override
+                public SetupEngine.Listener onProductStarted(BundleSession.Product product) {
+                    event("product-start", "product", product.name(), "destination", product.destination(), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                            "installedVersion", product.installedVersion(), "version", product.config().getSetup().get(SetupConfig.APP_VERSION)); //$NON-NLS-1$ //$NON-NLS-2$
+                    return new JsonListener("product", product.name()); //$NON-NLS-1$
+                }
+                @Override
+                public void onProgress(long done, long total) {
+                    long current = total > 0 ? done * 100 / total : -1;
+                    synchronized (this) {
+                        if (current == percent)
+                            return;
+                        percent = current;
+                    }
+                    event("session-progress", "done", done, "total", total, "percent", current); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                }
+                @Override
+                public void onProductEnded(BundleSession.ProductResult result) {
+                    if (result.success() && op == Operation.INSTALL)
+                        InstallationDiscovery.invalidate(result.product().config().getSetup().get(SetupConfig.APP_NAME)); // The links changed
+                    productEnd(result.product(), result.success() ? Exit.SUCCESS : Exit.FAILED, null, result.elapsedMillis());
+                }
+            });
+            for (BundleSession.ProductResult result : results)
+                exits.add(result.success() ? Exit.SUCCESS : Exit.FAILED);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return end(Exit.FAILED, null);
+        }
+        return endAll(exits, "report", session.getReport()); //$NON-NLS-1$
+    }
+
+    /**
+     * Checks that an archive exists and can be read, and that a backup to recover
+     * contains the application. The archive size is kept for the engine.
+     * @return null if the archive can be used
+     */
+    private Failure testArchive(Operation op, String archive, String runnable) {
+        if (archive == null || !new File(archive).isFile())
+            return new Failure(Exit.ARCHIVE, Messages.getString("SetupCli.ERR_ARCHIVE_NOT_FOUND") + archive); //$NON-NLS-1$
+        event("verify", "archive", archive); //$NON-NLS-1$ //$NON-NLS-2$
+        ArchivePreflight preflight = ArchivePreflight.of(archive);
+        boolean tested;
+        try {
+            requiredSize = preflight.sizes().join().uncompressedSize;
+            tested = requiredSize > 0 && preflight.tested().join();
+        } catch (CompletionException ex) {
+            tested = false;
+        }
+        if (!tested)
+            return new Failure(Exit.ARCHIVE, Messages.getString("SetupCli.ERR_ARCHIVE_CORRUPTED") + archive); //$NON-NLS-1$
+        if (op == Operation.RECOVER && new ZipArchiveHandler(archive).listFiles().stream().noneMatch(file -> file.endsWith(runnable)))
+            return new Failure(Exit.ARCHIVE, Messages.getString("SetupCli.ERR_INVALID_BACKUP") + runnable); //$NON-NLS-1$
+        return null;
+    }
+
+    /**
+     * Checks that an installed version can be updated by this setup
+     * @return null if it can be updated
+     */
+    private Failure checkVersion(SetupConfig config, String installed) {
+        String available = config.getSetup().get(SetupConfig.APP_VERSION);
+        return switch (SetupEngine.checkUpdate(installed, available, config.getMinimumVersion(), config.getApplicableVersions())) {
+            case OK -> null;
+            case UP_TO_DATE -> new Failure(Exit.UP_TO_DATE, Messages.getString("OperationSelection.MB_MSG_LATEST_UPDATE_FOUND")); //$NON-NLS-1$
+            case NOT_APPLICABLE -> new Failure(Exit.NOT_UPDATABLE, Messages.format("OperationSelection.MB_MSG_VERSION_NOT_APPLICABLE", installed)); //$NON-NLS-1$
+            case TOO_OLD -> new Failure(Exit.NOT_UPDATABLE, Messages.getString("OperationSelection.MB_MSG_TOO_OLD_TO_UPDATE")); //$NON-NLS-1$
+        };
+    }
+
+    // Writes the event ending a product of a bundle and returns its exit code
+    private Exit productEnd(BundleSession.Product product, Exit exit, String message, long elapsedMillis) {
+        event("product-end", "product", product.name(), "destination", product.destination(), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "status", exit.name().toLowerCase(Locale.ROOT), "code", exit.code(), "message", message, "elapsedMillis", elapsedMillis); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        return exit;
+    }
+
+    /**
+     * Writes the last event of a batch or a bundle. The exit code is up to date when all
+     * the parts were, success when all were updated or up to date, partial when some of
+     * them failed and failed when none succeeded.
+     */
+    private Exit endAll(List<Exit> exits, Object... fields) {
+        long succeeded = exits.stream().filter(exit -> exit == Exit.SUCCESS).count();
+        long upToDate = exits.stream().filter(exit -> exit == Exit.UP_TO_DATE).count();
+        Exit exit;
+        if (upToDate == exits.size()) {
+            exit = Exit.UP_TO_DATE;
+        } else if (succeeded + upToDate == exits.size()) {
+            exit = Exit.SUCCESS;
+        } else exit = succeeded > 0 ? Exit.PARTIAL : Exit.FAILED;
+        Object[] counts = { "succeeded", succeeded, "upToDate", upToDate, "failed", exits.size() - succeeded - upToDate }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        Object[] all = new Object[counts.length + fields.length];
+        System.arraycopy(counts, 0, all, 0, counts.length);
+        System.arraycopy(fields, 0, all, counts.length, fields.length);
+        return end(exit, null, all);
+    }
+
+    // Writes the event ending a folder of a batch and returns its exit code
+    private Exit rootEnd(String root, Exit exit, String message, long elapsedMillis) {
+        event("root-end", "root", root, "status", exit.name().toLowerCase(Locale.ROOT), "code", exit.code(), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                "message", message, "elapsedMillis", elapsedMillis); //$NON-NLS-1$ //$NON-NLS-2$
+        return exit;
+    }
+
+    // Writes the last event and returns the exit code
+    private Exit end(Exit exit, String message, Object... fields) {
+        Object[] all = new Object[fields.length + 8];
+        Object[] head = { "status", exit.name().toLowerCase(Locale.ROOT), "code", exit.code(), "message", message, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "elapsedMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) }; //$NON-NLS-1$
+        System.arraycopy(head, 0, all, 0, head.length);
+        System.arraycopy(fields, 0, all, head.length, fields.length);
+        event("end", all); //$NON-NLS-1$
+        return exit;
+    }
+
+    /**
+     * Writes an event as one line of JSON
+     * @param name The event name
+     * @param fields Field names and values, null values are skipped
+     */
+    private void event(String name, Object... fields) {
+        StringBuilder sb = new StringBuilder("{\"event\":"); //$NON-NLS-1$
+        quote(sb, name);
+        if (operation != null) {
+            sb.append(",\"operation\":"); //$NON-NLS-1$
+            quote(sb, operation);
+        }
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            Object value = fields[i + 1];
+            if (value == null)
+                continue;
+            sb.append(',');
+            quote(sb, fields[i].toString());
+            sb.append(':');
+            if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else quote(sb, value.toString());
+        }
+        sb.append('}');
+        synchronized (out) {
+            out.println(sb);
+        }
+    }
+
+    private static void quote(StringBuilder sb, String text) {
+        sb.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\""); //$NON-NLS-1$
+                case '\\' -> sb.append("\\\\"); //$NON-NLS-1$
+                case '\n' -> sb.append("\\n"); //$NON-NLS-1$
+                case '\r' -> sb.append("\\r"); //$NON-NLS-1$
+                case '\t' -> sb.append("\\t"); //$NON-NLS-1$
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int)c)); //$NON-NLS-1$
+                    } else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Writes the events of an engine, the part field tells the folder of a batch or the
+     * product of a bundle
+     */
+    private class JsonListener implements SetupEngine.Listener {
+        private final String part;
+        private final String name;
+        private long progressTotal = -1;
+        private long progressPercent = -1;
+
+        JsonListener(String part, String name) {
+            this.part = part;
+            this.name = name;
+        }
+
+        @Override
+        public void onLog(String message) {
+            event("log", part, name, "message", message); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+
+        // Reports the progress when its percentage changed
+        @Override
+        public void onProgress(long done, long total) {
+            long percent = total > 0 ? done * 100 / total : -1;
+            synchronized (this) {
+                if (total == progressTotal && percent == progressPercent)
+                    return;
+                progressTotal = total;
+                progressPercent = percent;
+            }
+            event("progress", part, name, "done", done, "total", total, "percent", percent); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+        }
+
+        @Override
+        public void onPhase(SetupEngine.Phase phase) {
+            event("phase", part, name, "phase", phase.name().toLowerCase(Locale.ROOT)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+
+        @Override
+        public void onDeleting(long filesDeleted, long filesPerSecond) {
+            event("deleting", part, name, "files", filesDeleted, "rate", filesPerSecond); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        }
+    }
+}
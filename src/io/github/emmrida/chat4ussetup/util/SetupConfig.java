@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.emmrida.chat4ussetup.util.Helper.KeyValue;
+
+/**
+ * The setup configuration: the setup.cfg entries and the update.cfg sections with the
+ * rules of their [version] section. Loaded by the wizard and by the command line mode.
+ */
+public class SetupConfig {
+    public static final String SETUP_FILE = "./setup/setup.cfg"; //$NON-NLS-1$
+    public static final String UPDATE_FILE = "./setup/update.cfg"; //$NON-NLS-1$
+
+    // setup.cfg keys
+    public static final String APP_NAME = "app_name"; //$NON-NLS-1$
+    public static final String APP_VERSION = "app_version"; //$NON-NLS-1$
+    public static final String APP_RUNNABLE = "app_runnable"; //$NON-NLS-1$
+    public static final String LINK_ICONS = "link_icons"; //$NON-NLS-1$
+    public static final String LINK_DESCRIPTION = "link_description"; //$NON-NLS-1$
+    public static final String SOURCE_ARCHIVE = "source_archive"; //$NON-NLS-1$
+    public static final String DST_FOLDER_NAME = "dst_folder_name"; //$NON-NLS-1$
+
+    private final Map<String, String> setup = new HashMap<>();
+    private Map<String, List<KeyValue>> update;
+    private String minimumVersion = null;
+    private final List<VersionRange> applicableVersions = new ArrayList<>();
+    private Exception setupError = null;
+
+    private SetupConfig() {
+    }
+
+    /**
+     * Loads the configuration files
+     * @param setupFile The setup.cfg path
+     * @param updateFile The update.cfg path
+     * @return The configuration, see {@link #getSetupError()} and {@link #getUpdate()} for failures
+     */
+    public static SetupConfig load(String setupFile, String updateFile) {
+        SetupConfig config = new SetupConfig();
+        try (BufferedReader reader = new BufferedReader(new FileReader(new File(setupFile)))) {
+            String line;
+            String[] parts;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) //$NON-NLS-1$
+                    continue;
+                parts = line.split("=", 2); //$NON-NLS-1$
+                config.setup.put(parts[0].trim(), parts[1].trim());
+            }
+        } catch (Exception ex) {
+            config.setupError = ex;
+        }
+
+        config.update = Helper.readConfigFile(updateFile);
+        try {
+            for (KeyValue pair : config.update.getOrDefault("version", List.of())) { //$NON-NLS-1$
+                if ("minimum".equals(pair.key())) { //$NON-NLS-1$
+                    config.minimumVersion = pair.value();
+                } else if ("applies".equals(pair.key())) { //$NON-NLS-1$
+                    config.applicableVersions.add(new VersionRange(pair.value()));
+                }
+            }
+            // Sections may be limited to some installed versions too, check their ranges now
+            for (List<KeyValue> tasks : config.update.values())
+                for (KeyValue pair : tasks)
+                    if ("applies".equals(pair.key())) //$NON-NLS-1$
+                        new VersionRange(pair.value());
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            config.update = null;
+        }
+        return config;
+    }
+
+    /**
+     * @return The setup.cfg entries
+     */
+    public Map<String, String> getSetup() { return Collections.unmodifiableMap(setup); }
+
+    /**
+     * Returns a setup.cfg entry in a language, falling back to the entry without language
+     * @param key The entry key
+     * @param language The language code
+     * @return The value, null if not found
+     */
+    public String get(String key, String language) {
+        String value = setup.get(key + "_" + language); //$NON-NLS-1$
+        return value != null ? value : setup.get(key);
+    }
+
+    /**
+     * @return The update.cfg sections, null when one of its version ranges is invalid
+     */
+    public Map<String, List<KeyValue>> getUpdate() { return update; }
+
+    /**
+     * @return The minimum installed version that can be updated, null if not set
+     */
+    public String getMinimumVersion() { return minimumVersion; }
+
+    /**
+     * @return The ranges the installed version must be in to be updated, empty for any version
+     */
+    public List<VersionRange> getApplicableVersions() { return Collections.unmodifiableList(applicableVersions); }
+
+    /**
+     * @return Why setup.cfg could not be read, null on success
+     */
+    public Exception getSetupError() { return setupError; }
+}
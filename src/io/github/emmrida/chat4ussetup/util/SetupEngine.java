@@ -0,0 +1,833 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.emmrida.chat4ussetup.util.Helper.KeyValue;
+import io.github.emmrida.chat4ussetup.util.ZipArchiveHandler.ProgressListener;
+
+/**
+ * Runs an install, update, recovery or uninstall without any user interface.
+ * The wizard and the command line mode both drive it, the progress and the log
+ * are reported to a listener from the thread calling {@link #run()}, or from
+ * worker threads for the parts processed in parallel.
+ */
+public class SetupEngine {
+    private static final long HOOK_TIMEOUT = 30_000; // Milliseconds allowed to each post-install command
+    private static final int PROGRESS_STEPS = 1000; // Progress reports per total at most
+
+    public static enum Operation { INSTALL, UPDATE, RECOVER, UNINSTALL }
+    public static enum Phase { BACKUP, PROCESSING }
+    public static enum UpdateCheck { OK, NOT_APPLICABLE, TOO_OLD, UP_TO_DATE }
+
+    /**
+     * Receives the engine progress
+     */
+    public static interface Listener {
+        /**
+         * A log line
+         * @param message The line, without line separator
+         */
+        void onLog(String message);
+
+        /**
+         * The progress of the current phase
+         * @param done The work done
+         * @param total The total work, 0 when unknown
+         */
+        void onProgress(long done, long total);
+
+        /**
+         * The phase changed
+         * @param phase The new phase
+         */
+        default void onPhase(Phase phase) { }
+
+        /**
+         * Files are being deleted, followed by {@link #onPhase(Phase)} when done
+         * @param filesDeleted The files deleted so far
+         * @param filesPerSecond The deletion rate
+         */
+        default void onDeleting(long filesDeleted, long filesPerSecond) { }
+    }
+
+    private final Operation operation;
+    private final String destination;
+    private final String archive;
+    private Listener listener;
+
+    private String appName;
+    private String appVersion;
+    private String appRunnable;
+    private String linkIcons = null;
+    private String linkDescription = null;
+    private boolean desktopLink = false;
+    private boolean menuLink = false;
+    private boolean backup = false;
+    private String installedVersion = null;
+    private long requiredSize = 0;
+    private Map<String, List<KeyValue>> update = Map.of();
+    private StagedArchive stagedArchive = null;
+    private IoScheduler scheduler = null;
+    private PostInstallHooks postInstallHooks = new PostInstallHooks();
+
+    private final StringBuffer log = new StringBuffer();
+    private final Object progressLock = new Object();
+    private long progressTotal = 0;
+    private long progressReported = -1;
+    private CompletableFuture<Void> hooks = CompletableFuture.completedFuture(null);
+    private final List<Thread> tombstones = new ArrayList<>();
+
+    /**
+     * Creates an engine
+     * @param operation The operation
+     * @param destination The installation folder
+     * @param archive The source archive, the backup to restore for a recovery, null to uninstall
+     */
+    public SetupEngine(Operation operation, String destination, String archive) {
+        this.operation = operation;
+        this.destination = destination;
+        this.archive = archive;
+        this.listener = new Listener() {
+            @Override
+            public void onLog(String message) { }
+            @Override
+            public void onProgress(long done, long total) { }
+        };
+    }
+
+    /**
+     * Sets the progress listener
+     * @param listener The listener
+     */
+    public void setListener(Listener listener) { this.listener = listener; }
+
+    /**
+     * Sets the application, see setup.cfg
+     * @param name The application name, also the links name
+     * @param version The version being installed
+     * @param runnable The application jar, relative to the installation folder
+     */
+    public void setApplication(String name, String version, String runnable) {
+        this.appName = name;
+        this.appVersion = version;
+        this.appRunnable = runnable;
+    }
+
+    /**
+     * Sets the links to create
+     * @param desktop true to create a desktop link
+     * @param menu true to create a system menu link
+     * @param icons The ; separated icons relative to the installation folder, may be null
+     * @param description The links description, may be null
+     */
+    public void setLinks(boolean desktop, boolean menu, String icons, String description) {
+        this.desktopLink = desktop;
+        this.menuLink = menu;
+        this.linkIcons = icons;
+        this.linkDescription = description;
+    }
+
+    /**
+     * Sets whether the installation folder is backed up before an update
+     * @param backup true to create the backup in the user home
+     */
+    public void setBackup(boolean backup) { this.backup = backup; }
+
+    /**
+     * Sets the installed version, for the applies: ranges of the update sections
+     * @param version The installed version, may be null
+     */
+    public void setInstalledVersion(String version) { this.installedVersion = version; }
+
+    /**
+     * Sets the uncompressed size of the archive, calculated when not set
+     * @param size The size in bytes
+     */
+    public void setRequiredSize(long size) { this.requiredSize = size; }
+
+    /**
+     * Sets the update.cfg sections
+     * @param update The sections
+     */
+    public void setUpdate(Map<String, List<KeyValue>> update) { this.update = update; }
+
+    /**
+     * Sets the archive entries shared with the other folders of a batch update
+     * @param stagedArchive The staged entries, null to extract from the archive
+     */
+    void setStagedArchive(StagedArchive stagedArchive) { this.stagedArchive = stagedArchive; }
+
+    /**
+     * Sets the scheduler extracting the archive, shared with the other products of a bundle
+     * @param scheduler The scheduler, null to extract on the calling thread
+     */
+    void setScheduler(IoScheduler scheduler) { this.scheduler = scheduler; }
+
+    /**
+     * Sets the collector of the post-install commands, shared with the other products of a bundle
+     * so that identical commands run once
+     * @param hooks The collector
+     */
+    void setPostInstallHooks(PostInstallHooks hooks) { this.postInstallHooks = hooks; }
+
+    /**
+     * @return The log of the last run
+     */
+    public String getLog() { return log.toString(); }
+
+    /**
+     * Waits for the work the last run left in the background: the post-install commands
+     * and the deletion of the replaced folders
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public void awaitBackgroundWork() throws InterruptedException {
+        hooks.exceptionally(ex -> null).join();
+        synchronized (tombstones) {
+            for (Thread thread : tombstones)
+                thread.join();
+        }
+    }
+
+    /**
+     * Checks whether an installed version can be updated
+     * @param installed The installed version, may be null
+     * @param available The version of the setup
+     * @param minimum The minimum installed version, may be null
+     * @param ranges The ranges the installed version must be in, empty for any version
+     * @return The check result
+     */
+    public static UpdateCheck checkUpdate(String installed, String available, String minimum, List<VersionRange> ranges) {
+        if (installed != null && !VersionRange.matchesAny(ranges, Version.parse(installed)))
+            return UpdateCheck.NOT_APPLICABLE;
+        if (minimum == null || installed == null || VersionComparator.compareVersions(minimum, installed, true) > 0)
+            return UpdateCheck.TOO_OLD;
+        if (VersionComparator.compareVersions(installed, available, true) >= 0)
+            return UpdateCheck.UP_TO_DATE;
+        return UpdateCheck.OK;
+    }
+
+    /**
+     * Runs the operation then writes its log in the installation folder
+     * @return true on success
+     */
+    public boolean run() {
+        log.setLength(0);
+        boolean success = switch (operation) {
+            case INSTALL -> processInstallation();
+            case UPDATE -> processUpdate();
+            case RECOVER -> processRecovery();
+            case UNINSTALL -> processUninstall();
+        };
+        String logName = switch (operation) {
+            case INSTALL -> "install.log"; //$NON-NLS-1$
+            case UPDATE -> "update.log"; //$NON-NLS-1$
+            case RECOVER -> "recovery.log"; //$NON-NLS-1$
+            case UNINSTALL -> "uninstall.log"; //$NON-NLS-1$
+        };
+        try {
+            Files.writeString(Paths.get(destination, logName), log);
+        } catch (Exception ignore) { } // The folder is gone after an uninstall
+        return success;
+    }
+
+    /**
+     * Process the installation: Copy files, create DB, etc
+     */
+    private boolean processInstallation() {
+        try {
+            if (Files.exists(Paths.get(destination))) {
+                log(Messages.getString("SetupEngine.LOG_INSTALL_FOLDER_DELETING") + destination); //$NON-NLS-1$
+                removeFolder(destination);
+            }
+            if (!Helper.createDirectoryPath(destination)) {
+                log(Messages.getString("SetupEngine.LOG_INSTALL_FAILURE")); //$NON-NLS-1$
+                return false;
+            }
+            log(Messages.getString("SetupEngine.LOG_INSTALL_FOLDER_CREATED") + destination); //$NON-NLS-1$
+            if (extractArchive("SetupEngine.LOG_FILE_COPYING")) { //$NON-NLS-1$
+                createAppLinks();
+                log(Messages.getString("SetupEngine.LOG_INSTALL_COMPLETED")); //$NON-NLS-1$
+                return true;
+            }
+            log(Messages.getString("SetupEngine.LOG_INSTALL_FAILURE")); //$NON-NLS-1$
+        } catch (Exception ex) {
+            log(Messages.getString("SetupEngine.LOG_INSTALL_ERROR") + ex.getMessage()); //$NON-NLS-1$
+        }
+        return false;
+    }
+
+    /**
+     * Process the recovery of a backed up previous version
+     */
+    private boolean processRecovery() {
+        try {
+            if (Files.exists(Paths.get(destination))) {
+                log(Messages.getString("SetupEngine.LOG_INSTALL_FOLDER_DELETING") + destination); //$NON-NLS-1$
+                removeFolder(destination);
+            }
+            if (!Helper.createDirectoryPath(destination)) {
+                log(Messages.getString("SetupEngine.LOG_RECOVERY_FAILURE")); //$NON-NLS-1$
+                return false;
+            }
+            log(Messages.getString("SetupEngine.LOG_RECOVER_FOLDER_CREATED") + destination); //$NON-NLS-1$
+            if (extractArchive("SetupEngine.LOG_COPYING_FILE")) { //$NON-NLS-1$
+                createAppLinks();
+                log(Messages.getString("SetupEngine.LOG_RECOVERY_COMPLETE")); //$NON-NLS-1$
+                return true;
+            }
+            log(Messages.getString("SetupEngine.LOG_RECOVERY_FAILURE")); //$NON-NLS-1$
+        } catch (Exception ex) {
+            log(Messages.getString("SetupEngine.LOG_RECOVERY_ERROR") + ex.getMessage()); //$NON-NLS-1$
+        }
+        return false;
+    }
+
+    /**
+     * Process the uninstall of an installation
+     */
+    private boolean processUninstall() {
+        progress(0, 0);
+        try {
+            if (Files.exists(Paths.get(destination))) {
+                log(Messages.getString("SetupEngine.LOG_INSTALL_FOLDER_DELETING") + destination); //$NON-NLS-1$
+                removeFolder(destination);
+            }
+            log(Messages.getString("SetupEngine.LOG_DESKTOP_LINK_REMOVING")); //$NON-NLS-1$
+            AppLinkCreator.removeDesktopLink(appName);
+            log(Messages.getString("SetupEngine.LOG_SYSMNU_LINK_REMOVING")); //$NON-NLS-1$
+            AppLinkCreator.removeSystemMenuLink(appName);
+            log(Messages.getString("SetupEngine.LOG_UNINSTALL_SUCCESS")); //$NON-NLS-1$
+            progress(1, 1);
+            return true;
+        } catch (Exception ex) {
+            log(Messages.getString("SetupEngine.LOG_UNINSTALL_ERROR") + ex.getMessage()); //$NON-NLS-1$
+        }
+        return false;
+    }
+
+    /**
+     * Process the update: Copy files, update DB, etc
+     */
+    private boolean processUpdate() {
+        try {
+            if (backup && !createBackup())
+                return false;
+
+            listener.onPhase(Phase.PROCESSING);
+            progress(0, 0);
+            log(Messages.getString("SetupEngine.LOG_UPDATE_STARTING")); //$NON-NLS-1$
+
+            boolean updateSuccess = true;
+            FilesLister.beginRun(); // Sections targeting the same folders share their listings
+            try {
+                for (Entry<String, List<KeyValue>> e : update.entrySet()) {
+                    String section = e.getKey();
+                    List<KeyValue> tasks = e.getValue();
+                    if ("version".equals(section)) { //$NON-NLS-1$
+                        continue; // Already done
+                    } else if ((tasks = applicableTasks(section, tasks)) == null) {
+                        continue;
+                    } else if (section.startsWith("sqlite:")) { //$NON-NLS-1$
+                        updateSuccess = processSqliteTasks(section, tasks);
+                    } else if (section.startsWith("pair:")) { //$NON-NLS-1$
+                        updateSuccess = processPairTasks(section, tasks);
+                    } else if (section.startsWith("xml:")) { //$NON-NLS-1$
+                        updateSuccess = processXmlTasks(section, tasks);
+                    } else if (section.equals("folders")) { //$NON-NLS-1$
+                        updateSuccess = processFoldersTasks(tasks);
+                    } else if (section.equals("files")) { //$NON-NLS-1$
+                        updateSuccess = processFilesTasks(tasks);
+                    } else if (section.equals("cleanup")) { //$NON-NLS-1$
+                        updateSuccess = processCleanupTasks(tasks);
+                    } else System.err.println(Messages.getString("SetupEngine.LOG_UNK_UPDATE_SECTION") + section); //$NON-NLS-1$
+                    if (!updateSuccess)
+                        break;
+                }
+            } finally {
+                FilesLister.endRun();
+            }
+
+            createAppLinks();
+
+            long total = Math.max(progressTotal, 1);
+            progress(total, total);
+            log(Messages.getString(updateSuccess ? "SetupEngine.LOG_UPDATE_SUCCESS" : "SetupEngine.LOG_UPDATE_FAILED")); //$NON-NLS-1$ //$NON-NLS-2$
+            return updateSuccess;
+        } catch (Exception ex) {
+            log(Messages.getString("SetupEngine.LOG_UPDATE_ERROR") + ex.getMessage()); //$NON-NLS-1$
+        }
+        return false;
+    }
+
+    /**
+     * Backs up the installation folder in the user home
+     * @return true on success
+     */
+    private boolean createBackup() {
+        listener.onPhase(Phase.BACKUP);
+        try {
+            final Path backupFile = reserveBackupFile();
+            log(Messages.getString("SetupEngine.LOG_CREATING_BACKUP") + backupFile); //$NON-NLS-1$
+            progress(0, 0);
+            long backupSize;
+            try (var paths = Files.walk(Paths.get(destination))) {
+                backupSize = paths.filter(path -> !Files.isDirectory(path)).mapToLong(path -> path.toFile().length()).sum();
+            }
+            progress(0, backupSize);
+            ZipArchiveHandler zip = new ZipArchiveHandler(backupFile.toString());
+            zip.setProgressListener(new ProgressListener() {
+                private long progress = 0;
+                @Override
+                public void onProgress(int blockSize) {
+                    progress(progress += blockSize, backupSize);
+                }
+                @Override
+                public void onFileCreated(String name) {
+                    log(Messages.getString("SetupEngine.LOG_FILE_ADDING") + name); //$NON-NLS-1$
+                }
+            });
+            zip.createZip(Paths.get(destination).toString());
+            log(Messages.getString("SetupEngine.LOG_BACKUP_SUCCESS")); //$NON-NLS-1$
+            return true;
+        } catch (Exception ex) {
+            log(Messages.getString("SetupEngine.LOG_BACKUP_ERROR") + ex.getMessage()); //$NON-NLS-1$
+            return false;
+        }
+    }
+
+    /**
+     * Creates an empty backup file in the user home, numbered when folders of the same
+     * application are backed up in the same second
+     * @return The backup file
+     */
+    private Path reserveBackupFile() throws IOException {
+        String name = "backup-" + appName + "-" + Helper.getCurrentDate(); //$NON-NLS-1$ //$NON-NLS-2$
+        Path backupFile = Paths.get(System.getProperty("user.home"), name + ".zip"); //$NON-NLS-1$ //$NON-NLS-2$
+        for (int i = 2; ; i++) {
+            try {
+                return Files.createFile(backupFile);
+            } catch (FileAlreadyExistsException ex) {
+                backupFile = backupFile.resolveSibling(name + "-" + i + ".zip"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+    }
+
+    /**
+     * Extracts the whole archive to the installation folder
+     * @param fileLogKey The message logged for each file
+     * @return true on success
+     */
+    private boolean extractArchive(String fileLogKey) {
+        long total = archiveSize();
+        progress(0, total);
+        ProgressListener progressListener = new ProgressListener() {
+            private final AtomicLong progress = new AtomicLong(); // Written by the scheduler threads
+            @Override
+            public void onProgress(int size) {
+                progress(progress.addAndGet(size), total);
+            }
+            @Override
+            public void onFileCreated(String name) {
+                log(Messages.getString(fileLogKey) + name);
+            }
+        };
+        if (scheduler != null)
+            return scheduler.extractTo(archive, destination, progressListener);
+        ZipArchiveHandler zip = new ZipArchiveHandler(archive);
+        zip.setProgressListener(progressListener);
+        return zip.extractTo(destination);
+    }
+
+    // Uncompressed size of the archive, calculated once when not given
+    private long archiveSize() {
+        if (requiredSize <= 0)
+            requiredSize = ArchivePreflight.of(archive).sizes().join().uncompressedSize;
+        return requiredSize;
+    }
+
+    /**
+     * Create app links for the installation
+     */
+    private void createAppLinks() {
+        AppLinkCreator.LinkConfig config = null;
+        if (linkIcons != null) {
+            config = AppLinkCreator.LinkConfig.create();
+            Path path;
+            for (String icon : linkIcons.split(";")) { //$NON-NLS-1$
+                path = Path.of(destination, icon);
+                if (Files.exists(path)) {
+                    config.withIcon(path.toAbsolutePath().toString());
+                } else log(Messages.getString("SetupEngine.LOG_LINK_ICON_NOT_FOUND") + icon); //$NON-NLS-1$
+            }
+            if (linkDescription != null)
+                config.setDescription(linkDescription);
+        }
+        String target = Paths.get(destination, appRunnable).toString();
+        if (desktopLink) {
+            boolean success = false;
+            log(Messages.getString("SetupEngine.LOG_DESKTOP_LINK_CREATING") + appRunnable); //$NON-NLS-1$
+            if (config == null) {
+                success = AppLinkCreator.createDesktopLink(target, appName);
+            } else success = AppLinkCreator.createDesktopLink(target, appName, config).isSuccess();
+            if (!success)
+                log(Messages.getString("SetupEngine.LOG_DESKTOP_LINK_CREATING_ERROR") + appRunnable); //$NON-NLS-1$
+        }
+        List<PostInstallHooks.Hook> refresh = List.of();
+        if (menuLink) {
+            boolean success = false;
+            log(Messages.getString("SetupEngine.LOG_SYSMNU_LINK_CREATING") + appRunnable); //$NON-NLS-1$
+            if (config == null) {
+                success = AppLinkCreator.createSystemMenuLink(target, appName);
+            } else success = AppLinkCreator.createSystemMenuLink(target, appName, config).isSuccess();
+            if (success) {
+                refresh = AppLinkCreator.scheduleDesktopDatabaseUpdate(postInstallHooks);
+            } else log(Messages.getString("SetupEngine.LOG_SYSMNU_LINK_CREATING_ERROR") + appRunnable); //$NON-NLS-1$
+        }
+        if (refresh.isEmpty())
+            return;
+        // Desktop database and menu refreshes don't hold the completion of the process
+        hooks = postInstallHooks.runAsync(refresh, HOOK_TIMEOUT, result -> {
+            if (result.message() != null) {
+                log(Messages.format("SetupEngine.LOG_HOOK_START_FAILED", result.command(), result.message(), result.elapsedMillis())); //$NON-NLS-1$
+                return;
+            }
+            switch (result.status()) {
+                case DONE, FAILED -> log(Messages.format("SetupEngine.LOG_HOOK_DONE", result.command(), result.exitCode(), result.elapsedMillis())); //$NON-NLS-1$
+                case TIMED_OUT -> log(Messages.format("SetupEngine.LOG_HOOK_TIMED_OUT", result.command(), result.elapsedMillis())); //$NON-NLS-1$
+                case NOT_FOUND -> log(Messages.getString("SetupEngine.LOG_HOOK_NOT_FOUND") + result.command()); //$NON-NLS-1$
+            }
+        });
+    }
+
+    /**
+     * Cleanup tasks: Delete files and folders
+     * @param tasks The tasks to process
+     * @return True if successful
+     */
+    private boolean processCleanupTasks(List<KeyValue> tasks) {
+        if (tasks != null && tasks.size() > 0) {
+            try {
+                for (KeyValue task : tasks) {
+                    String op = task.key();
+                    Path path = Paths.get(destination, task.value());
+                    if ("remove".equals(op)) { //$NON-NLS-1$
+                        if (Files.isDirectory(path)) {
+                            log(Messages.getString("SetupEngine.LOG_FOLDER_REMOVING") + path.toString()); //$NON-NLS-1$
+                            deleteFolderTree(path.toString());
+                            FilesLister.invalidate(path);
+                        } else if (Files.isRegularFile(path)) {
+                            log(Messages.getString("SetupEngine.LOG_FILE_REMOVING") + path.toString()); //$NON-NLS-1$
+                            Files.delete(path);
+                            FilesLister.invalidate(path);
+                        }
+                    } else System.err.println(Messages.getString("SetupEngine.LOG_UNK_CLEANUP_OPERTION") + op); //$NON-NLS-1$
+                }
+                return true;
+            } catch (Exception ex) {
+                log(Messages.getString("SetupEngine.LOG_CLEANUP_ERROR") + ex.getMessage()); //$NON-NLS-1$
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy/remove files
+     * @param tasks The tasks to process
+     */
+    private boolean processFilesTasks(List<KeyValue> tasks) {
+        if (tasks != null && tasks.size() > 0) {
+            try {
+                long total = archiveSize();
+                progress(0, total);
+                ProgressListener progressListener = new ProgressListener() {
+                    private final AtomicLong bytesExtracted = new AtomicLong(); // Written by the scheduler threads
+                    @Override
+                    public void onProgress(int blockSize) {
+                        progress(bytesExtracted.addAndGet(blockSize), total);
+                    }
+                    @Override
+                    public void onFileCreated(String name) { }
+                };
+                ZipArchiveHandler zip = new ZipArchiveHandler(archive);
+                zip.setProgressListener(progressListener);
+                for (KeyValue task : tasks) {
+                    String op = task.key();
+                    String[] paths = task.value().split(":>", 2); //$NON-NLS-1$
+                    Path path = Paths.get(destination, paths[1]);
+                    if ("copy".equals(op)) { //$NON-NLS-1$
+                        log(Messages.getString("SetupEngine.LOG_FILE_UPDATING") + path.toString()); //$NON-NLS-1$
+                        boolean b;
+                        if (stagedArchive != null) {
+                            b = stagedArchive.extractFile(paths[0], path, progressListener);
+                        } else if (scheduler != null) {
+                            b = scheduler.extractFile(archive, paths[0], path.toString(), progressListener);
+                        } else b = zip.extractFile(paths[0], path.toString());
+                        FilesLister.invalidate(path);
+                        if (!b) {
+                            log(Messages.getString("SetupEngine.LOG_UPDATE_FAILURE")); //$NON-NLS-1$
+                            return false;
+                        }
+                    } else if ("remove".equals(op)) { //$NON-NLS-1$
+                        if (Files.exists(path)) {
+                            log(Messages.getString("SetupEngine.LOG_FILE_REMOVING") + path); //$NON-NLS-1$
+                            Files.delete(path);
+                            FilesLister.invalidate(path);
+                        }
+                    } else System.err.println(Messages.getString("SetupEngine.LOG_UNK_FILE_OPERATION") + op); //$NON-NLS-1$
+                }
+                return true;
+            } catch (Exception ex) {
+                log(Messages.getString("SetupEngine.LOG_FILES_UPDATE_ERROR") + ex.getMessage()); //$NON-NLS-1$
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy/remove folders
+     * @param tasks The tasks to process
+     */
+    private boolean processFoldersTasks(List<KeyValue> tasks) {
+        if (tasks != null && tasks.size() > 0) {
+            try {
+                for (KeyValue task : tasks) {
+                    String op = task.key();
+                    Path folder = Paths.get(destination, task.value());
+                    if ("add".equals(op)) { //$NON-NLS-1$
+                        if (Files.notExists(folder)) {
+                            log(Messages.getString("SetupEngine.LOG_FOLDER_CREATING") + folder.toString()); //$NON-NLS-1$
+                            Path created = folder; // Topmost folder created, its parent listing changes
+                            while (created.getParent() != null && Files.notExists(created.getParent()))
+                                created = created.getParent();
+                            Files.createDirectories(folder);
+                            FilesLister.invalidate(created);
+                        }
+                    } else if ("remove".equals(op)) { //$NON-NLS-1$
+                        if (Files.exists(folder)) {
+                            log(Messages.getString("SetupEngine.LOG_FOLDER_REMOVING") + folder.toString()); //$NON-NLS-1$
+                            deleteFolderTree(folder.toString());
+                            FilesLister.invalidate(folder);
+                        }
+                    } else System.err.println(Messages.getString("SetupEngine.LOG_UNK_FOLDER_OPERATION") + op); //$NON-NLS-1$
+                }
+                return true;
+            } catch (Exception ex) {
+                log(Messages.getString("SetupEngine.LOG_FOLDER_UPDATE_ERROR") + ex.getMessage()); //$NON-NLS-1$
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Process XML tasks: Add/Remove/Update nodes in files.
+     * @param tasks The tasks to process
+     */
+    private boolean processXmlTasks(String section, List<KeyValue> tasks) {
+        if (tasks != null && tasks.size() > 0) {
+            try {
+                List<String> files = FilesLister.listFiles(destination + File.separator + section.split(":", 2)[1]); //$NON-NLS-1$
+                List<XMLEditor.Operation> ops = new ArrayList<>(tasks.size());
+                for (KeyValue task : tasks) {
+                    XMLEditor.Operation op = XMLEditor.Operation.parse(task.key(), task.value());
+                    if (op != null) {
+                        ops.add(op);
+                    } else System.err.println(Messages.getString("SetupEngine.LOG_UNK_XML_OPERATION") + task.key()); //$NON-NLS-1$
+                }
+                if (XMLStreamEditor.supports(ops)) { // Single streaming pass per file
+                    XMLStreamEditor streamEditor = new XMLStreamEditor(ops);
+                    Helper.runParallel(files, streamEditor::edit);
+                } else { // Nested paths need the whole document
+                    Helper.runParallel(files, file -> {
+                        XMLEditor xmlEditor = new XMLEditor();
+                        xmlEditor.openFile(file);
+                        for (XMLEditor.Operation op : ops)
+                            xmlEditor.apply(op);
+                        xmlEditor.save();
+                    });
+                }
+                return true;
+            } catch (Exception ex) {
+                log(Messages.getString("SetupEngine.LOG_XML_UPDATE_ERROR") + ex.getMessage()); //$NON-NLS-1$
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Process Pair tasks: Add/Remove/Update key/value pairs in files.
+     * @param tasks The tasks to process
+     */
+    private boolean processPairTasks(String section, List<KeyValue> tasks) {
+        if (tasks != null && tasks.size() > 0) {
+            try {
+                String sectionFile = destination + File.separator + section.split(":", 2)[1]; //$NON-NLS-1$
+                List<String> files = FilesLister.listFiles(sectionFile);
+                if (files.isEmpty())
+                    files.add(sectionFile);
+                for (KeyValue task : tasks) {
+                    if (!PairFileEditor.isOperation(task.key()))
+                        System.err.println(Messages.getString("SetupEngine.LOG_UNK_PAIR_OPERAITON") + task.key()); //$NON-NLS-1$
+                }
+                PairFileEditor pairEditor = new PairFileEditor(tasks);
+                Helper.runParallel(files, file -> {
+                    if (Files.notExists(Paths.get(file))) { // Let the file be created if it doesn't exist
+                        log(Messages.getString("SetupEngine.LOG_FILE_CREATING") + file); //$NON-NLS-1$
+                        pairEditor.edit(file);
+                        FilesLister.invalidate(Paths.get(file));
+                    } else pairEditor.edit(file);
+                });
+                return true;
+            } catch (Exception ex) {
+                log(Messages.getString("SetupEngine.LOG_UPDATE_PAIR_ERROR") + ex.getMessage()); //$NON-NLS-1$
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Process SQLite tasks: Execute SQL statements in databases.
+     * @param tasks The tasks to process
+     */
+    private boolean processSqliteTasks(String section, List<KeyValue> tasks) {
+        if (tasks != null && tasks.size() > 0) {
+            try {
+                List<String> dbFiles = FilesLister.listFiles(Paths.get(destination, section.split(":", 2)[1]).toString()); //$NON-NLS-1$
+                for (KeyValue task : tasks) {
+                    if (!SqliteExecutor.isOperation(task.key()))
+                        System.err.println(Messages.getString("SetupEngine.LOG_UNK_SQLITE_OPERATION") + task.key()); //$NON-NLS-1$
+                }
+                SqliteExecutor executor = new SqliteExecutor(tasks);
+                executor.setVersion(appVersion);
+                if (tasks.stream().anyMatch(task -> "sqlfile".equals(task.key()))) { //$NON-NLS-1$
+                    executor.setArchive(archive);
+                    long total = executor.getScriptBytes() * dbFiles.size();
+                    progress(0, total);
+                    executor.setProgressListener(new ProgressListener() {
+                        private final AtomicLong progress = new AtomicLong(); // Databases are migrated in parallel
+                        @Override
+                        public void onProgress(int blockSize) {
+                            progress(progress.addAndGet(blockSize), total);
+                        }
+                        @Override
+                        public void onFileCreated(String name) {
+                            log(Messages.getString("SetupEngine.LOG_DB_RUNNING_SCRIPT") + name); //$NON-NLS-1$
+                        }
+                    });
+                }
+                Helper.runParallel(dbFiles, dbFile -> {
+                    log(Messages.getString("SetupEngine.LOG_DB_UPDATING") + dbFile); //$NON-NLS-1$
+                    SqliteExecutor.Result result = executor.execute(dbFile);
+                    StringBuilder lines = new StringBuilder(Messages.format("SetupEngine.LOG_DB_UPDATED", //$NON-NLS-1$
+                            result.executed().size(), result.skipped().size(), result.elapsedMillis(), dbFile));
+                    for (String sql : result.executed())
+                        lines.append('\n').append(Messages.getString("SetupEngine.LOG_DB_STMT_EXECUTED")).append(sql); //$NON-NLS-1$
+                    for (String sql : result.skipped())
+                        lines.append('\n').append(Messages.getString("SetupEngine.LOG_DB_STMT_SKIPPED")).append(sql); //$NON-NLS-1$
+                    log(lines.toString()); // One block so parallel databases don't interleave
+                });
+                return true;
+            } catch (Exception ex) {
+                log(Messages.getString("SetupEngine.LOG_SQLITE_UPDATE_ERROR") + ex.getMessage()); //$NON-NLS-1$
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a folder at once by renaming it to a tombstone deleted in the background,
+     * or deletes it in place when it cannot be renamed
+     * @param folderPath The folder to remove
+     * @return true if successful
+     */
+    private boolean removeFolder(String folderPath) {
+        try {
+            Thread deletion = Tombstones.bury(Paths.get(folderPath));
+            synchronized (tombstones) {
+                tombstones.add(deletion);
+            }
+            log(Messages.getString("SetupEngine.LOG_FOLDER_BURIED") + folderPath); //$NON-NLS-1$
+            return true;
+        } catch (IOException ex) {
+            return deleteFolderTree(folderPath);
+        }
+    }
+
+    /**
+     * Deletes a folder tree reporting the number of files deleted and the deletion rate
+     * @param folderPath The folder to delete
+     * @return true if successful
+     */
+    private boolean deleteFolderTree(String folderPath) {
+        boolean success = Helper.deleteFolderTree(folderPath, listener::onDeleting);
+        listener.onPhase(Phase.PROCESSING);
+        return success;
+    }
+
+    /**
+     * Checks the applies: ranges of an update section against the installed version
+     * @param section The section name
+     * @param tasks The section tasks
+     * @return The tasks without the applies: lines, or null if the section doesn't apply
+     */
+    private List<KeyValue> applicableTasks(String section, List<KeyValue> tasks) {
+        List<VersionRange> ranges = new ArrayList<>();
+        List<KeyValue> applicable = new ArrayList<>();
+        for (KeyValue task : tasks) {
+            if ("applies".equals(task.key())) { //$NON-NLS-1$
+                ranges.add(new VersionRange(task.value())); // Checked when update.cfg was loaded
+            } else applicable.add(task);
+        }
+        if (ranges.isEmpty())
+            return tasks;
+        if (!VersionRange.matchesAny(ranges, Version.parse(installedVersion))) {
+            log(Messages.format("SetupEngine.LOG_SECTION_NOT_APPLICABLE", section, installedVersion)); //$NON-NLS-1$
+            return null;
+        }
+        return applicable;
+    }
+
+    /**
+     * Logs a message and passes it to the listener
+     * @param message The message, trailing line separators are removed
+     */
+    private void log(String message) {
+        message = message.stripTrailing();
+        synchronized (log) { // Lines of parallel tasks don't interleave
+            log.append(message).append('\n');
+        }
+        listener.onLog(message);
+    }
+
+    /**
+     * Reports the progress, at most {@value #PROGRESS_STEPS} times per total
+     * @param done The work done
+     * @param total The total work, 0 when unknown
+     */
+    private void progress(long done, long total) {
+        synchronized (progressLock) {
+            if (total != progressTotal) {
+                progressTotal = total;
+                progressReported = -1;
+            }
+            if (total > 0 && done < total && progressReported >= 0 && (done - progressReported) * PROGRESS_STEPS < total)
+                return;
+            progressReported = done;
+            listener.onProgress(done, total);
+        }
+    }
+}
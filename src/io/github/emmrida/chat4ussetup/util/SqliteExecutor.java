@@ -0,0 +1,770 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import io.github.emmrida.chat4ussetup.util.Helper.KeyValue;
+import io.github.emmrida.chat4ussetup.util.ZipArchiveHandler.ProgressListener;
+
+/**
+ * Runs the statements of an update.cfg [sqlite:...] section on a database.
+ * Statements run in one transaction, or in transactions of batch:N statements,
+ * and pragma:name=value lines tune the connection for the duration of the migration.
+ * Consecutive INSERT, REPLACE, UPDATE or DELETE statements of the same shape, differing
+ * only by their string, number and blob literals, are sent as one JDBC batch with the literals
+ * bound as parameters. Other consecutive statements are batched only when identical.
+ * sqlfile:entry lines run a SQL script streamed out of the update archive,
+ * one statement at a time, in transactions of batch:N (or 1000) statements.
+ *
+ * Applied statements are recorded in a ledger table of the database, so running the
+ * same section again only executes the statements the database has not received yet.
+ * Before the first pending statement runs, a consistent snapshot of the database is taken
+ * with VACUUM INTO and a failed migration restores the database from it (snapshot:off disables it).
+ */
+public class SqliteExecutor {
+    private static final String LEDGER_TABLE = "setup_migrations"; //$NON-NLS-1$
+    private static final int SCRIPT_BATCH_SIZE = 1000; // Statements per transaction in scripts without batch:N
+    private static final int PROGRESS_STEP = 64 * 1024; // Script bytes between progress reports
+
+    private final List<String> statements = new ArrayList<>();
+    private final List<String> hashes = new ArrayList<>(); // Ledger key of each statement
+    private final List<Shape> shapes = new ArrayList<>(); // Parameterized form of each statement, null for scripts
+    private final List<String> scripts = new ArrayList<>(); // Archive entry of each sqlfile step, null for statements
+    private final Map<String, String> pragmas = new LinkedHashMap<>();
+    private int batchSize = 0; // Statements per transaction, 0 for a single transaction
+    private String version = ""; //$NON-NLS-1$
+    private boolean snapshot = true; // Take a snapshot to restore on failure
+    private String archive = null;
+    private long scriptBytes = 0;
+    private ProgressListener progressListener = null;
+
+    // Outcome of a migration on one database
+    public static record Result(String dbFile, List<String> executed, List<String> skipped, long elapsedMillis) {}
+
+    /**
+     * Compiles the tasks of a section. Unknown operations are ignored, see {@link #isOperation(String)}.
+     * @param tasks The section tasks: sql:statement, sqlfile:entry, pragma:name=value, batch:size or snapshot:on|off
+     */
+    public SqliteExecutor(List<KeyValue> tasks) {
+        Map<String, Integer> occurrences = new HashMap<>(); // Identical statements are distinct migrations
+        for (KeyValue task : tasks) {
+            String op = task.key();
+            if ("sql".equals(op)) { //$NON-NLS-1$
+                statements.add(task.value());
+                hashes.add(hash(task.value(), occurrences.merge(task.value(), 1, Integer::sum)));
+                shapes.add(Shape.of(task.value()));
+                scripts.add(null);
+            } else if ("sqlfile".equals(op)) { //$NON-NLS-1$
+                statements.add(op + ":" + task.value().trim()); //$NON-NLS-1$
+                hashes.add(null); // Known once the archive entry is found, see setArchive()
+                shapes.add(null);
+                scripts.add(task.value().trim());
+            } else if ("pragma".equals(op)) { //$NON-NLS-1$
+                String[] parts = task.value().split("=", 2); //$NON-NLS-1$
+                String name = parts[0].trim();
+                if (parts.length < 2 || !name.matches("[A-Za-z_]+") || !parts[1].trim().matches("-?[A-Za-z0-9_]+")) //$NON-NLS-1$ //$NON-NLS-2$
+                    throw new IllegalArgumentException(Messages.getString("SqliteExecutor.EX_INVALID_PRAGMA") + task.value()); //$NON-NLS-1$
+                pragmas.put(name, parts[1].trim());
+            } else if ("batch".equals(op)) { //$NON-NLS-1$
+                batchSize = Integer.parseInt(task.value().trim());
+            } else if ("snapshot".equals(op)) { //$NON-NLS-1$
+                snapshot = !"off".equalsIgnoreCase(task.value().trim()); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * Sets the version recorded in the ledger for the statements applied by this executor
+     * @param version The version of the application being installed
+     */
+    public void setVersion(String version) {
+        this.version = version != null ? version : ""; //$NON-NLS-1$
+    }
+
+    /**
+     * Sets the archive holding the sqlfile scripts. A script is identified in the ledger
+     * by its entry name, size and CRC, read from the archive central directory.
+     * @param zipFilePath The update archive
+     * @throws IOException If the archive cannot be read or a script is missing
+     */
+    public void setArchive(String zipFilePath) throws IOException {
+        archive = zipFilePath;
+        scriptBytes = 0;
+        Map<String, Integer> occurrences = new HashMap<>();
+        try (ZipFile zip = new ZipFile(zipFilePath)) {
+            for (int i = 0; i < scripts.size(); i++) {
+                String name = scripts.get(i);
+                if (name == null)
+                    continue;
+                ZipEntry entry = zip.getEntry(name);
+                if (entry == null)
+                    throw new FileNotFoundException(Messages.getString("SqliteExecutor.EX_SCRIPT_NOT_FOUND") + name); //$NON-NLS-1$
+                String key = statements.get(i) + "#" + entry.getSize() + "#" + Long.toHexString(entry.getCrc()); //$NON-NLS-1$ //$NON-NLS-2$
+                hashes.set(i, hash(key, occurrences.merge(key, 1, Integer::sum)));
+                scriptBytes += entry.getSize();
+            }
+        }
+    }
+
+    /**
+     * Returns the uncompressed size of the scripts, the progress reported for one database
+     * @return The total size of the sqlfile entries in bytes
+     */
+    public long getScriptBytes() { return scriptBytes; }
+
+    /**
+     * Sets the listener told of each script started and of the script bytes consumed
+     * @param listener A listener for progress updates
+     */
+    public void setProgressListener(ProgressListener listener) {
+        progressListener = listener;
+    }
+
+    /**
+     * Checks whether an operation name is handled by this executor
+     * @param op The operation name
+     * @return true for sql, sqlfile, pragma, batch and snapshot
+     */
+    public static boolean isOperation(String op) {
+        return "sql".equals(op) || "sqlfile".equals(op) || "pragma".equals(op) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            || "batch".equals(op) || "snapshot".equals(op); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Runs the statements not found in the database ledger, a failing transaction is rolled back
+     * and the database is restored from the snapshot taken before the migration
+     * @param dbFile The database file
+     * @return The executed and skipped statements and the time spent
+     * @throws SQLException If the database cannot be opened or a statement fails
+     * @throws IOException If a script cannot be read or the snapshot cannot be removed or restored
+     */
+    public Result execute(String dbFile) throws SQLException, IOException {
+        for (int i = 0; i < scripts.size(); i++) {
+            if (hashes.get(i) == null)
+                throw new FileNotFoundException(Messages.getString("SqliteExecutor.EX_SCRIPT_NOT_FOUND") + scripts.get(i)); //$NON-NLS-1$
+        }
+        long start = System.nanoTime();
+        Path dbPath = Paths.get(dbFile);
+        Path snapshotFile = null;
+        List<String> executed = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        try (Connection con = Helper.connectToSqliteDb(dbFile)) {
+            if (con == null)
+                throw new SQLException(Messages.getString("Helper.EX_SQLITE_CON_ERROR") + dbFile); //$NON-NLS-1$
+            Set<String> applied = readLedger(con);
+            List<Integer> pending = new ArrayList<>();
+            for (int i = 0; i < statements.size(); i++) {
+                if (applied.contains(hashes.get(i))) {
+                    skipped.add(statements.get(i));
+                } else pending.add(i);
+            }
+            if (!pending.isEmpty()) {
+                if (snapshot)
+                    snapshotFile = takeSnapshot(con, dbPath);
+                Map<String, String> previous = applyPragmas(con, pragmas);
+                try {
+                    con.setAutoCommit(false);
+                    run(con, pending);
+                } catch (Exception | Error ex) {
+                    // The migration failure is the one reported, not a failure to put the connection back
+                    try {
+                        con.setAutoCommit(true);
+                        applyPragmas(con, previous);
+                    } catch (SQLException restoreEx) {
+                        ex.addSuppressed(restoreEx);
+                    }
+                    throw ex;
+                }
+                con.setAutoCommit(true);
+                applyPragmas(con, previous);
+                for (int i : pending)
+                    executed.add(statements.get(i));
+            }
+        } catch (SQLException | IOException ex) {
+            if (snapshotFile != null)
+                throw restoreSnapshot(snapshotFile, dbPath, ex);
+            throw ex;
+        }
+        if (snapshotFile != null)
+            Files.deleteIfExists(snapshotFile);
+        return new Result(dbFile, executed, skipped, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Writes a consistent and compacted copy of the database next to it in one pass
+     * @param con The connection, must be in auto-commit mode
+     * @param dbPath The database file
+     * @return The snapshot file
+     */
+    private static Path takeSnapshot(Connection con, Path dbPath) throws SQLException, IOException {
+        Path snapshotFile = Helper.createSiblingTempFile(dbPath); // VACUUM INTO accepts an empty file
+        try (PreparedStatement stmt = con.prepareStatement("VACUUM INTO ?")) { //$NON-NLS-1$
+            stmt.setString(1, snapshotFile.toString());
+            stmt.execute();
+            return snapshotFile;
+        } catch (SQLException ex) {
+            Files.deleteIfExists(snapshotFile);
+            throw ex;
+        }
+    }
+
+    /**
+     * Puts the snapshot back in place of the database once its connection is closed
+     * @param snapshotFile The snapshot taken before the migration
+     * @param dbPath The database file
+     * @param cause The migration failure
+     * @return The exception to report, the snapshot is kept when it cannot be restored
+     */
+    private static SQLException restoreSnapshot(Path snapshotFile, Path dbPath, Exception cause) {
+        try {
+            // Journal files of the failed run must not be replayed over the restored database
+            Files.deleteIfExists(Paths.get(dbPath + "-wal")); //$NON-NLS-1$
+            Files.deleteIfExists(Paths.get(dbPath + "-shm")); //$NON-NLS-1$
+            Files.deleteIfExists(Paths.get(dbPath + "-journal")); //$NON-NLS-1$
+            Helper.moveAtomically(snapshotFile, dbPath);
+            return new SQLException(Messages.getString("SqliteExecutor.EX_MIGRATION_RESTORED") + cause.getMessage(), cause); //$NON-NLS-1$
+        } catch (IOException ex) {
+            cause.addSuppressed(ex);
+            return new SQLException(Messages.getString("SqliteExecutor.EX_SNAPSHOT_KEPT") + snapshotFile, cause); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Creates the ledger table when missing and loads the applied statement hashes
+     */
+    private static Set<String> readLedger(Connection con) throws SQLException {
+        Set<String> applied = new HashSet<>();
+        try (Statement stmt = con.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + LEDGER_TABLE //$NON-NLS-1$
+                + " (hash TEXT PRIMARY KEY, version TEXT, applied_at TEXT, statement TEXT)"); //$NON-NLS-1$
+            try (ResultSet rs = stmt.executeQuery("SELECT hash FROM " + LEDGER_TABLE)) { //$NON-NLS-1$
+                while (rs.next())
+                    applied.add(rs.getString(1));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Hashes a statement with its occurrence number in the section
+     */
+    private static String hash(String sql, int occurrence) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+            md.update(sql.trim().getBytes(StandardCharsets.UTF_8));
+            md.update((byte)0);
+            md.update(Integer.toString(occurrence).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Executes the pending statements and records them in the ledger within the same transactions.
+     * Runs of statements of the same shape share one prepared statement and one batch,
+     * which is closed once executed.
+     */
+    private void run(Connection con, List<Integer> pending) throws SQLException, IOException {
+        ZipFile zip = null;
+        try (PreparedStatement ledger = con.prepareStatement("INSERT INTO " + LEDGER_TABLE //$NON-NLS-1$
+                + " (hash, version, applied_at, statement) VALUES (?, ?, ?, ?)")) { //$NON-NLS-1$
+            int done = 0;
+            int i = 0;
+            while (i < pending.size()) {
+                String sql = statements.get(pending.get(i));
+                String script = scripts.get(pending.get(i));
+                if (script != null) {
+                    if (zip == null)
+                        zip = new ZipFile(archive);
+                    runScript(con, zip, script);
+                    ledger.setString(1, hashes.get(pending.get(i)));
+                    ledger.setString(2, version);
+                    ledger.setString(3, Instant.now().toString());
+                    ledger.setString(4, sql);
+                    ledger.executeUpdate();
+                    con.commit();
+                    i++;
+                    continue;
+                }
+                Shape shape = shapes.get(pending.get(i));
+                int run = 1;
+                while (i + run < pending.size() && scripts.get(pending.get(i + run)) == null
+                        && shapes.get(pending.get(i + run)).sql().equals(shape.sql())
+                        && (batchSize <= 0 || (done + run) % batchSize != 0))
+                    run++;
+                if (run > 1) {
+                    try (PreparedStatement stmt = con.prepareStatement(shape.sql())) {
+                        for (int n = 0; n < run; n++) {
+                            shapes.get(pending.get(i + n)).bind(stmt);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                } else {
+                    try (PreparedStatement stmt = con.prepareStatement(sql)) {
+                        stmt.executeUpdate();
+                    }
+                }
+                String appliedAt = Instant.now().toString();
+                for (int n = 0; n < run; n++) {
+                    ledger.setString(1, hashes.get(pending.get(i + n)));
+                    ledger.setString(2, version);
+                    ledger.setString(3, appliedAt);
+                    ledger.setString(4, statements.get(pending.get(i + n)));
+                    ledger.addBatch();
+                }
+                ledger.executeBatch();
+                i += run;
+                done += run;
+                if (batchSize > 0 && done % batchSize == 0)
+                    con.commit();
+            }
+            con.commit();
+        } catch (SQLException | IOException ex) {
+            try {
+                con.rollback();
+            } catch (SQLException rollbackEx) {
+                ex.addSuppressed(rollbackEx);
+            }
+            throw ex;
+        } finally {
+            if (zip != null)
+                zip.close();
+        }
+    }
+
+    /**
+     * Streams a script out of the archive and executes its statements as they are parsed,
+     * committing every batch:N (or {@value #SCRIPT_BATCH_SIZE}) statements.
+     * Only the statement being parsed is held in memory.
+     */
+    private void runScript(Connection con, ZipFile zip, String name) throws SQLException, IOException {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null)
+            throw new FileNotFoundException(Messages.getString("SqliteExecutor.EX_SCRIPT_NOT_FOUND") + name); //$NON-NLS-1$
+        if (progressListener != null)
+            progressListener.onFileCreated(name);
+        int commitEvery = batchSize > 0 ? batchSize : SCRIPT_BATCH_SIZE;
+        try (CountingInputStream in = new CountingInputStream(zip.getInputStream(entry));
+             Statement stmt = con.createStatement()) {
+            ScriptReader reader = new ScriptReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            int count = 0;
+            long reported = 0;
+            String sql;
+            while ((sql = reader.next()) != null) {
+                stmt.execute(sql);
+                if (++count % commitEvery == 0)
+                    con.commit();
+                if (progressListener != null && in.count() - reported >= PROGRESS_STEP) {
+                    progressListener.onProgress((int)(in.count() - reported));
+                    reported = in.count();
+                }
+            }
+            if (progressListener != null && in.count() > reported)
+                progressListener.onProgress((int)(in.count() - reported));
+        }
+    }
+
+    /**
+     * Sets pragmas on a connection
+     * @param con The connection, must be in auto-commit mode
+     * @param values Pragma names and values
+     * @return The values the pragmas had before
+     */
+    private static Map<String, String> applyPragmas(Connection con, Map<String, String> values) throws SQLException {
+        Map<String, String> previous = new LinkedHashMap<>();
+        try (Statement stmt = con.createStatement()) {
+            for (Map.Entry<String, String> pragma : values.entrySet()) {
+                try (ResultSet rs = stmt.executeQuery("PRAGMA " + pragma.getKey())) { //$NON-NLS-1$
+                    if (rs.next())
+                        previous.put(pragma.getKey(), rs.getString(1));
+                }
+                stmt.execute("PRAGMA " + pragma.getKey() + "=" + pragma.getValue()); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * A statement with the literals of its value positions replaced by parameters, so that
+     * statements differing only by their values share one prepared statement. A string, number
+     * or blob literal is a value when it is a whole element of a VALUES tuple or the operand
+     * following a comparison operator, as in SET col = 'a' or WHERE id = 5. Other literals,
+     * like GROUP BY 1, LIMIT 10 or DECIMAL(10,2), keep their text. Statements other than INSERT,
+     * REPLACE, UPDATE and DELETE, or already holding parameters, keep their text and have no values.
+     */
+    private static record Shape(String sql, List<Object> values) {
+        private static final Set<String> DML = Set.of("INSERT", "REPLACE", "UPDATE", "DELETE"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        private static final Set<String> COMPARISONS = Set.of("=", "==", "<>", "!=", "<", "<=", ">", ">="); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+        private static final String LITERAL = "'"; // Previous token marker of literals and quoted identifiers //$NON-NLS-1$
+
+        static Shape of(String sql) {
+            String s = sql.strip();
+            int end = 0;
+            while (end < s.length() && Character.isLetter(s.charAt(end)))
+                end++;
+            if (!DML.contains(s.substring(0, end).toUpperCase()))
+                return new Shape(sql, List.of());
+            StringBuilder shape = new StringBuilder(s.length());
+            List<Object> values = new ArrayList<>();
+            int n = s.length();
+            int i = 0;
+            int depth = 0;
+            boolean inValues = false; // In the VALUES tuples of the statement, not of a subquery
+            String prev = ""; // Previous token: upper-cased word, operator or punctuation //$NON-NLS-1$
+            while (i < n) {
+                char c = s.charAt(i);
+                char next = i + 1 < n ? s.charAt(i + 1) : 0;
+                if (Character.isWhitespace(c)) {
+                    shape.append(c);
+                    i++;
+                    continue;
+                }
+                if ((c == '-' && next == '-') || (c == '/' && next == '*')) { // Comment, kept
+                    int j = c == '-' ? s.indexOf('\n', i) : s.indexOf("*/", i + 2); //$NON-NLS-1$
+                    j = j < 0 ? n : (c == '-' ? j : j + 2);
+                    shape.append(s, i, j);
+                    i = j;
+                    continue;
+                }
+                if (inValues && depth == 0 && c != '(' && c != ',')
+                    inValues = false; // ON CONFLICT, RETURNING...
+                boolean operand = COMPARISONS.contains(prev);
+                boolean element = inValues && depth == 1 && ("(".equals(prev) || ",".equals(prev)); //$NON-NLS-1$ //$NON-NLS-2$
+                if (c == '\'') {
+                    StringBuilder text = new StringBuilder();
+                    int j = i + 1;
+                    while (true) {
+                        if (j >= n)
+                            return new Shape(sql, List.of()); // Unterminated, reported by SQLite
+                        char d = s.charAt(j);
+                        if (d == '\'') {
+                            if (j + 1 < n && s.charAt(j + 1) == '\'') {
+                                text.append(d);
+                                j += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        text.append(d);
+                        j++;
+                    }
+                    literal(shape, values, s, i, j + 1, operand, element, text.toString());
+                    prev = LITERAL;
+                    i = j + 1;
+                } else if (c == '"' || c == '`' || c == '[') { // Quoted identifier, kept
+                    char close = c == '[' ? ']' : c;
+                    int j = i + 1;
+                    while (j < n) {
+                        if (s.charAt(j) == close) {
+                            if (close == ']' || j + 1 >= n || s.charAt(j + 1) != close)
+                                break;
+                            j++; // Doubled quote
+                        }
+                        j++;
+                    }
+                    if (j >= n)
+                        return new Shape(sql, List.of());
+                    shape.append(s, i, j + 1);
+                    prev = LITERAL;
+                    i = j + 1;
+                } else if (c == '?' || c == ':' || c == '@' || c == '$') {
+                    return new Shape(sql, List.of()); // Already holds parameters
+                } else if (Character.isLetter(c) || c == '_') { // Keyword or identifier, digits included
+                    int j = i;
+                    while (j < n && (Character.isLetterOrDigit(s.charAt(j)) || s.charAt(j) == '_'))
+                        j++;
+                    if (j == i + 1 && (c == 'x' || c == 'X') && j < n && s.charAt(j) == '\'') { // Blob literal
+                        int close = s.indexOf('\'', j + 1);
+                        if (close < 0)
+                            return new Shape(sql, List.of());
+                        byte[] bytes = null;
+                        try {
+                            bytes = HexFormat.of().parseHex(s, j + 1, close);
+                        } catch (IllegalArgumentException ex) { } // Invalid, reported by SQLite
+                        literal(shape, values, s, i, close + 1, operand, element, bytes);
+                        prev = LITERAL;
+                        i = close + 1;
+                        continue;
+                    }
+                    prev = s.substring(i, j).toUpperCase();
+                    if (depth == 0 && "VALUES".equals(prev)) //$NON-NLS-1$
+                        inValues = true;
+                    shape.append(s, i, j);
+                    i = j;
+                } else if (Character.isDigit(c) || (c == '.' && Character.isDigit(next))
+                        || ((c == '-' || c == '+') && (operand || element) && (Character.isDigit(next) || next == '.'))) { // Number, signed in value positions
+                    int j = numberEnd(s, c == '-' || c == '+' ? i + 1 : i);
+                    Object number = null;
+                    if (j >= n || !(Character.isLetter(s.charAt(j)) || s.charAt(j) == '_')) // Otherwise not a number literal, left to SQLite
+                        number = number(s.substring(c == '+' ? i + 1 : i, j));
+                    literal(shape, values, s, i, j, operand, element, number);
+                    prev = LITERAL;
+                    i = j;
+                } else if (c == '=' || c == '<' || c == '>' || c == '!') {
+                    int j = i;
+                    while (j < n && "=<>!".indexOf(s.charAt(j)) >= 0) //$NON-NLS-1$
+                        j++;
+                    prev = s.substring(i, j);
+                    shape.append(prev);
+                    i = j;
+                } else {
+                    if (c == '(') {
+                        depth++;
+                    } else if (c == ')') {
+                        depth--;
+                    }
+                    prev = String.valueOf(c);
+                    shape.append(c);
+                    i++;
+                }
+            }
+            return new Shape(shape.toString(), values);
+        }
+
+        /**
+         * Appends a literal to the shape, as a parameter when it is a value
+         * @param start The literal start in the statement
+         * @param end The literal end in the statement
+         * @param operand true after a comparison operator
+         * @param element true at the start of a VALUES tuple element, the literal must also end it
+         * @param literal The literal value, null when it can't be bound
+         */
+        private static void literal(StringBuilder shape, List<Object> values, String s, int start, int end, boolean operand, boolean element, Object literal) {
+            if (element && !operand) {
+                int j = end;
+                while (j < s.length() && Character.isWhitespace(s.charAt(j)))
+                    j++;
+                element = j < s.length() && (s.charAt(j) == ',' || s.charAt(j) == ')');
+            }
+            if ((operand || element) && literal != null) {
+                shape.append('?');
+                values.add(literal);
+            } else shape.append(s, start, end);
+        }
+
+        // End of the number starting at i, hexadecimal numbers included
+        private static int numberEnd(String s, int i) {
+            int n = s.length();
+            int j = i;
+            if (j + 1 < n && s.charAt(j) == '0' && (s.charAt(j + 1) == 'x' || s.charAt(j + 1) == 'X')) {
+                j += 2;
+                while (j < n && Character.isLetterOrDigit(s.charAt(j)))
+                    j++;
+                return j;
+            }
+            while (j < n && Character.isDigit(s.charAt(j)))
+                j++;
+            if (j < n && s.charAt(j) == '.') {
+                j++;
+                while (j < n && Character.isDigit(s.charAt(j)))
+                    j++;
+            }
+            if (j < n && (s.charAt(j) == 'e' || s.charAt(j) == 'E')) {
+                int k = j + 1;
+                if (k < n && (s.charAt(k) == '+' || s.charAt(k) == '-'))
+                    k++;
+                if (k < n && Character.isDigit(s.charAt(k))) {
+                    j = k;
+                    while (j < n && Character.isDigit(s.charAt(j)))
+                        j++;
+                }
+            }
+            return j;
+        }
+
+        // Value of a number literal, null for hexadecimal numbers and integers too large, kept as text
+        private static Object number(String number) {
+            String digits = number.startsWith("-") ? number.substring(1) : number; //$NON-NLS-1$
+            if (digits.startsWith("0x") || digits.startsWith("0X")) //$NON-NLS-1$ //$NON-NLS-2$
+                return null;
+            if (digits.indexOf('.') >= 0 || digits.indexOf('e') >= 0 || digits.indexOf('E') >= 0)
+                return Double.valueOf(number);
+            try {
+                return Long.valueOf(number);
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+
+        // Binds the literals of this statement to a statement of the same shape
+        void bind(PreparedStatement stmt) throws SQLException {
+            for (int i = 0; i < values.size(); i++) {
+                Object value = values.get(i);
+                if (value instanceof Long l) {
+                    stmt.setLong(i + 1, l);
+                } else if (value instanceof Double d) {
+                    stmt.setDouble(i + 1, d);
+                } else if (value instanceof byte[] bytes) {
+                    stmt.setBytes(i + 1, bytes);
+                } else stmt.setString(i + 1, (String)value);
+            }
+        }
+    }
+
+    // Counts the bytes read from a stream, for the script progress
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0)
+                count += n;
+            return n;
+        }
+
+        long count() { return count; }
+    }
+
+    // Splits a SQL script into statements as it is read. Semicolons in quotes, comments
+    // and CREATE TRIGGER ... BEGIN ... END bodies don't end a statement, comments are dropped.
+    private static class ScriptReader {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int pos = 0;
+        private int len = 0;
+        private final StringBuilder sql = new StringBuilder();
+        private final StringBuilder word = new StringBuilder(); // Current bare word, upper-cased
+        private String lastWord = null;
+        private int words = 0;     // Bare words seen in the statement, to spot CREATE [TEMP] TRIGGER
+        private boolean trigger = false;
+
+        ScriptReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Returns the next statement without its semicolon, null at the end of the script
+         */
+        String next() throws IOException {
+            sql.setLength(0);
+            word.setLength(0);
+            lastWord = null;
+            words = 0;
+            trigger = false;
+            int c;
+            while ((c = read()) >= 0) {
+                if (c == '\'' || c == '"' || c == '`' || c == '[') {
+                    endWord();
+                    int close = c == '[' ? ']' : c;
+                    sql.append((char)c);
+                    while ((c = read()) >= 0) {
+                        sql.append((char)c);
+                        if (c == close) {
+                            if (close == ']' || peek() != close)
+                                break;
+                            sql.append((char)read()); // Doubled quote
+                        }
+                    }
+                } else if (c == '-' && peek() == '-') {
+                    endWord();
+                    while ((c = read()) >= 0 && c != '\n') { }
+                    sql.append('\n');
+                } else if (c == '/' && peek() == '*') {
+                    endWord();
+                    read();
+                    int prev = 0;
+                    while ((c = read()) >= 0 && !(prev == '*' && c == '/'))
+                        prev = c;
+                    sql.append(' ');
+                } else if (c == ';') {
+                    endWord();
+                    if (trigger && !"END".equals(lastWord)) { //$NON-NLS-1$
+                        sql.append(';');
+                        continue;
+                    }
+                    String statement = sql.toString().strip();
+                    if (!statement.isEmpty())
+                        return statement;
+                    sql.setLength(0);
+                    lastWord = null;
+                    words = 0;
+                    trigger = false;
+                } else {
+                    if (Character.isLetterOrDigit(c) || c == '_') {
+                        word.append((char)Character.toUpperCase(c));
+                    } else endWord();
+                    sql.append((char)c);
+                }
+            }
+            endWord();
+            String statement = sql.toString().strip();
+            return statement.isEmpty() ? null : statement;
+        }
+
+        private void endWord() {
+            if (word.length() == 0)
+                return;
+            lastWord = word.toString();
+            word.setLength(0);
+            words++;
+            if (words <= 3 && "TRIGGER".equals(lastWord)) //$NON-NLS-1$
+                trigger = true;
+            else if (words == 1 && !"CREATE".equals(lastWord)) //$NON-NLS-1$
+                words = 4; // Not a CREATE statement, stop looking for TRIGGER
+        }
+
+        private int read() throws IOException {
+            if (pos == len) {
+                len = reader.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (len <= 0) {
+                    len = 0;
+                    return -1;
+                }
+            }
+            return buffer[pos++];
+        }
+
+        private int peek() throws IOException {
+            int c = read();
+            if (c >= 0)
+                pos--;
+            return c;
+        }
+    }
+}
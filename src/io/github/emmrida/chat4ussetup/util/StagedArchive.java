@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import io.github.emmrida.chat4ussetup.util.ZipArchiveHandler.ProgressListener;
+
+/**
+ * Archive entries inflated once into a staging folder, then copied to any number of
+ * installation folders. The central directory is read once and shared, the first
+ * folder needing an entry inflates it while the others wait for it.
+ */
+final class StagedArchive implements Closeable {
+    private final ZipFile zip;
+    private final Path folder;
+    private final Map<String, CompletableFuture<Path>> staged = new ConcurrentHashMap<>();
+    private final AtomicInteger fileCount = new AtomicInteger();
+
+    /**
+     * Opens an archive and creates its staging folder
+     * @param archive The archive path
+     * @throws IOException If the archive can't be read or the folder created
+     */
+    StagedArchive(String archive) throws IOException {
+        zip = new ZipFile(archive);
+        try {
+            folder = Files.createTempDirectory("chat4us-staging-"); //$NON-NLS-1$
+        } catch (IOException ex) {
+            zip.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Copies an entry to a file, inflating it first when no other folder did
+     * @param entryName The entry name in the archive
+     * @param target The file to create or replace
+     * @param listener Receives the bytes written, may be null
+     * @return true if successful
+     */
+    boolean extractFile(String entryName, Path target, ProgressListener listener) {
+        CompletableFuture<Path> inflated = new CompletableFuture<>();
+        CompletableFuture<Path> existing = staged.putIfAbsent(entryName, inflated);
+        if (existing == null) {
+            inflate(entryName, inflated);
+        } else inflated = existing;
+        try {
+            Path file = inflated.join();
+            if (listener != null)
+                listener.onFileCreated(entryName);
+            Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+            if (listener != null) {
+                for (long size = Files.size(file); size > 0; size -= Integer.MAX_VALUE)
+                    listener.onProgress((int)Math.min(size, Integer.MAX_VALUE));
+            }
+            return true;
+        } catch (CompletionException ex) {
+            System.err.println(ex.getCause().getMessage());
+        } catch (IOException ex) {
+            System.err.println(Messages.getString("ZipArchiveHandler.EX_ZIP_EXTRACT_FILE") + ex.getMessage()); //$NON-NLS-1$
+        }
+        return false;
+    }
+
+    // Inflates an entry to the staging folder, the future is always completed so no folder waits forever
+    private void inflate(String entryName, CompletableFuture<Path> inflated) {
+        try {
+            ZipEntry entry = zip.getEntry(entryName);
+            if (entry == null || entry.isDirectory()) {
+                inflated.completeExceptionally(new IOException(Messages.getString("ZipArchiveHandler.EX_ZIP_FILE_NFOUND") + entryName)); //$NON-NLS-1$
+                return;
+            }
+            try (InputStream is = zip.getInputStream(entry)) {
+                // Staged under its index only, the entry name may not be a valid path here
+                Path file = folder.resolve(Integer.toString(fileCount.incrementAndGet()));
+                Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+                inflated.complete(file);
+            }
+        } catch (Throwable ex) {
+            inflated.completeExceptionally(new IOException(Messages.getString("ZipArchiveHandler.EX_ZIP_EXTRACT_FILE") + ex.getMessage(), ex)); //$NON-NLS-1$
+            if (ex instanceof Error error)
+                throw error;
+        }
+    }
+
+    /**
+     * @return The number of entries inflated
+     */
+    int getInflatedCount() { return fileCount.get(); }
+
+    /**
+     * Closes the archive and deletes the staging folder
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            zip.close();
+        } finally {
+            Helper.deleteFolderTree(folder.toString());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes folders without making the user wait: a folder is renamed to a sibling
+ * tombstone, which is instant on the same file system, and the tombstone is deleted
+ * by a low priority background thread. Tombstones are listed in a registry file so
+ * the ones left by an interrupted run are deleted at the next startup.
+ */
+public class Tombstones {
+    private static final String TOMBSTONE_MARK = ".tombstone-"; //$NON-NLS-1$
+    private static final Path REGISTRY = Paths.get(System.getProperty("user.home"), ".chat4us-setup", "tombstones.lst"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+    /**
+     * Renames a folder to a hidden sibling tombstone and deletes it in the background
+     * @param folder The folder to remove
+     * @return The background deletion thread
+     * @throws IOException If the folder cannot be renamed, it is left in place
+     */
+    public static Thread bury(Path folder) throws IOException {
+        Path dir = folder.toAbsolutePath().normalize();
+        Path tombstone = dir.resolveSibling("." + dir.getFileName() + TOMBSTONE_MARK + System.currentTimeMillis()); //$NON-NLS-1$
+        register(tombstone, true); // Before the rename so an interruption can't orphan it
+        try {
+            Files.move(dir, tombstone, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            register(tombstone, false);
+            throw ex;
+        }
+        return deleteInBackground(tombstone);
+    }
+
+    /**
+     * Starts the deletion of the tombstones left by previous runs
+     */
+    public static void cleanupLeftovers() {
+        for (Path tombstone : readRegistry()) {
+            if (Files.exists(tombstone)) {
+                deleteInBackground(tombstone);
+            } else register(tombstone, false);
+        }
+    }
+
+    /**
+     * Deletes a tombstone on a minimum priority thread and unregisters it once gone.
+     * The thread is not a daemon so the deletion completes after the wizard is closed.
+     */
+    private static Thread deleteInBackground(Path tombstone) {
+        Thread thread = new Thread(() -> {
+            FolderTreeDeleter deleter = new FolderTreeDeleter(Integer.MAX_VALUE);
+            deleter.setBackground(true);
+            FolderTreeDeleter.Result result = deleter.delete(tombstone);
+            if (result.success()) {
+                register(tombstone, false);
+            } else {
+                for (String failure : result.failures())
+                    System.err.println(Messages.getString("Helper.EX_DEL_FOLDER_ERROR") + failure); //$NON-NLS-1$
+            }
+        }, "tombstone-" + tombstone.getFileName()); //$NON-NLS-1$
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Adds or removes a tombstone from the registry
+     */
+    private static synchronized void register(Path tombstone, boolean add) {
+        Set<Path> tombstones = new LinkedHashSet<>(readRegistry());
+        if (add ? tombstones.add(tombstone) : tombstones.remove(tombstone)) {
+            try {
+                List<String> lines = new ArrayList<>();
+                for (Path path : tombstones)
+                    lines.add(path.toString());
+                Files.createDirectories(REGISTRY.getParent());
+                Path tmp = Helper.createSiblingTempFile(REGISTRY);
+                Files.write(tmp, lines, StandardCharsets.UTF_8);
+                Helper.moveAtomically(tmp, REGISTRY);
+            } catch (IOException ex) {
+                System.err.println(Messages.getString("Tombstones.EX_REGISTRY_ERROR") + ex.getMessage()); //$NON-NLS-1$
+            }
+        }
+    }
+
+    private static synchronized List<Path> readRegistry() {
+        List<Path> tombstones = new ArrayList<>();
+        if (Files.exists(REGISTRY)) {
+            try {
+                for (String line : Files.readAllLines(REGISTRY, StandardCharsets.UTF_8)) {
+                    // Only paths named by bury() are ever deleted
+                    if (!line.isBlank() && line.contains(TOMBSTONE_MARK))
+                        tombstones.add(Paths.get(line.strip()));
+                }
+            } catch (IOException ex) {
+                System.err.println(Messages.getString("Tombstones.EX_REGISTRY_ERROR") + ex.getMessage()); //$NON-NLS-1$
+            }
+        }
+        return tombstones;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable version, parsed once into numeric parts, pre-release labels and build metadata.
+ * Follows the rules of {@link VersionComparator}: missing numeric parts count as 0, a
+ * version without pre-release label is greater than one with, numeric labels are lower
+ * than alphanumeric ones and build metadata only matters in strict comparisons.
+ * Parsed versions are shared through a cache and compared without allocating.
+ */
+public final class Version implements Comparable<Version> {
+    private static final int CACHE_LIMIT = 4096;
+    private static final Map<String, Version> cache = new ConcurrentHashMap<>();
+    private static final Label EMPTY_LABEL = new Label(""); //$NON-NLS-1$
+
+    private final String text;
+    private final int[] numbers;
+    private final int significantNumbers; // Numeric parts without the trailing zeros
+    private final Label[] preRelease; // null without pre-release part
+    private final int significantLabels; // Labels without the trailing empty ones
+    private final String buildMetadata;
+    private final int hash;
+
+    // A pre-release label, numeric labels keep their digits without leading zeros
+    private static final class Label {
+        final String text;
+        final boolean numeric;
+
+        Label(String label) {
+            boolean digits = !label.isEmpty();
+            for (int i = 0; i < label.length() && digits; i++)
+                digits = label.charAt(i) >= '0' && label.charAt(i) <= '9';
+            numeric = digits;
+            if (numeric) {
+                int start = 0;
+                while (start < label.length() - 1 && label.charAt(start) == '0')
+                    start++;
+                text = label.substring(start);
+            } else text = label;
+        }
+
+        int compareTo(Label other) {
+            if (numeric && other.numeric) {
+                // Compares the numbers whatever their length
+                if (text.length() != other.text.length())
+                    return text.length() < other.text.length() ? -1 : 1;
+                return Integer.signum(text.compareTo(other.text));
+            } else if (numeric) {
+                return -1; // Numeric has lower precedence than non-numeric
+            } else if (other.numeric) {
+                return 1;
+            }
+            return text.compareTo(other.text);
+        }
+    }
+
+    private Version(String version) {
+        text = version;
+
+        // Split version and build metadata
+        String[] buildSplit = version.split("\\+", 2); //$NON-NLS-1$
+        buildMetadata = buildSplit.length > 1 ? buildSplit[1] : null;
+
+        // Split pre-release and main version
+        String[] preReleaseSplit = buildSplit[0].split("-", 2); //$NON-NLS-1$
+        if (preReleaseSplit.length > 1) {
+            String[] labels = preReleaseSplit[1].split("\\."); //$NON-NLS-1$
+            preRelease = new Label[labels.length];
+            int significant = 0;
+            for (int i = 0; i < labels.length; i++) {
+                preRelease[i] = new Label(labels[i]);
+                if (!labels[i].isEmpty())
+                    significant = i + 1;
+            }
+            significantLabels = significant;
+        } else {
+            preRelease = null;
+            significantLabels = 0;
+        }
+
+        // Parse numeric parts
+        String[] numericStrings = preReleaseSplit[0].split("\\."); //$NON-NLS-1$
+        numbers = new int[numericStrings.length];
+        int significant = 0;
+        for (int i = 0; i < numericStrings.length; i++) {
+            try {
+                numbers[i] = Integer.parseInt(numericStrings[i]);
+            } catch (NumberFormatException e) {
+                numbers[i] = 0;
+            }
+            if (numbers[i] != 0)
+                significant = i + 1;
+        }
+        significantNumbers = significant;
+
+        int h = 1;
+        for (int i = 0; i < significantNumbers; i++)
+            h = 31 * h + numbers[i];
+        h = 31 * h + (preRelease == null ? 0 : 1);
+        for (int i = 0; i < significantLabels; i++)
+            h = 31 * h + preRelease[i].text.hashCode();
+        hash = 31 * h + Objects.hashCode(buildMetadata);
+    }
+
+    /**
+     * Returns the version for a string, parsing it only the first time
+     * @param version The version, surrounding spaces and a leading 'v' are ignored
+     * @return The version, null for a null string
+     */
+    public static Version parse(String version) {
+        if (version == null)
+            return null;
+        Version parsed = cache.get(version);
+        if (parsed == null) {
+            if (cache.size() >= CACHE_LIMIT)
+                cache.clear(); // Only a handful of versions are seen in a session
+            parsed = cache.computeIfAbsent(version, v -> new Version(normalize(v)));
+        }
+        return parsed;
+    }
+
+    /**
+     * Compares with another version, build metadata included
+     * @see Comparable#compareTo(Object)
+     */
+    @Override
+    public int compareTo(Version other) {
+        return compareTo(other, true);
+    }
+
+    /**
+     * Compares with another version
+     * @param other The other version, null is lower than any version
+     * @param strict true to compare the build metadata when all else is equal
+     * @return -1, 0 or 1
+     */
+    public int compareTo(Version other, boolean strict) {
+        if (other == null) return 1;
+        if (other == this) return 0;
+
+        // Compare numeric parts
+        int maxNumericParts = Math.max(numbers.length, other.numbers.length);
+        for (int i = 0; i < maxNumericParts; i++) {
+            int num1 = i < numbers.length ? numbers[i] : 0;
+            int num2 = i < other.numbers.length ? other.numbers[i] : 0;
+            if (num1 != num2)
+                return num1 < num2 ? -1 : 1;
+        }
+
+        // If numeric parts are equal, compare pre-release labels
+        if (preRelease == null || other.preRelease == null) {
+            if (preRelease != other.preRelease)
+                return preRelease == null ? 1 : -1; // 1.0.0 > 1.0.0-alpha
+        } else {
+            int maxLength = Math.max(preRelease.length, other.preRelease.length);
+            for (int i = 0; i < maxLength; i++) {
+                Label label1 = i < preRelease.length ? preRelease[i] : EMPTY_LABEL;
+                Label label2 = i < other.preRelease.length ? other.preRelease[i] : EMPTY_LABEL;
+                int result = label1.compareTo(label2);
+                if (result != 0)
+                    return result;
+            }
+        }
+
+        // If still equal, compare build metadata (usually ignored in comparisons)
+        if (strict) {
+            if (buildMetadata == null || other.buildMetadata == null)
+                return buildMetadata == other.buildMetadata ? 0 : buildMetadata == null ? -1 : 1;
+            return buildMetadata.compareTo(other.buildMetadata);
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Version other) || hash != other.hash) return false;
+        return compareTo(other, true) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Normalize version string
+     */
+    private static String normalize(String version) {
+        // Remove leading/trailing whitespace
+        version = version.trim();
+
+        // Remove leading 'v' if present
+        if (version.startsWith("v") || version.startsWith("V")) { //$NON-NLS-1$ //$NON-NLS-2$
+            version = version.substring(1);
+        }
+
+        return version;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Version range made of space separated conditions that must all hold, for example
+ * ">=0.5.12 <0.6". Operators are >=, <=, >, <, = and !=, a version alone means =.
+ * Build metadata is ignored. Several ranges given for the same rule are alternatives.
+ */
+public class VersionRange {
+    private final String expression;
+    private final List<Condition> conditions = new ArrayList<>();
+
+    private static enum Operator { GE, LE, GT, LT, EQ, NE }
+    private static record Condition(Operator operator, Version version) {
+        boolean matches(Version installed) {
+            int cmp = installed.compareTo(version, false);
+            return switch (operator) {
+                case GE -> cmp >= 0;
+                case LE -> cmp <= 0;
+                case GT -> cmp > 0;
+                case LT -> cmp < 0;
+                case EQ -> cmp == 0;
+                case NE -> cmp != 0;
+            };
+        }
+    }
+
+    /**
+     * Parses a range expression
+     * @param expression The expression, for example ">=0.5.12 <0.6"
+     * @throws IllegalArgumentException If the expression is empty or has no version after an operator
+     */
+    public VersionRange(String expression) {
+        this.expression = expression.trim();
+        for (String token : this.expression.split("\\s+")) { //$NON-NLS-1$
+            if (token.isEmpty())
+                continue;
+            Operator operator;
+            int length = 2;
+            if (token.startsWith(">=")) operator = Operator.GE; //$NON-NLS-1$
+            else if (token.startsWith("<=")) operator = Operator.LE; //$NON-NLS-1$
+            else if (token.startsWith("!=")) operator = Operator.NE; //$NON-NLS-1$
+            else {
+                length = 1;
+                if (token.startsWith(">")) operator = Operator.GT; //$NON-NLS-1$
+                else if (token.startsWith("<")) operator = Operator.LT; //$NON-NLS-1$
+                else if (token.startsWith("=")) operator = Operator.EQ; //$NON-NLS-1$
+                else {
+                    operator = Operator.EQ;
+                    length = 0;
+                }
+            }
+            String version = token.substring(length);
+            if (version.isEmpty())
+                throw new IllegalArgumentException(Messages.getString("VersionRange.EX_INVALID_RANGE") + expression); //$NON-NLS-1$
+            conditions.add(new Condition(operator, Version.parse(version)));
+        }
+        if (conditions.isEmpty())
+            throw new IllegalArgumentException(Messages.getString("VersionRange.EX_INVALID_RANGE") + expression); //$NON-NLS-1$
+    }
+
+    /**
+     * Checks whether a version is in the range
+     * @param version The version
+     * @return true when every condition holds
+     */
+    public boolean matches(Version version) {
+        if (version == null)
+            return false;
+        for (Condition condition : conditions) {
+            if (!condition.matches(version))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks a version against alternative ranges
+     * @param ranges The ranges, no range means any version
+     * @param version The version
+     * @return true if there is no range or the version is in one of them
+     */
+    public static boolean matchesAny(List<VersionRange> ranges, Version version) {
+        if (ranges == null || ranges.isEmpty())
+            return true;
+        for (VersionRange range : ranges) {
+            if (range.matches(version))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
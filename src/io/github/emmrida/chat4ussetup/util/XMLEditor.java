@@ -5,6 +5,8 @@
 package io.github.emmrida.chat4ussetup.util;
 
 import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
 import java.util.*;
 import javax.xml.parsers.*;
 import javax.xml.transform.*;
@@ -14,8 +16,17 @@ import org.w3c.dom.*;
 import org.xml.sax.*;
 
 public class XMLEditor {
+    // Parsers and serializers are expensive to build, keep one per worker thread
+    private static final ThreadLocal<DocumentBuilder> BUILDERS = new ThreadLocal<>();
+    private static final ThreadLocal<Transformer> TRANSFORMERS = new ThreadLocal<>();
+
     private Document document;
     private String currentFilePath;
+    private boolean modified;
+
+    // Compiled paths are kept for the editor's lifetime, children index is per document
+    private final Map<String, String[]> compiledPaths = new HashMap<>();
+    private final Map<Node, Map<String, ArrayDeque<Element>>> childIndex = new IdentityHashMap<>();
 
     public XMLEditor() { }
 
@@ -30,30 +41,33 @@ public class XMLEditor {
             throw new IOException(Messages.getString("XMLEditor.EX_FILE_NFOUND") + filePath); //$NON-NLS-1$
         }
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        this.document = builder.parse(xmlFile);
+        this.document = documentBuilder().parse(xmlFile);
         this.document.getDocumentElement().normalize();
+        this.childIndex.clear();
+        this.modified = false;
     }
 
     /**
      * Creates a new XML document with root element
      */
     public void createNewDocument(String rootElementName) throws ParserConfigurationException {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        this.document = builder.newDocument();
+        this.document = documentBuilder().newDocument();
+        this.childIndex.clear();
 
         Element rootElement = this.document.createElement(rootElementName);
         this.document.appendChild(rootElement);
         this.currentFilePath = null;
+        this.modified = true;
     }
 
     /**
-     * Saves the document to the current file path or a new path
+     * Saves the document to the current file path or a new path.
+     * An unmodified document is not written back to the file it was read from.
      */
     public void save(String filePath) throws TransformerException {
         if (filePath != null) {
+            if (!modified && filePath.equals(this.currentFilePath))
+                return;
             this.currentFilePath = filePath;
         }
 
@@ -61,26 +75,22 @@ public class XMLEditor {
             throw new IllegalStateException(Messages.getString("XMLEditor.EX_MISSING_SAVING_PATH")); //$NON-NLS-1$
         }
 
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes"); //$NON-NLS-1$
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4"); //$NON-NLS-1$ //$NON-NLS-2$
-        transformer.setOutputProperty(OutputKeys.STANDALONE, "no"); //$NON-NLS-1$
-
-        // Use a custom output to control line breaks
-        StringWriter writer = new StringWriter();
-        DOMSource source = new DOMSource(this.document);
-        StreamResult result = new StreamResult(writer);
-        transformer.transform(source, result);
-
-        // Replace double line breaks with single line breaks
-        String xmlContent = writer.toString();
-        xmlContent = xmlContent.replaceAll("(\r?\n)\\s*(\r?\n)", "$1"); //$NON-NLS-1$ //$NON-NLS-2$
-
-        // Write the cleaned content to file
-        try (FileOutputStream fos = new FileOutputStream(this.currentFilePath);
-             OutputStreamWriter osw = new OutputStreamWriter(fos, "UTF-8")) { //$NON-NLS-1$
-            osw.write(xmlContent);
+        // Indentation is left to the transformer, old indentation would end up as blank lines
+        stripIndentation(this.document.getDocumentElement());
+
+        // Serialize to a temporary file then replace the original one
+        Path target = Paths.get(this.currentFilePath);
+        try {
+            Path tmp = Helper.createSiblingTempFile(target);
+            try {
+                try (OutputStream out = new BufferedOutputStream(Channels.newOutputStream(FileChannel.open(tmp, StandardOpenOption.WRITE)))) {
+                    transformer().transform(new DOMSource(this.document), new StreamResult(out));
+                }
+                Helper.moveAtomically(tmp, target);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            this.modified = false;
         } catch (IOException e) {
             throw new TransformerException(Messages.getString("XMLEditor.EX_WRITING_FILE") + e.getMessage(), e); //$NON-NLS-1$
         }
@@ -93,6 +103,34 @@ public class XMLEditor {
         save(this.currentFilePath);
     }
 
+    /**
+     * Checks whether the document was changed since it was opened or saved
+     * @return true if modified
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Applies a parsed operation to the current document
+     * @param op The operation to apply
+     */
+    public void apply(Operation op) {
+        switch (op.type()) {
+            case ADD:
+                addElement(op.path(), op.value(), op.attributes());
+                break;
+            case UPDATE:
+                editElement(op.path(), op.value());
+                if (!op.attributes().isEmpty())
+                    editAttributes(op.path(), op.attributes());
+                break;
+            case REMOVE:
+                removeElement(op.path());
+                break;
+        }
+    }
+
     /**
      * Adds a new element at the specified path
      * Path format: /root/child/grandchild
@@ -112,39 +150,35 @@ public class XMLEditor {
 
         // Verify the root matches
         if (!currentNode.getNodeName().equals(pathParts[0])) {
-            throw new IllegalArgumentException(String.format(Messages.getString("XMLEditor.EX_ROOT_ELEMENT_MISMATCH"), currentNode.getNodeName(), pathParts[0])); //$NON-NLS-1$
+            throw new IllegalArgumentException(Messages.format("XMLEditor.EX_ROOT_ELEMENT_MISMATCH", currentNode.getNodeName(), pathParts[0])); //$NON-NLS-1$
         }
 
-        // Navigate through the existing path, creating missing elements if needed
-        for (int i = 1; i < pathParts.length; i++) {
+        // Navigate through the existing path, creating missing parent elements if needed
+        for (int i = 1; i < pathParts.length - 1; i++) {
             String part = pathParts[i];
             Node nextNode = findChildElement(currentNode, part);
 
             // If element doesn't exist, create it
             if (nextNode == null) {
-                Element newElement = document.createElement(part);
-                currentNode.appendChild(newElement);
-                nextNode = newElement;
+                nextNode = appendChildElement(currentNode, document.createElement(part));
             }
 
             currentNode = nextNode;
         }
 
-        // Now currentNode should be at the parent of the element we want to add
+        // Now currentNode is the parent of the element we want to add
         // The last part of the path is the element name to create
         String elementName = pathParts[pathParts.length - 1];
         Element parentElement = (Element) currentNode;
 
         // Check if element already exists
-        Node existingElement = findChildElement(parentElement, elementName);
+        Node existingElement = pathParts.length > 1 ? findChildElement(parentElement, elementName) : parentElement;
         if (existingElement != null) {
             // Update existing element
-            existingElement.setTextContent(value != null ? value : ""); //$NON-NLS-1$
+            setTextContent(existingElement, value != null ? value : ""); //$NON-NLS-1$
             if (attributes != null) {
                 Element existingElem = (Element) existingElement;
-                for (Map.Entry<String, String> attr : attributes.entrySet()) {
-                    existingElem.setAttribute(attr.getKey(), attr.getValue());
-                }
+                setAttributes(existingElem, attributes);
             }
         } else {
             // Create new element
@@ -161,7 +195,7 @@ public class XMLEditor {
                 }
             }
 
-            parentElement.appendChild(newElement);
+            appendChildElement(parentElement, newElement);
         }
     }
 
@@ -171,7 +205,7 @@ public class XMLEditor {
     public void editElement(String path, String newValue) {
         Node element = findElement(path);
         if (element != null) {
-            element.setTextContent(newValue);
+            setTextContent(element, newValue);
         } else {
             throw new IllegalArgumentException(Messages.getString("XMLEditor.EX_ELEMENT_NFOUND") + path); //$NON-NLS-1$
         }
@@ -183,9 +217,7 @@ public class XMLEditor {
     public void editAttributes(String path, Map<String, String> attributes) {
         Element element = (Element) findElement(path);
         if (element != null) {
-            for (Map.Entry<String, String> attr : attributes.entrySet()) {
-                element.setAttribute(attr.getKey(), attr.getValue());
-            }
+            setAttributes(element, attributes);
         } else {
             throw new IllegalArgumentException(Messages.getString("XMLEditor.EX_ELEMENT_NFOUND") + path); //$NON-NLS-1$
         }
@@ -198,7 +230,15 @@ public class XMLEditor {
         Node element = findElement(path);
         if (element != null) {
             Node parent = element.getParentNode();
+            Map<String, ArrayDeque<Element>> siblings = childIndex.get(parent);
+            if (siblings != null) {
+                ArrayDeque<Element> named = siblings.get(element.getNodeName());
+                if (named != null)
+                    named.removeFirstOccurrence(element);
+            }
+            childIndex.remove(element);
             parent.removeChild(element);
+            modified = true;
         } else {
             throw new IllegalArgumentException(Messages.getString("XMLEditor.EX_ELEMENT_NFOUND") + path); //$NON-NLS-1$
         }
@@ -211,6 +251,7 @@ public class XMLEditor {
         Element element = (Element) findElement(path);
         if (element != null && element.hasAttribute(attributeName)) {
             element.removeAttribute(attributeName);
+            modified = true;
         } else {
             throw new IllegalArgumentException(Messages.getString("XMLEditor.EX_ELEMENT_ATTRIBUTE_NFOUND") + path); //$NON-NLS-1$
         }
@@ -276,45 +317,147 @@ public class XMLEditor {
      * Finds a direct child element with the given name
      */
     private Node findChildElement(Node parent, String childName) {
-        NodeList children = parent.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-            if (child.getNodeType() == Node.ELEMENT_NODE &&
-                child.getNodeName().equals(childName)) {
-                return child;
+        ArrayDeque<Element> named = childrenOf(parent).get(childName);
+        return named != null ? named.peekFirst() : null;
+    }
+
+    /**
+     * Returns the children index of an element, building it on first use
+     */
+    private Map<String, ArrayDeque<Element>> childrenOf(Node parent) {
+        Map<String, ArrayDeque<Element>> children = childIndex.get(parent);
+        if (children == null) {
+            children = new HashMap<>();
+            for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    children.computeIfAbsent(child.getNodeName(), k -> new ArrayDeque<>()).addLast((Element) child);
+                }
             }
+            childIndex.put(parent, children);
         }
-        return null;
+        return children;
+    }
+
+    /**
+     * Appends an element to a parent and keeps the children index current
+     */
+    private Element appendChildElement(Node parent, Element child) {
+        parent.appendChild(child);
+        modified = true;
+        Map<String, ArrayDeque<Element>> children = childIndex.get(parent);
+        if (children != null)
+            children.computeIfAbsent(child.getNodeName(), k -> new ArrayDeque<>()).addLast(child);
+        return child;
+    }
+
+    /**
+     * Replaces the content of an element, its children index is dropped with its children
+     */
+    private void setTextContent(Node element, String value) {
+        if (hasOnlyText(element) && element.getTextContent().equals(value))
+            return;
+        childIndex.remove(element);
+        element.setTextContent(value);
+        modified = true;
     }
 
     /**
-     * Parses a path string into parts
+     * Sets attributes of an element, unchanged values are skipped
+     */
+    private void setAttributes(Element element, Map<String, String> attributes) {
+        for (Map.Entry<String, String> attr : attributes.entrySet()) {
+            if (!element.hasAttribute(attr.getKey()) || !element.getAttribute(attr.getKey()).equals(attr.getValue())) {
+                element.setAttribute(attr.getKey(), attr.getValue());
+                modified = true;
+            }
+        }
+    }
+
+    /**
+     * Checks whether an element contains nothing but text
+     */
+    private static boolean hasOnlyText(Node element) {
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() != Node.TEXT_NODE)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes indentation text nodes (blank and multi-line) between elements
+     */
+    private static void stripIndentation(Node parent) {
+        if (parent == null || hasOnlyText(parent))
+            return;
+        Node child = parent.getFirstChild();
+        while (child != null) {
+            Node next = child.getNextSibling();
+            if (child.getNodeType() == Node.TEXT_NODE && child.getNodeValue().isBlank() && child.getNodeValue().indexOf('\n') >= 0) {
+                parent.removeChild(child);
+            } else if (child.getNodeType() == Node.ELEMENT_NODE) {
+                stripIndentation(child);
+            }
+            child = next;
+        }
+    }
+
+    /**
+     * Parses a path string into parts, compiled paths are cached
      */
     private String[] parsePath(String path) {
+        return compiledPaths.computeIfAbsent(path, XMLEditor::splitPath);
+    }
+
+    /**
+     * Splits a path string into parts, ignoring leading and trailing slashes
+     */
+    static String[] splitPath(String path) {
         if (path == null || path.isEmpty()) {
             throw new IllegalArgumentException(Messages.getString("XMLEditor.EX_NULL_EMPTY_PATH")); //$NON-NLS-1$
         }
-
-        // Remove leading/trailing slashes and split
-        String cleanPath = path.replaceAll("^/+|/+$", ""); //$NON-NLS-1$ //$NON-NLS-2$
-        if (cleanPath.isEmpty()) {
+        int start = 0, end = path.length();
+        while (start < end && path.charAt(start) == '/') start++;
+        while (end > start && path.charAt(end - 1) == '/') end--;
+        if (start == end) {
             throw new IllegalArgumentException(Messages.getString("XMLEditor.EX_INVALID_PATH") + path); //$NON-NLS-1$
         }
+        return path.substring(start, end).split("/"); //$NON-NLS-1$
+    }
 
-        return cleanPath.split("/"); //$NON-NLS-1$
+    /**
+     * Returns the document builder of the calling thread
+     */
+    private static DocumentBuilder documentBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = BUILDERS.get();
+        if (builder == null) {
+            builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            BUILDERS.set(builder);
+        } else builder.reset();
+        return builder;
     }
 
     /**
-     * Returns the XML as a formatted string
+     * Returns the indenting transformer of the calling thread
      */
-    public String toString() {
-        try {
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
+    private static Transformer transformer() throws TransformerConfigurationException {
+        Transformer transformer = TRANSFORMERS.get();
+        if (transformer == null) {
+            transformer = TransformerFactory.newInstance().newTransformer();
             transformer.setOutputProperty(OutputKeys.INDENT, "yes"); //$NON-NLS-1$
             transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4"); //$NON-NLS-1$ //$NON-NLS-2$
             transformer.setOutputProperty(OutputKeys.STANDALONE, "no"); //$NON-NLS-1$
+            TRANSFORMERS.set(transformer);
+        }
+        return transformer;
+    }
 
+    /**
+     * Returns the XML as a formatted string
+     */
+    public String toString() {
+        try {
+            Transformer transformer = transformer();
             StringWriter writer = new StringWriter();
             transformer.transform(new DOMSource(document), new StreamResult(writer));
             return writer.toString();
@@ -342,4 +485,39 @@ public class XMLEditor {
 
         return children;
     }
-}
\ No newline at end of file
+
+    public static enum OpType { ADD, UPDATE, REMOVE; }
+
+    /**
+     * An update.cfg XML operation parsed once and applied to many files
+     * Value format: /root/child/leaf=value>attribute1=1>attribute2=2
+     */
+    public static record Operation(OpType type, String path, String value, Map<String, String> attributes) {
+
+        /**
+         * Parses an XML operation
+         * @param op The operation name: add, update or remove
+         * @param spec The operation value as found in the update.cfg file
+         * @return The parsed operation, null if the operation name is unknown
+         */
+        public static Operation parse(String op, String spec) {
+            if ("remove".equals(op)) { //$NON-NLS-1$
+                return new Operation(OpType.REMOVE, spec.trim(), null, Map.of());
+            } else if ("add".equals(op) || "update".equals(op)) { //$NON-NLS-1$ //$NON-NLS-2$
+                String[] parts = spec.split("=", 2); //$NON-NLS-1$
+                if (parts.length < 2)
+                    throw new IllegalArgumentException(Messages.getString("XMLEditor.EX_INVALID_PATH") + spec); //$NON-NLS-1$
+                String path = parts[0].trim();
+                parts = parts[1].split(">"); // Index 0 is the xml tag value, other parts is the xml attribute=value pairs //$NON-NLS-1$
+                Map<String, String> attributes = new LinkedHashMap<>();
+                for (int i = 1; i < parts.length; i++) {
+                    String[] attr = parts[i].split("=", 2); //$NON-NLS-1$
+                    attributes.put(attr[0].trim(), attr.length > 1 ? attr[1].trim() : ""); //$NON-NLS-1$
+                }
+                OpType type = "add".equals(op) ? OpType.ADD : OpType.UPDATE; //$NON-NLS-1$
+                return new Operation(type, path, parts[0].trim(), Collections.unmodifiableMap(attributes));
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,560 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import javax.xml.namespace.QName;
+import javax.xml.stream.*;
+import javax.xml.stream.events.*;
+
+import io.github.emmrida.chat4ussetup.util.XMLEditor.Operation;
+
+/**
+ * Streaming XML editor. Applies the same add/update/remove path operations as {@link XMLEditor}
+ * in a single StAX read/write pass, without loading the document in memory.
+ * The result is written to a temporary file which then replaces the original. The output is
+ * held in memory until the first change, so unchanged files are only read.
+ *
+ * Operations whose paths are nested in each other need random access and are not supported,
+ * use {@link #supports(List)} to fall back to {@link XMLEditor} for them.
+ */
+public class XMLStreamEditor {
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+    private static final XMLEventFactory EVENT_FACTORY = XMLEventFactory.newInstance();
+    private static final String INDENT = "    "; //$NON-NLS-1$
+    private static final int BUFFER_LIMIT = 8 * 1024 * 1024; // Output held in memory before the first change at most
+
+    private final List<Target> targets;
+
+    /**
+     * Constructs a streaming editor for a list of operations
+     * @param ops The operations, see {@link #supports(List)}
+     */
+    public XMLStreamEditor(List<Operation> ops) {
+        if (!supports(ops))
+            throw new IllegalArgumentException(Messages.getString("XMLStreamEditor.EX_UNSUPPORTED_OPERATIONS")); //$NON-NLS-1$
+        Map<String, Target> byPath = new LinkedHashMap<>();
+        for (Operation op : ops) {
+            String[] segments = XMLEditor.splitPath(op.path());
+            byPath.computeIfAbsent(String.join("/", segments), k -> new Target(segments, op.path())).ops.add(op); //$NON-NLS-1$
+        }
+        this.targets = List.copyOf(byPath.values());
+    }
+
+    /**
+     * Checks whether operations can be applied in one pass: every path must have at least
+     * two levels and no path may be an ancestor of another one. Operations on the same path are allowed.
+     * @param ops The operations to check
+     * @return true if the operations can be streamed
+     */
+    public static boolean supports(List<Operation> ops) {
+        List<String[]> paths = new ArrayList<>(ops.size());
+        for (Operation op : ops) {
+            String[] segments;
+            try {
+                segments = XMLEditor.splitPath(op.path());
+            } catch (IllegalArgumentException ex) {
+                return false;
+            }
+            if (segments.length < 2)
+                return false;
+            for (String[] other : paths) {
+                int n = Math.min(other.length, segments.length);
+                if (other.length != segments.length && Arrays.equals(other, 0, n, segments, 0, n))
+                    return false;
+            }
+            paths.add(segments);
+        }
+        return true;
+    }
+
+    /**
+     * Applies the operations to an XML file. The file is left untouched when no operation changes it.
+     * @param filePath The file to edit in place
+     * @return true if the file was rewritten
+     * @throws IOException If the file cannot be read or written
+     * @throws XMLStreamException If the file is not well formed XML
+     */
+    public boolean edit(String filePath) throws IOException, XMLStreamException {
+        Path file = Paths.get(filePath);
+        if (!Files.exists(file)) {
+            throw new IOException(Messages.getString("XMLEditor.EX_FILE_NFOUND") + filePath); //$NON-NLS-1$
+        }
+        DeferredOutput out = new DeferredOutput(file);
+        try {
+            boolean modified = pass(file, out);
+            if (modified && out.isDiscarded()) { // A large file changed once its start was dropped, edited again straight to disk
+                out = new DeferredOutput(file);
+                out.commit();
+                pass(file, out);
+            }
+            if (modified)
+                Helper.moveAtomically(out.getTempFile(), file);
+            return modified;
+        } finally {
+            out.deleteTempFile();
+        }
+    }
+
+    private boolean pass(Path file, DeferredOutput out) throws IOException, XMLStreamException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file)); out) {
+            return new Pass(in, out).run();
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        try { // Keep CDATA sections as they are when the implementation allows it
+            factory.setProperty("http://java.sun.com/xml/stream/properties/report-cdata-event", true); //$NON-NLS-1$
+        } catch (IllegalArgumentException ignored) { }
+        return factory;
+    }
+
+    private static String qualifiedName(QName name) {
+        return name.getPrefix().isEmpty() ? name.getLocalPart() : name.getPrefix() + ":" + name.getLocalPart(); //$NON-NLS-1$
+    }
+
+    // All the operations targeting one element path
+    private static class Target {
+        final String[] segments;
+        final String path;
+        final List<Operation> ops = new ArrayList<>();
+
+        Target(String[] segments, String path) {
+            this.segments = segments;
+            this.path = path;
+        }
+
+        /**
+         * Replays the operations in order, the way XMLEditor would apply them
+         * @param present Whether the element exists in the source document
+         */
+        Outcome resolve(boolean present) {
+            Outcome o = new Outcome();
+            boolean exists = present;
+            o.original = present;
+            for (Operation op : ops) {
+                switch (op.type()) {
+                    case ADD:
+                        if (!exists) {
+                            exists = true;
+                            o.original = false;
+                            o.textSet = op.value() != null && !op.value().isEmpty();
+                            o.text = op.value();
+                            o.attributes = new LinkedHashMap<>(op.attributes());
+                        } else {
+                            o.textSet = true;
+                            o.text = op.value() != null ? op.value() : ""; //$NON-NLS-1$
+                            o.attributes.putAll(op.attributes());
+                        }
+                        break;
+                    case UPDATE:
+                        if (!exists)
+                            throw new IllegalArgumentException(Messages.getString("XMLEditor.EX_ELEMENT_NFOUND") + path); //$NON-NLS-1$
+                        o.textSet = true;
+                        o.text = op.value();
+                        o.attributes.putAll(op.attributes());
+                        break;
+                    case REMOVE:
+                        if (!exists)
+                            throw new IllegalArgumentException(Messages.getString("XMLEditor.EX_ELEMENT_NFOUND") + path); //$NON-NLS-1$
+                        exists = false;
+                        o.original = false;
+                        o.textSet = false;
+                        o.text = null;
+                        o.attributes = new LinkedHashMap<>();
+                        break;
+                }
+            }
+            o.create = exists && !o.original;
+            return o;
+        }
+
+        boolean needsCreation() {
+            for (Operation op : ops)
+                if (op.type() == XMLEditor.OpType.ADD)
+                    return true;
+            return false;
+        }
+    }
+
+    // Final effect of a target's operations
+    private static class Outcome {
+        boolean original;  // Keep the source element in place
+        boolean create;    // Append a new element at the end of the parent
+        boolean textSet;
+        String text;
+        Map<String, String> attributes = new LinkedHashMap<>();
+    }
+
+    // An open element on the path of at least one target
+    private static class Frame {
+        final int depth;
+        final List<Target> candidates;
+        final Set<String> seenChildren = new HashSet<>();
+        final List<Target> recreated = new ArrayList<>();
+
+        Frame(int depth, List<Target> candidates) {
+            this.depth = depth;
+            this.candidates = candidates;
+        }
+    }
+
+    // Node of the tree of elements to create at the end of a parent
+    private static class NewNode {
+        final String name;
+        final Map<String, NewNode> children = new LinkedHashMap<>();
+        Outcome outcome;
+
+        NewNode(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Output of a pass, kept in memory until the pass finds a change and then written to
+     * a sibling temporary file. Past {@link #BUFFER_LIMIT} without change the output is
+     * dropped, the pass then only tells whether the file changes.
+     */
+    private static class DeferredOutput extends OutputStream {
+        private final Path file;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream tmpOut = null;
+        private Path tmp = null;
+        private boolean committed = false;
+        private boolean discarded = false;
+
+        DeferredOutput(Path file) {
+            this.file = file;
+        }
+
+        // The output goes to disk from the next write on
+        void commit() {
+            committed = true;
+        }
+
+        boolean isDiscarded() { return discarded; }
+
+        Path getTempFile() { return tmp; }
+
+        void deleteTempFile() throws IOException {
+            if (tmp != null)
+                Files.deleteIfExists(tmp);
+        }
+
+        private OutputStream target() throws IOException {
+            if (tmpOut == null && committed && !discarded) {
+                tmp = Helper.createSiblingTempFile(file);
+                tmpOut = new BufferedOutputStream(Files.newOutputStream(tmp));
+                if (buffer != null)
+                    buffer.writeTo(tmpOut);
+                buffer = null;
+            }
+            return tmpOut;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte)b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            OutputStream target = target();
+            if (target != null) {
+                target.write(b, off, len);
+            } else if (!discarded) {
+                buffer.write(b, off, len);
+                if (buffer.size() > BUFFER_LIMIT) {
+                    buffer = null;
+                    discarded = true;
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (tmpOut != null)
+                tmpOut.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            OutputStream target = target();
+            if (target != null)
+                target.close();
+        }
+    }
+
+    // State of one read/write pass, editors may be shared between threads
+    private class Pass {
+        private final XMLEventReader reader;
+        private final DeferredOutput out;
+        private XMLEventWriter writer;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private final Set<Target> resolved = new HashSet<>();
+        private final StringBuilder pendingSpace = new StringBuilder();
+        private String newLine = "\n"; //$NON-NLS-1$
+        private int depth = 0;
+        private int offChainDepth = 0; // Depth inside an element no target goes through
+        private boolean prologWritten = false;
+        private String rootName = null;
+        private boolean modified = false;
+
+        Pass(InputStream in, DeferredOutput out) throws XMLStreamException {
+            this.reader = INPUT_FACTORY.createXMLEventReader(in);
+            this.out = out;
+        }
+
+        boolean run() throws XMLStreamException {
+            while (reader.hasNext()) {
+                XMLEvent event = reader.nextEvent();
+                if (event.isStartDocument()) {
+                    String encoding = ((StartDocument)event).getCharacterEncodingScheme();
+                    writer = OUTPUT_FACTORY.createXMLEventWriter(out, encoding != null ? encoding : "UTF-8"); //$NON-NLS-1$
+                    writer.add(event);
+                    prologWritten = true;
+                    continue;
+                }
+                if (writer == null)
+                    writer = OUTPUT_FACTORY.createXMLEventWriter(out, "UTF-8"); //$NON-NLS-1$
+                if (event.isCharacters() && ((Characters)event).isWhiteSpace() && !((Characters)event).isCData()) {
+                    pendingSpace.append(((Characters)event).getData());
+                    continue;
+                }
+                if (depth == 0 && !event.isEndDocument()) {
+                    if (prologWritten && pendingSpace.length() == 0)
+                        pendingSpace.append(newLine);
+                    prologWritten = true;
+                }
+                if (event.isEndDocument() && prologWritten && pendingSpace.length() == 0)
+                    pendingSpace.append(newLine);
+                if (event.isStartElement()) {
+                    onStart(event.asStartElement());
+                } else if (event.isEndElement()) {
+                    onEnd(event.asEndElement());
+                } else {
+                    flushSpace();
+                    writer.add(event);
+                }
+            }
+            if (writer != null) {
+                flushSpace();
+                writer.flush();
+                writer.close();
+            }
+            for (Target target : targets)
+                if (!resolved.contains(target))
+                    resolveAbsent(target);
+            return modified;
+        }
+
+        private void onStart(StartElement start) throws XMLStreamException {
+            String name = qualifiedName(start.getName());
+            if (offChainDepth > 0 || (depth > 0 && frames.isEmpty())) {
+                offChainDepth++;
+                copyStart(start);
+                return;
+            }
+            if (depth == 0) {
+                rootName = name;
+                List<Target> candidates = new ArrayList<>();
+                for (Target target : targets) {
+                    if (target.segments[0].equals(name)) {
+                        candidates.add(target);
+                    } else resolveAbsent(target);
+                }
+                if (candidates.isEmpty()) {
+                    offChainDepth++;
+                } else frames.push(new Frame(0, candidates));
+                copyStart(start);
+                return;
+            }
+            Frame parent = frames.peek();
+            if (!parent.seenChildren.add(name)) {
+                offChainDepth++;
+                copyStart(start);
+                return;
+            }
+            int level = parent.depth + 1;
+            List<Target> candidates = new ArrayList<>();
+            for (Target target : parent.candidates)
+                if (target.segments[level].equals(name))
+                    candidates.add(target);
+            if (candidates.isEmpty()) {
+                offChainDepth++;
+                copyStart(start);
+            } else if (candidates.size() == 1 && candidates.get(0).segments.length == level + 1) {
+                editTarget(candidates.get(0), start, parent);
+            } else {
+                frames.push(new Frame(level, candidates));
+                copyStart(start);
+            }
+        }
+
+        private void onEnd(EndElement end) throws XMLStreamException {
+            if (offChainDepth > 0) {
+                offChainDepth--;
+                copyEnd(end);
+                return;
+            }
+            Frame frame = frames.pop();
+            NewNode root = new NewNode(null);
+            for (Target target : frame.recreated)
+                addNewNode(root, target, frame.depth, target.resolve(true));
+            for (Target target : frame.candidates) {
+                if (resolved.add(target)) {
+                    Outcome outcome = target.resolve(false);
+                    if (outcome.create)
+                        addNewNode(root, target, frame.depth, outcome);
+                }
+            }
+            if (!root.children.isEmpty()) {
+                setModified();
+                String closingSpace = pendingSpace.toString();
+                pendingSpace.setLength(0);
+                for (NewNode node : root.children.values())
+                    writeNewNode(node, frame.depth + 1);
+                pendingSpace.append(closingSpace.isEmpty() ? newLine + INDENT.repeat(frame.depth) : closingSpace);
+            }
+            copyEnd(end);
+        }
+
+        /**
+         * Writes the target element with its operations applied, or skips it when removed
+         */
+        private void editTarget(Target target, StartElement start, Frame parent) throws XMLStreamException {
+            resolved.add(target);
+            Outcome outcome = target.resolve(true);
+            if (outcome.create)
+                parent.recreated.add(target);
+            if (!outcome.original) {
+                setModified();
+                pendingSpace.setLength(0); // Drop the indentation of the removed element
+                skipContent();
+                return;
+            }
+            flushSpace();
+            writer.add(withAttributes(start, outcome.attributes));
+            depth++;
+            if (outcome.textSet) {
+                String text = skipContent();
+                if (text == null || !text.equals(outcome.text != null ? outcome.text : "")) //$NON-NLS-1$
+                    setModified();
+                if (outcome.text != null && !outcome.text.isEmpty())
+                    writer.add(EVENT_FACTORY.createCharacters(outcome.text));
+                writer.add(EVENT_FACTORY.createEndElement(start.getName(), null));
+                depth--;
+            } else offChainDepth++; // Copy the content unchanged
+        }
+
+        private void setModified() {
+            modified = true;
+            out.commit();
+        }
+
+        private void resolveAbsent(Target target) {
+            if (resolved.add(target)) {
+                Outcome outcome = target.resolve(false);
+                if (outcome.create || target.needsCreation())
+                    throw new IllegalArgumentException(Messages.format("XMLEditor.EX_ROOT_ELEMENT_MISMATCH", rootName, target.segments[0])); //$NON-NLS-1$
+            }
+        }
+
+        private void addNewNode(NewNode root, Target target, int parentDepth, Outcome outcome) {
+            NewNode node = root;
+            for (int i = parentDepth + 1; i < target.segments.length; i++)
+                node = node.children.computeIfAbsent(target.segments[i], NewNode::new);
+            node.outcome = outcome;
+        }
+
+        private void writeNewNode(NewNode node, int level) throws XMLStreamException {
+            writer.add(EVENT_FACTORY.createCharacters(newLine + INDENT.repeat(level)));
+            List<Attribute> attributes = new ArrayList<>();
+            if (node.outcome != null)
+                for (Map.Entry<String, String> attr : node.outcome.attributes.entrySet())
+                    attributes.add(EVENT_FACTORY.createAttribute(attr.getKey(), attr.getValue()));
+            QName name = new QName(node.name);
+            writer.add(EVENT_FACTORY.createStartElement(name, attributes.iterator(), null));
+            if (!node.children.isEmpty()) {
+                for (NewNode child : node.children.values())
+                    writeNewNode(child, level + 1);
+                writer.add(EVENT_FACTORY.createCharacters(newLine + INDENT.repeat(level)));
+            } else if (node.outcome != null && node.outcome.textSet && node.outcome.text != null) {
+                writer.add(EVENT_FACTORY.createCharacters(node.outcome.text));
+            }
+            writer.add(EVENT_FACTORY.createEndElement(name, null));
+        }
+
+        private StartElement withAttributes(StartElement start, Map<String, String> updates) {
+            if (updates.isEmpty())
+                return start;
+            Map<String, String> remaining = new LinkedHashMap<>(updates);
+            List<Attribute> attributes = new ArrayList<>();
+            for (Iterator<Attribute> it = start.getAttributes(); it.hasNext(); ) {
+                Attribute attr = it.next();
+                String value = remaining.remove(qualifiedName(attr.getName()));
+                if (value != null && !value.equals(attr.getValue())) {
+                    attributes.add(EVENT_FACTORY.createAttribute(attr.getName(), value));
+                    setModified();
+                } else attributes.add(attr);
+            }
+            for (Map.Entry<String, String> attr : remaining.entrySet()) {
+                attributes.add(EVENT_FACTORY.createAttribute(attr.getKey(), attr.getValue()));
+                setModified();
+            }
+            return EVENT_FACTORY.createStartElement(start.getName(), attributes.iterator(), start.getNamespaces());
+        }
+
+        /**
+         * Skips events up to and including the end tag of the current element
+         * @return The skipped text when the element contained nothing else, null otherwise
+         */
+        private String skipContent() throws XMLStreamException {
+            StringBuilder text = new StringBuilder();
+            boolean textOnly = true;
+            int level = 1;
+            while (level > 0) {
+                XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    level++;
+                    textOnly = false;
+                } else if (event.isEndElement()) {
+                    level--;
+                } else if (event.isCharacters() && !((Characters)event).isCData()) {
+                    if (textOnly)
+                        text.append(((Characters)event).getData());
+                } else textOnly = false;
+            }
+            return textOnly ? text.toString() : null;
+        }
+
+        private void copyStart(StartElement start) throws XMLStreamException {
+            flushSpace();
+            writer.add(start);
+            depth++;
+        }
+
+        private void copyEnd(EndElement end) throws XMLStreamException {
+            flushSpace();
+            writer.add(end);
+            depth--;
+        }
+
+        private void flushSpace() throws XMLStreamException {
+            if (pendingSpace.length() > 0) {
+                if (pendingSpace.indexOf("\r\n") >= 0) //$NON-NLS-1$
+                    newLine = "\r\n"; //$NON-NLS-1$
+                writer.add(EVENT_FACTORY.createCharacters(pendingSpace.toString()));
+                pendingSpace.setLength(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.util;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Minimal in-memory decoder for .xz data compressed with the LZMA2 filter alone, which
+ * is what dpkg-deb and xz produce by default. It is meant for small members such as
+ * the control.tar.xz of a Debian package: the whole output is kept in memory and is
+ * also the LZMA dictionary. The CRC32 of the stream and block headers and the check of
+ * each block (CRC32, CRC64 or SHA-256) are verified, the index is skipped.
+ */
+public final class XzDecoder {
+    private static final byte[] STREAM_MAGIC = { (byte)0xFD, '7', 'z', 'X', 'Z', 0 };
+    private static final int[] CHECK_SIZES = { 0, 4, 4, 4, 8, 8, 8, 16, 16, 16, 32, 32, 32, 64, 64, 64 };
+    private static final long LZMA2_FILTER = 0x21;
+    private static final int CHECK_NONE = 0x00;
+    private static final int CHECK_CRC32 = 0x01;
+    private static final int CHECK_CRC64 = 0x04;
+    private static final int CHECK_SHA256 = 0x0A;
+    // ECMA-182 polynomial, reflected as in xz
+    private static final long[] CRC64_TABLE = new long[256];
+
+    static {
+        for (int i = 0; i < CRC64_TABLE.length; i++) {
+            long crc = i;
+            for (int bit = 0; bit < 8; bit++)
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xC96C5795D7870F42L : crc >>> 1;
+            CRC64_TABLE[i] = crc;
+        }
+    }
+
+    private static final int STATES = 12;
+    private static final int POS_STATES_MAX = 16;
+    private static final int MATCH_LEN_MIN = 2;
+    private static final int DIST_STATES = 4;
+    private static final int DIST_MODEL_START = 4;
+    private static final int DIST_MODEL_END = 14;
+    private static final int ALIGN_BITS = 4;
+
+    private final byte[] in;
+    private final int maxOutput;
+    private int inPos;
+
+    // Output, also the dictionary
+    private byte[] out = new byte[64 * 1024];
+    private int outSize = 0;
+    private int dictStart = 0;
+
+    // Range decoder
+    private int range;
+    private int code;
+    private int rcEnd;
+
+    // LZMA state
+    private int lc, lp, pb;
+    private int state;
+    private int rep0, rep1, rep2, rep3;
+    private final short[][] isMatch = new short[STATES][POS_STATES_MAX];
+    private final short[] isRep = new short[STATES];
+    private final short[] isRep0 = new short[STATES];
+    private final short[] isRep1 = new short[STATES];
+    private final short[] isRep2 = new short[STATES];
+    private final short[][] isRep0Long = new short[STATES][POS_STATES_MAX];
+    private final short[][] distSlots = new short[DIST_STATES][64];
+    private final short[][] distSpecial = new short[DIST_MODEL_END - DIST_MODEL_START][];
+    private final short[] distAlign = new short[1 << ALIGN_BITS];
+    private final LengthDecoder matchLen = new LengthDecoder();
+    private final LengthDecoder repLen = new LengthDecoder();
+    private short[][] literals = null;
+
+    // Decodes match and repeated match lengths
+    private class LengthDecoder {
+        final short[] choice = new short[2];
+        final short[][] low = new short[POS_STATES_MAX][8];
+        final short[][] mid = new short[POS_STATES_MAX][8];
+        final short[] high = new short[256];
+
+        void reset() {
+            Arrays.fill(choice, (short)1024);
+            for (short[] probs : low) Arrays.fill(probs, (short)1024);
+            for (short[] probs : mid) Arrays.fill(probs, (short)1024);
+            Arrays.fill(high, (short)1024);
+        }
+
+        int decode(int posState) throws IOException {
+            if (decodeBit(choice, 0) == 0)
+                return decodeBitTree(low[posState]) + MATCH_LEN_MIN;
+            if (decodeBit(choice, 1) == 0)
+                return decodeBitTree(mid[posState]) + MATCH_LEN_MIN + 8;
+            return decodeBitTree(high) + MATCH_LEN_MIN + 16;
+        }
+    }
+
+    private XzDecoder(byte[] in, int maxOutput) {
+        this.in = in;
+        this.maxOutput = maxOutput;
+        for (int i = 0; i < distSpecial.length; i++)
+            distSpecial[i] = new short[1 << (((i + DIST_MODEL_START) >>> 1) - 1)];
+    }
+
+    /**
+     * Decompresses the first stream of .xz data
+     * @param xz The compressed data
+     * @param maxOutput The largest output accepted
+     * @return The decompressed data
+     * @throws IOException If the data is corrupt, too large or uses another filter than LZMA2
+     */
+    public static byte[] decode(byte[] xz, int maxOutput) throws IOException {
+        try {
+            return new XzDecoder(xz, maxOutput).decodeStream();
+        } catch (ArrayIndexOutOfBoundsException ex) {
+            throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+        }
+    }
+
+    private byte[] decodeStream() throws IOException {
+        if (in.length < 12 || !Arrays.equals(Arrays.copyOf(in, STREAM_MAGIC.length), STREAM_MAGIC)
+                || in[6] != 0 || (in[7] & 0xF0) != 0)
+            throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+        if (crc32(6, 2) != readInt32(8))
+            throw new IOException(Messages.getString("XzDecoder.EX_CHECK_MISMATCH")); //$NON-NLS-1$
+        int checkType = in[7] & 0x0F;
+        int checkSize = CHECK_SIZES[checkType];
+        inPos = 12;
+        // Blocks until the index
+        while (in[inPos] != 0) {
+            int blockStart = inPos;
+            int headerSize = ((in[inPos] & 0xFF) + 1) * 4;
+            if (crc32(blockStart, headerSize - 4) != readInt32(blockStart + headerSize - 4))
+                throw new IOException(Messages.getString("XzDecoder.EX_CHECK_MISMATCH")); //$NON-NLS-1$
+            int flags = in[inPos + 1] & 0xFF;
+            inPos += 2;
+            if ((flags & 0x40) != 0) readVli(); // Compressed size
+            if ((flags & 0x80) != 0) readVli(); // Uncompressed size
+            if ((flags & 0x03) != 0 || readVli() != LZMA2_FILTER)
+                throw new IOException(Messages.getString("XzDecoder.EX_UNSUPPORTED_FILTER")); //$NON-NLS-1$
+            if (readVli() != 1)
+                throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+            int dictBits = in[inPos] & 0x3F;
+            if (dictBits > 40)
+                throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+            inPos = blockStart + headerSize;
+            int outStart = outSize;
+            decodeLzma2();
+            for (int padding = (4 - ((inPos - blockStart) & 3)) & 3; padding > 0; padding--)
+                if (in[inPos++] != 0)
+                    throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+            verifyCheck(checkType, outStart);
+            inPos += checkSize;
+        }
+        return Arrays.copyOf(out, outSize);
+    }
+
+    // Compares the check stored after a block with the one of its output, unknown check types are skipped
+    private void verifyCheck(int checkType, int outStart) throws IOException {
+        if (inPos + CHECK_SIZES[checkType] > in.length)
+            throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+        byte[] expected = Arrays.copyOfRange(in, inPos, inPos + CHECK_SIZES[checkType]);
+        byte[] actual;
+        switch (checkType) {
+        case CHECK_NONE:
+            return;
+        case CHECK_CRC32:
+            CRC32 crc = new CRC32();
+            crc.update(out, outStart, outSize - outStart);
+            actual = littleEndian(crc.getValue(), 4);
+            break;
+        case CHECK_CRC64:
+            long crc64 = -1;
+            for (int i = outStart; i < outSize; i++)
+                crc64 = CRC64_TABLE[(int)(crc64 ^ out[i]) & 0xFF] ^ (crc64 >>> 8);
+            actual = littleEndian(~crc64, 8);
+            break;
+        case CHECK_SHA256:
+            try {
+                MessageDigest sha256 = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+                sha256.update(out, outStart, outSize - outStart);
+                actual = sha256.digest();
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IOException(ex.getMessage(), ex);
+            }
+            break;
+        default:
+            return;
+        }
+        if (!Arrays.equals(expected, actual))
+            throw new IOException(Messages.getString("XzDecoder.EX_CHECK_MISMATCH")); //$NON-NLS-1$
+    }
+
+    private long crc32(int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(in, offset, length);
+        return crc.getValue();
+    }
+
+    private long readInt32(int offset) {
+        return (in[offset] & 0xFFL) | (in[offset + 1] & 0xFFL) << 8 | (in[offset + 2] & 0xFFL) << 16 | (in[offset + 3] & 0xFFL) << 24;
+    }
+
+    private static byte[] littleEndian(long value, int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++)
+            bytes[i] = (byte)(value >>> (8 * i));
+        return bytes;
+    }
+
+    private long readVli() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 63; shift += 7) {
+            int b = in[inPos++] & 0xFF;
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+    }
+
+    // LZMA2 chunks of a block
+    private void decodeLzma2() throws IOException {
+        boolean needDictReset = true;
+        boolean needProps = true;
+        for (;;) {
+            int control = in[inPos++] & 0xFF;
+            if (control == 0x00)
+                return;
+            if (control == 0x01 || control >= 0xE0) {
+                dictStart = outSize;
+                needDictReset = false;
+            } else if (needDictReset) {
+                throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+            }
+
+            if (control < 0x80) {
+                // Uncompressed chunk
+                if (control > 0x02)
+                    throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+                int size = (((in[inPos] & 0xFF) << 8) | (in[inPos + 1] & 0xFF)) + 1;
+                inPos += 2;
+                ensureCapacity(size);
+                System.arraycopy(in, inPos, out, outSize, size);
+                outSize += size;
+                inPos += size;
+                continue;
+            }
+
+            int uncompressed = ((control & 0x1F) << 16) + (((in[inPos] & 0xFF) << 8) | (in[inPos + 1] & 0xFF)) + 1;
+            int compressed = (((in[inPos + 2] & 0xFF) << 8) | (in[inPos + 3] & 0xFF)) + 1;
+            inPos += 4;
+            int reset = (control >>> 5) & 0x03;
+            if (reset >= 2) {
+                setProperties(in[inPos++] & 0xFF);
+                needProps = false;
+            } else if (needProps) {
+                throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+            }
+            if (reset >= 1)
+                resetState();
+
+            int chunkEnd = inPos + compressed;
+            initRangeDecoder(chunkEnd);
+            ensureCapacity(uncompressed);
+            decodeLzma(outSize + uncompressed);
+            inPos = chunkEnd;
+        }
+    }
+
+    private void setProperties(int props) throws IOException {
+        if (props >= 9 * 5 * 5)
+            throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+        pb = props / (9 * 5);
+        props -= pb * 9 * 5;
+        lp = props / 9;
+        lc = props - lp * 9;
+        if (lc + lp > 4)
+            throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+        literals = new short[1 << (lc + lp)][0x300];
+    }
+
+    private void resetState() {
+        state = 0;
+        rep0 = rep1 = rep2 = rep3 = 0;
+        for (short[] probs : isMatch) Arrays.fill(probs, (short)1024);
+        Arrays.fill(isRep, (short)1024);
+        Arrays.fill(isRep0, (short)1024);
+        Arrays.fill(isRep1, (short)1024);
+        Arrays.fill(isRep2, (short)1024);
+        for (short[] probs : isRep0Long) Arrays.fill(probs, (short)1024);
+        for (short[] probs : distSlots) Arrays.fill(probs, (short)1024);
+        for (short[] probs : distSpecial) Arrays.fill(probs, (short)1024);
+        Arrays.fill(distAlign, (short)1024);
+        for (short[] probs : literals) Arrays.fill(probs, (short)1024);
+        matchLen.reset();
+        repLen.reset();
+    }
+
+    private void ensureCapacity(int more) throws IOException {
+        if (outSize + (long)more > maxOutput)
+            throw new IOException(Messages.getString("XzDecoder.EX_OUTPUT_TOO_LARGE") + maxOutput); //$NON-NLS-1$
+        if (outSize + more > out.length)
+            out = Arrays.copyOf(out, (int)Math.min(maxOutput, Math.max(out.length * 2L, outSize + (long)more)));
+    }
+
+    // LZMA data of one chunk
+    private void decodeLzma(int end) throws IOException {
+        int pbMask = (1 << pb) - 1;
+        while (outSize < end) {
+            int posState = (outSize - dictStart) & pbMask;
+            if (decodeBit(isMatch[state], posState) == 0) {
+                decodeLiteral();
+                continue;
+            }
+            int len = decodeBit(isRep, state) == 0 ? decodeMatch(posState) : decodeRepMatch(posState);
+            if (rep0 < 0 || rep0 >= outSize - dictStart || outSize + len > end)
+                throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+            for (int from = outSize - rep0 - 1; len > 0; len--)
+                out[outSize++] = out[from++];
+        }
+    }
+
+    private void decodeLiteral() throws IOException {
+        int pos = outSize - dictStart;
+        int prevByte = pos > 0 ? out[outSize - 1] & 0xFF : 0;
+        short[] probs = literals[((pos & ((1 << lp) - 1)) << lc) + (prevByte >>> (8 - lc))];
+        int symbol = 1;
+        if (state < 7) {
+            do {
+                symbol = (symbol << 1) | decodeBit(probs, symbol);
+            } while (symbol < 0x100);
+        } else {
+            int matchByte = out[outSize - rep0 - 1] & 0xFF;
+            int offset = 0x100;
+            do {
+                matchByte <<= 1;
+                int matchBit = matchByte & offset;
+                int bit = decodeBit(probs, offset + matchBit + symbol);
+                symbol = (symbol << 1) | bit;
+                offset &= (0 - bit) ^ ~matchBit;
+            } while (symbol < 0x100);
+        }
+        out[outSize++] = (byte)symbol;
+        state = state < 4 ? 0 : state < 10 ? state - 3 : state - 6;
+    }
+
+    private int decodeMatch(int posState) throws IOException {
+        state = state < 7 ? 7 : 10;
+        rep3 = rep2;
+        rep2 = rep1;
+        rep1 = rep0;
+        int len = matchLen.decode(posState);
+        int distSlot = decodeBitTree(distSlots[Math.min(len - MATCH_LEN_MIN, DIST_STATES - 1)]);
+        if (distSlot < DIST_MODEL_START) {
+            rep0 = distSlot;
+        } else {
+            int limit = (distSlot >>> 1) - 1;
+            rep0 = (2 | (distSlot & 1)) << limit;
+            if (distSlot < DIST_MODEL_END) {
+                rep0 |= decodeReverseBitTree(distSpecial[distSlot - DIST_MODEL_START]);
+            } else {
+                rep0 |= decodeDirectBits(limit - ALIGN_BITS) << ALIGN_BITS;
+                rep0 |= decodeReverseBitTree(distAlign);
+            }
+        }
+        return len;
+    }
+
+    private int decodeRepMatch(int posState) throws IOException {
+        if (decodeBit(isRep0, state) == 0) {
+            if (decodeBit(isRep0Long[state], posState) == 0) {
+                state = state < 7 ? 9 : 11; // Short rep, one byte
+                return 1;
+            }
+        } else {
+            int distance;
+            if (decodeBit(isRep1, state) == 0) {
+                distance = rep1;
+            } else {
+                if (decodeBit(isRep2, state) == 0) {
+                    distance = rep2;
+                } else {
+                    distance = rep3;
+                    rep3 = rep2;
+                }
+                rep2 = rep1;
+            }
+            rep1 = rep0;
+            rep0 = distance;
+        }
+        state = state < 7 ? 8 : 11;
+        return repLen.decode(posState);
+    }
+
+    private void initRangeDecoder(int end) throws IOException {
+        rcEnd = end;
+        if (end - inPos < 5 || in[inPos] != 0)
+            throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+        range = 0xFFFFFFFF;
+        code = 0;
+        for (int i = 1; i <= 4; i++)
+            code = (code << 8) | (in[inPos + i] & 0xFF);
+        inPos += 5;
+    }
+
+    private void normalize() throws IOException {
+        if ((range & 0xFF000000) == 0) {
+            if (inPos >= rcEnd)
+                throw new IOException(Messages.getString("XzDecoder.EX_CORRUPT_DATA")); //$NON-NLS-1$
+            range <<= 8;
+            code = (code << 8) | (in[inPos++] & 0xFF);
+        }
+    }
+
+    private int decodeBit(short[] probs, int index) throws IOException {
+        normalize();
+        int prob = probs[index];
+        int bound = (range >>> 11) * prob;
+        if (Integer.compareUnsigned(code, bound) < 0) {
+            range = bound;
+            probs[index] = (short)(prob + ((2048 - prob) >>> 5));
+            return 0;
+        }
+        range -= bound;
+        code -= bound;
+        probs[index] = (short)(prob - (prob >>> 5));
+        return 1;
+    }
+
+    private int decodeBitTree(short[] probs) throws IOException {
+        int symbol = 1;
+        do {
+            symbol = (symbol << 1) | decodeBit(probs, symbol);
+        } while (symbol < probs.length);
+        return symbol - probs.length;
+    }
+
+    private int decodeReverseBitTree(short[] probs) throws IOException {
+        int symbol = 1;
+        int result = 0;
+        for (int i = 0; symbol < probs.length; i++) {
+            int bit = decodeBit(probs, symbol);
+            symbol = (symbol << 1) | bit;
+            result |= bit << i;
+        }
+        return result;
+    }
+
+    private int decodeDirectBits(int count) throws IOException {
+        int result = 0;
+        for (; count > 0; count--) {
+            normalize();
+            range >>>= 1;
+            int t = (code - range) >>> 31;
+            code -= range & (t - 1);
+            result = (result << 1) | (1 - t);
+        }
+        return result;
+    }
+}
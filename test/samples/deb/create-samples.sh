@@ -0,0 +1,41 @@
+#!/bin/sh
+# Writes the Debian package samples of this folder, needs dpkg-deb, ar, tar and xz.
+# The samples are checked in, run it again only to change them: sh create-samples.sh
+set -e
+cd "$(dirname "$0")"
+export SOURCE_DATE_EPOCH=1760832000
+work=$(mktemp -d)
+trap 'rm -rf "$work"' EXIT
+
+# package <folder> <version>
+package() {
+    mkdir -p "$work/$1/DEBIAN" "$work/$1/usr/share/doc/chat4us-sample"
+    cat > "$work/$1/DEBIAN/control" <<CONTROL
+Package: chat4us-sample
+Version: $2
+Architecture: all
+Maintainer: Chat4Us <chat4us@example.com>
+Description: Chat4Us setup sample package
+ Sample package used to check the Debian version reader of the setup.
+CONTROL
+    echo "Chat4Us setup sample" > "$work/$1/usr/share/doc/chat4us-sample/README"
+}
+
+package gz 1:2.4.1-3
+dpkg-deb --root-owner-group -Zgzip -b "$work/gz" sample-gz.deb
+package xz 2.4.1-3
+dpkg-deb --root-owner-group -Zxz -b "$work/xz" sample-xz.deb
+package none 0.9.0
+dpkg-deb --root-owner-group -Znone -b "$work/none" sample-none.deb
+
+# dpkg-deb always writes a CRC64 check, the other xz checks are assembled by hand
+for check in crc32 sha256; do
+    package "$check" "3.0.$check"
+    (cd "$work/$check/DEBIAN" && tar --mtime=@$SOURCE_DATE_EPOCH --owner=0 --group=0 --numeric-owner -cf ../../control-$check.tar ./control)
+    xz --check=$check -c "$work/control-$check.tar" > "$work/control.tar.xz"
+    (cd "$work/$check" && tar --mtime=@$SOURCE_DATE_EPOCH --owner=0 --group=0 --numeric-owner -cf - ./usr) | xz --check=$check -c > "$work/data.tar.xz"
+    printf '2.0\n' > "$work/debian-binary"
+    rm -f "sample-xz-$check.deb"
+    (cd "$work" && ar rcD "$OLDPWD/sample-xz-$check.deb" debian-binary control.tar.xz data.tar.xz)
+done
+ls -l *.deb
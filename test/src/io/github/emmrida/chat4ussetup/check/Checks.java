@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.check;
+
+import java.util.Objects;
+
+/**
+ * Expectations of a check run, each one printed as it is verified. The run exits
+ * with the number of failed expectations, so the ant build fails on the first bad run.
+ */
+final class Checks {
+    // Code of an expectation that should throw
+    @FunctionalInterface
+    static interface Action {
+        void run() throws Exception;
+    }
+
+    private final String name;
+    private int passed = 0;
+    private int failed = 0;
+
+    Checks(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Verifies a value
+     * @param what The expectation, as printed
+     * @param expected The expected value
+     * @param actual The value found
+     */
+    void expect(String what, Object expected, Object actual) {
+        if (Objects.equals(expected, actual)) {
+            passed++;
+            System.out.println("ok    " + what); //$NON-NLS-1$
+        } else {
+            failed++;
+            System.out.println("FAIL  " + what + ": expected <" + expected + "> but was <" + actual + ">"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        }
+    }
+
+    /**
+     * Verifies that an action fails
+     * @param what The expectation, as printed
+     * @param type The exception expected
+     * @param action The action
+     */
+    void expectThrows(String what, Class<? extends Throwable> type, Action action) {
+        try {
+            action.run();
+            expect(what, type.getSimpleName(), "no exception"); //$NON-NLS-1$
+        } catch (Throwable ex) {
+            expect(what, type.getSimpleName(), type.isInstance(ex) ? type.getSimpleName() : ex.toString());
+        }
+    }
+
+    /**
+     * Prints the summary and exits with the number of failures
+     */
+    void exit() {
+        System.out.println(name + ": " + passed + " passed, " + failed + " failed"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        System.exit(Math.min(failed, 125));
+    }
+}
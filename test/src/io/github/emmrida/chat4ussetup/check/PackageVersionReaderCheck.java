@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.check;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import io.github.emmrida.chat4ussetup.util.CrossPlatformVersionReader;
+import io.github.emmrida.chat4ussetup.util.Helper;
+import io.github.emmrida.chat4ussetup.util.PackageVersionReader;
+
+/**
+ * PackageVersionReader and XzDecoder on the Debian packages of test/samples/deb, with
+ * control members stored plain, gzipped and xz compressed with a CRC32, CRC64 or SHA-256
+ * check. Copies of the xz samples with a damaged check or header must be rejected.
+ * The RPM packages of test/samples/rpm are read the same way, see RpmSamples.
+ */
+public final class PackageVersionReaderCheck {
+    private static final int[] CHECK_SIZES = { 0, 4, 4, 4, 8, 8, 8, 16, 16, 16, 32, 32, 32, 64, 64, 64 };
+
+    private PackageVersionReaderCheck() { }
+
+    public static void main(String[] args) throws IOException {
+        Path samples = Paths.get(args.length > 0 ? args[0] : "test/samples").resolve("deb"); //$NON-NLS-1$ //$NON-NLS-2$
+        Path rpms = samples.resolveSibling("rpm"); //$NON-NLS-1$
+        Checks checks = new Checks("PackageVersionReader"); //$NON-NLS-1$
+
+        checks.expect("plain control.tar", "0.9.0", PackageVersionReader.readDebVersion(samples.resolve("sample-none.deb"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checks.expect("control.tar.gz with an epoch", "1:2.4.1-3", PackageVersionReader.readDebVersion(samples.resolve("sample-gz.deb"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checks.expect("control.tar.xz, CRC64", "2.4.1-3", PackageVersionReader.readDebVersion(samples.resolve("sample-xz.deb"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checks.expect("control.tar.xz, CRC32", "3.0.crc32", PackageVersionReader.readDebVersion(samples.resolve("sample-xz-crc32.deb"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checks.expect("control.tar.xz, SHA-256", "3.0.sha256", PackageVersionReader.readDebVersion(samples.resolve("sample-xz-sha256.deb"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checks.expect("extractVersion", "2.4.1-3", CrossPlatformVersionReader.extractVersion(samples.resolve("sample-xz.deb").toString())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        checks.expect("rpm with an epoch", "2:1.4.0-3.el9", PackageVersionReader.readRpmVersion(rpms.resolve("sample-epoch.rpm"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checks.expect("rpm without epoch", "0.9.1-1", PackageVersionReader.readRpmVersion(rpms.resolve("sample-noepoch.rpm"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checks.expect("rpm extractVersion", "2:1.4.0-3.el9", CrossPlatformVersionReader.extractVersion(rpms.resolve("sample-epoch.rpm").toString())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checks.expectThrows("truncated rpm", IOException.class, () -> PackageVersionReader.readRpmVersion(rpms.resolve("sample-truncated.rpm"))); //$NON-NLS-1$ //$NON-NLS-2$
+        checks.expectThrows("rpm with a bad lead magic", IOException.class, () -> PackageVersionReader.readRpmVersion(rpms.resolve("sample-badmagic.rpm"))); //$NON-NLS-1$ //$NON-NLS-2$
+        checks.expectThrows("Debian package read as rpm", IOException.class, () -> PackageVersionReader.readRpmVersion(samples.resolve("sample-gz.deb"))); //$NON-NLS-1$ //$NON-NLS-2$
+
+        Path temp = Files.createTempDirectory("chat4us-check-deb-"); //$NON-NLS-1$
+        try {
+            for (String sample : new String[] { "sample-xz.deb", "sample-xz-crc32.deb", "sample-xz-sha256.deb" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                byte[] deb = Files.readAllBytes(samples.resolve(sample));
+                int xz = controlMember(deb);
+                byte[] damaged = deb.clone();
+                damaged[blockCheck(deb, xz)] ^= 0x01;
+                Path file = Files.write(temp.resolve("check-" + sample), damaged); //$NON-NLS-1$
+                checks.expectThrows(sample + " with a damaged block check", IOException.class, () -> PackageVersionReader.readDebVersion(file)); //$NON-NLS-1$
+                damaged = deb.clone();
+                damaged[xz + 8] ^= 0x01; // Stream header CRC32
+                Path header = Files.write(temp.resolve("header-" + sample), damaged); //$NON-NLS-1$
+                checks.expectThrows(sample + " with a damaged stream header", IOException.class, () -> PackageVersionReader.readDebVersion(header)); //$NON-NLS-1$
+            }
+            Path text = Files.write(temp.resolve("text.deb"), "not a package".getBytes(StandardCharsets.US_ASCII)); //$NON-NLS-1$ //$NON-NLS-2$
+            checks.expectThrows("not a Debian package", IOException.class, () -> PackageVersionReader.readDebVersion(text)); //$NON-NLS-1$
+        } finally {
+            Helper.deleteFolderTree(temp.toString());
+        }
+        checks.exit();
+    }
+
+    // Offset of the control.tar.xz member data in an ar archive
+    private static int controlMember(byte[] deb) throws IOException {
+        int position = 8;
+        while (position + 60 <= deb.length) {
+            String header = new String(deb, position, 60, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.substring(48, 58).trim());
+            if (header.startsWith("control.tar.xz")) //$NON-NLS-1$
+                return position + 60;
+            position += 60 + size + (size & 1);
+        }
+        throw new IOException("No control.tar.xz member"); //$NON-NLS-1$
+    }
+
+    /**
+     * Offset of the check of the last block of a single stream .xz member: the index
+     * size is kept in the stream footer and the check is right before the index
+     */
+    private static int blockCheck(byte[] deb, int xz) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(deb).order(ByteOrder.LITTLE_ENDIAN);
+        int header = xz - 60;
+        int size = Integer.parseInt(new String(deb, header + 48, 10, StandardCharsets.US_ASCII).trim());
+        int footer = xz + size - 12;
+        int indexSize = (b.getInt(footer + 4) + 1) * 4;
+        return footer - indexSize - CHECK_SIZES[deb[xz + 7] & 0x0F];
+    }
+}
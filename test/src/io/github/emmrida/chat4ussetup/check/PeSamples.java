@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.check;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the PE samples of test/samples/pe: minimal 32 and 64-bit images laid out as
+ * the Microsoft PE/COFF specification describes them, with a one instruction .text
+ * section and an optional .rsrc section. They are small and free of third party code,
+ * run it again only to change them: java ... PeSamples test/samples/pe
+ */
+public final class PeSamples {
+    private static final int FILE_ALIGNMENT = 0x200;
+    private static final int SECTION_ALIGNMENT = 0x1000;
+    private static final int MACHINE_I386 = 0x14c;
+    private static final int MACHINE_AMD64 = 0x8664;
+    private static final int RT_VERSION = 16;
+    private static final int RT_MANIFEST = 24;
+    private static final int LANG_EN_US = 0x409;
+
+    private PeSamples() { }
+
+    public static void main(String[] args) throws IOException {
+        Path folder = Files.createDirectories(Paths.get(args.length > 0 ? args[0] : "test/samples/pe")); //$NON-NLS-1$
+
+        Map<String, String> strings = new LinkedHashMap<>();
+        strings.put("FileVersion", "1.2.3.4"); //$NON-NLS-1$ //$NON-NLS-2$
+        strings.put("ProductVersion", "1.2.3"); //$NON-NLS-1$ //$NON-NLS-2$
+        write(folder.resolve("version-x86.exe"), image(false, false, resources(RT_VERSION, //$NON-NLS-1$
+                versionInfo(new int[] { 1, 2, 3, 4 }, new int[] { 1, 2, 3, 0 }, false, strings))));
+
+        strings = new LinkedHashMap<>();
+        strings.put("CompanyName", "Chat4Us"); //$NON-NLS-1$ //$NON-NLS-2$
+        strings.put("FileVersion", "0.5.15.2 (release.251019)"); //$NON-NLS-1$ //$NON-NLS-2$
+        strings.put("ProductName", "Chat4Us Sample"); //$NON-NLS-1$ //$NON-NLS-2$
+        strings.put("ProductVersion", "0.5.15"); //$NON-NLS-1$ //$NON-NLS-2$
+        write(folder.resolve("version-x64.dll"), image(true, true, resources(RT_VERSION, //$NON-NLS-1$
+                versionInfo(new int[] { 0, 5, 15, 2 }, new int[] { 0, 5, 15, 0 }, true, strings))));
+
+        write(folder.resolve("fixedonly-x64.exe"), image(true, false, resources(RT_VERSION, //$NON-NLS-1$
+                versionInfo(new int[] { 2, 0, 1, 7 }, new int[] { 2, 0, 0, 0 }, false, null))));
+
+        byte[] manifest = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><assembly xmlns=\"urn:schemas-microsoft-com:asm.v1\" manifestVersion=\"1.0\"/>" //$NON-NLS-1$
+                .getBytes(StandardCharsets.UTF_8);
+        write(folder.resolve("noversion-x64.exe"), image(true, false, resources(RT_MANIFEST, manifest))); //$NON-NLS-1$
+
+        write(folder.resolve("noresource-x86.exe"), image(false, false, null)); //$NON-NLS-1$
+    }
+
+    private static void write(Path file, byte[] data) throws IOException {
+        Files.write(file, data);
+        System.out.println(file + " " + data.length); //$NON-NLS-1$
+    }
+
+    /**
+     * Lays out an image: headers, .text at RVA 0x1000 and .rsrc at RVA 0x2000
+     * @param pe64 true for PE32+ (x64), false for PE32 (x86)
+     * @param dll true for a DLL
+     * @param resources The resource section builder, null for none
+     */
+    private static byte[] image(boolean pe64, boolean dll, Resources resources) {
+        int sections = resources != null ? 2 : 1;
+        int optionalSize = pe64 ? 240 : 224;
+        int headersSize = align(0x40 + 4 + 20 + optionalSize + sections * 40, FILE_ALIGNMENT);
+        int textRva = SECTION_ALIGNMENT;
+        int rsrcRva = 2 * SECTION_ALIGNMENT;
+        byte[] text = { (byte)0xC3 }; // ret
+        byte[] rsrc = resources != null ? resources.build(rsrcRva) : new byte[0];
+        int textRaw = headersSize;
+        int rsrcRaw = textRaw + align(text.length, FILE_ALIGNMENT);
+        int imageSize = (resources != null ? rsrcRva + align(rsrc.length, SECTION_ALIGNMENT) : rsrcRva);
+
+        ByteBuffer b = ByteBuffer.allocate(rsrcRaw + align(rsrc.length, FILE_ALIGNMENT)).order(ByteOrder.LITTLE_ENDIAN);
+        // DOS header
+        b.putShort(0, (short)0x5A4D);
+        b.putInt(0x3C, 0x40);
+        // PE signature and COFF header
+        b.putInt(0x40, 0x00004550);
+        int coff = 0x44;
+        b.putShort(coff, (short)(pe64 ? MACHINE_AMD64 : MACHINE_I386));
+        b.putShort(coff + 2, (short)sections);
+        b.putShort(coff + 16, (short)optionalSize);
+        int characteristics = 0x0002 | (pe64 ? 0x0020 : 0x0100) | (dll ? 0x2000 : 0); // Executable, large address aware or 32-bit, DLL
+        b.putShort(coff + 18, (short)characteristics);
+        // Optional header, standard fields
+        int opt = coff + 20;
+        b.putShort(opt, (short)(pe64 ? 0x20b : 0x10b));
+        b.put(opt + 2, (byte)14); // Linker version
+        b.putInt(opt + 4, FILE_ALIGNMENT); // Size of code
+        b.putInt(opt + 8, resources != null ? align(rsrc.length, FILE_ALIGNMENT) : 0); // Size of initialized data
+        b.putInt(opt + 16, textRva); // Entry point
+        b.putInt(opt + 20, textRva); // Base of code
+        int windows;
+        if (pe64) {
+            b.putLong(opt + 24, dll ? 0x180000000L : 0x140000000L);
+            windows = opt + 32;
+        } else {
+            b.putInt(opt + 24, rsrcRva); // Base of data
+            b.putInt(opt + 28, dll ? 0x10000000 : 0x400000);
+            windows = opt + 32;
+        }
+        // Optional header, Windows fields
+        b.putInt(windows, SECTION_ALIGNMENT);
+        b.putInt(windows + 4, FILE_ALIGNMENT);
+        b.putShort(windows + 8, (short)6); // OS version
+        b.putShort(windows + 16, (short)6); // Subsystem version
+        b.putInt(windows + 24, imageSize);
+        b.putInt(windows + 28, headersSize);
+        b.putShort(windows + 36, (short)3); // Console subsystem
+        b.putShort(windows + 38, (short)0x0100); // NX compatible, no dynamic base without a .reloc section
+        int sizes = windows + 40;
+        int stack = pe64 ? 8 : 4;
+        for (int i = 0; i < 4; i++) { // Stack and heap reserve and commit
+            if (pe64) {
+                b.putLong(sizes + i * stack, i % 2 == 0 ? 0x100000 : 0x1000);
+            } else b.putInt(sizes + i * stack, i % 2 == 0 ? 0x100000 : 0x1000);
+        }
+        int directories = sizes + 4 * stack + 8; // After the loader flags and the directories count
+        b.putInt(directories - 4, 16);
+        if (resources != null) {
+            b.putInt(directories + 2 * 8, rsrcRva);
+            b.putInt(directories + 2 * 8 + 4, rsrc.length);
+        }
+        // Section table
+        int table = opt + optionalSize;
+        section(b, table, ".text", text.length, textRva, FILE_ALIGNMENT, textRaw, 0x60000020); //$NON-NLS-1$ Code, execute, read
+        if (resources != null) {
+            section(b, table + 40, ".rsrc", rsrc.length, rsrcRva, align(rsrc.length, FILE_ALIGNMENT), rsrcRaw, 0x40000040); //$NON-NLS-1$ Initialized data, read
+            b.put(rsrcRaw, rsrc);
+        }
+        b.put(textRaw, text);
+        return b.array();
+    }
+
+    private static void section(ByteBuffer b, int offset, String name, int virtualSize, int rva, int rawSize, int raw, int flags) {
+        byte[] n = name.getBytes(StandardCharsets.US_ASCII);
+        b.put(offset, n);
+        b.putInt(offset + 8, virtualSize);
+        b.putInt(offset + 12, rva);
+        b.putInt(offset + 16, rawSize);
+        b.putInt(offset + 20, raw);
+        b.putInt(offset + 36, flags);
+    }
+
+    private static Resources resources(int type, byte[] data) {
+        return new Resources(type, data);
+    }
+
+    // A resource section with one type, one name (id 1) and one language
+    private static final class Resources {
+        private final int type;
+        private final byte[] data;
+
+        Resources(int type, byte[] data) {
+            this.type = type;
+            this.data = data;
+        }
+
+        /**
+         * Root, name and language directories of one entry each, then the data entry and the data
+         * @param rva The section address, the data entry points at the data by RVA
+         */
+        byte[] build(int rva) {
+            int dataEntry = 3 * 24;
+            int dataOffset = dataEntry + 16;
+            ByteBuffer b = ByteBuffer.allocate(dataOffset + align(data.length, 4)).order(ByteOrder.LITTLE_ENDIAN);
+            directory(b, 0, type, 0x80000000 | 24);
+            directory(b, 24, 1, 0x80000000 | 48);
+            directory(b, 48, LANG_EN_US, dataEntry);
+            b.putInt(dataEntry, rva + dataOffset);
+            b.putInt(dataEntry + 4, data.length);
+            b.putInt(dataEntry + 8, 1252); // Code page
+            b.put(dataOffset, data);
+            return b.array();
+        }
+
+        private static void directory(ByteBuffer b, int offset, int id, int target) {
+            b.putShort(offset + 14, (short)1); // One id entry, no named entry
+            b.putInt(offset + 16, id);
+            b.putInt(offset + 20, target);
+        }
+    }
+
+    /**
+     * Builds a VS_VERSIONINFO block
+     * @param file The VS_FIXEDFILEINFO file version
+     * @param product The VS_FIXEDFILEINFO product version
+     * @param dll true for a DLL file type
+     * @param strings The strings of the 040904b0 table, null for no StringFileInfo
+     */
+    private static byte[] versionInfo(int[] file, int[] product, boolean dll, Map<String, String> strings) {
+        ByteBuffer fixed = ByteBuffer.allocate(52).order(ByteOrder.LITTLE_ENDIAN);
+        fixed.putInt(0xFEEF04BD);
+        fixed.putInt(0x00010000);
+        fixed.putInt(file[0] << 16 | file[1]);
+        fixed.putInt(file[2] << 16 | file[3]);
+        fixed.putInt(product[0] << 16 | product[1]);
+        fixed.putInt(product[2] << 16 | product[3]);
+        fixed.putInt(0x3F); // Flags mask
+        fixed.putInt(0); // Flags
+        fixed.putInt(0x00040004); // VOS_NT_WINDOWS32
+        fixed.putInt(dll ? 2 : 1); // VFT_DLL or VFT_APP
+        List<byte[]> children = new ArrayList<>();
+        if (strings != null) {
+            List<byte[]> entries = new ArrayList<>();
+            for (Map.Entry<String, String> string : strings.entrySet())
+                entries.add(block(string.getKey(), utf16(string.getValue()), string.getValue().length() + 1, 1, List.of()));
+            children.add(block("StringFileInfo", new byte[0], 0, 1, List.of(block("040904b0", new byte[0], 0, 1, entries)))); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        byte[] translation = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putShort((short)LANG_EN_US).putShort((short)1200).array();
+        children.add(block("VarFileInfo", new byte[0], 0, 1, List.of(block("Translation", translation, 4, 0, List.of())))); //$NON-NLS-1$ //$NON-NLS-2$
+        return block("VS_VERSION_INFO", fixed.array(), 52, 0, children); //$NON-NLS-1$
+    }
+
+    /**
+     * Builds a version block: length, value length, type, key, padding, value, padding, children
+     * @param valueLength The value length field, in words for text values
+     */
+    private static byte[] block(String key, byte[] value, int valueLength, int type, List<byte[]> children) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[6]);
+        out.writeBytes(utf16(key));
+        pad(out);
+        out.writeBytes(value);
+        for (byte[] child : children) {
+            pad(out);
+            out.writeBytes(child);
+        }
+        ByteBuffer b = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        b.putShort(0, (short)b.capacity());
+        b.putShort(2, (short)valueLength);
+        b.putShort(4, (short)type);
+        return b.array();
+    }
+
+    // Null terminated UTF-16LE
+    private static byte[] utf16(String text) {
+        return (text + '\0').getBytes(StandardCharsets.UTF_16LE);
+    }
+
+    private static void pad(ByteArrayOutputStream out) {
+        while (out.size() % 4 != 0)
+            out.write(0);
+    }
+
+    private static int align(int value, int alignment) {
+        return (value + alignment - 1) / alignment * alignment;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.check;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import io.github.emmrida.chat4ussetup.util.CrossPlatformVersionReader;
+import io.github.emmrida.chat4ussetup.util.Helper;
+import io.github.emmrida.chat4ussetup.util.Messages;
+import io.github.emmrida.chat4ussetup.util.PeVersionReader;
+import io.github.emmrida.chat4ussetup.util.PeVersionReader.VersionInfo;
+
+/**
+ * PeVersionReader and the .exe/.dll versions of CrossPlatformVersionReader on the
+ * samples of test/samples/pe, see PeSamples for how they are laid out.
+ */
+public final class PeVersionReaderCheck {
+    private PeVersionReaderCheck() { }
+
+    public static void main(String[] args) throws IOException {
+        Path samples = Paths.get(args.length > 0 ? args[0] : "test/samples/pe"); //$NON-NLS-1$
+        Checks checks = new Checks("PeVersionReader"); //$NON-NLS-1$
+
+        VersionInfo info = PeVersionReader.read(samples.resolve("version-x86.exe")); //$NON-NLS-1$
+        checks.expect("x86 FileVersion", "1.2.3.4", info.fileVersion()); //$NON-NLS-1$ //$NON-NLS-2$
+        checks.expect("x86 ProductVersion", "1.2.3", info.productVersion()); //$NON-NLS-1$ //$NON-NLS-2$
+        checks.expect("x86 fixed file version", "1.2.3.4", info.fixedFileVersion()); //$NON-NLS-1$ //$NON-NLS-2$
+        checks.expect("x86 fixed product version", "1.2.3.0", info.fixedProductVersion()); //$NON-NLS-1$ //$NON-NLS-2$
+
+        info = PeVersionReader.read(samples.resolve("version-x64.dll")); //$NON-NLS-1$
+        checks.expect("x64 FileVersion after CompanyName", "0.5.15.2 (release.251019)", info.fileVersion()); //$NON-NLS-1$ //$NON-NLS-2$
+        checks.expect("x64 ProductVersion after ProductName", "0.5.15", info.productVersion()); //$NON-NLS-1$ //$NON-NLS-2$
+        checks.expect("x64 fixed file version", "0.5.15.2", info.fixedFileVersion()); //$NON-NLS-1$ //$NON-NLS-2$
+        checks.expect("x64 extractVersion drops the comment", "0.5.15.2", //$NON-NLS-1$ //$NON-NLS-2$
+                CrossPlatformVersionReader.extractVersion(samples.resolve("version-x64.dll").toString())); //$NON-NLS-1$
+
+        info = PeVersionReader.read(samples.resolve("fixedonly-x64.exe")); //$NON-NLS-1$
+        checks.expect("fixed only FileVersion", null, info.fileVersion()); //$NON-NLS-1$
+        checks.expect("fixed only fixed file version", "2.0.1.7", info.fixedFileVersion()); //$NON-NLS-1$ //$NON-NLS-2$
+        checks.expect("fixed only extractVersion", "2.0.1.7", //$NON-NLS-1$ //$NON-NLS-2$
+                CrossPlatformVersionReader.extractVersion(samples.resolve("fixedonly-x64.exe").toString())); //$NON-NLS-1$
+
+        String notFound = Messages.getString("CrossPlatformVersionReader.LOG_VERSION_NFOUND_IN_WINEX"); //$NON-NLS-1$
+        checks.expect("no RT_VERSION", null, PeVersionReader.read(samples.resolve("noversion-x64.exe"))); //$NON-NLS-1$ //$NON-NLS-2$
+        checks.expect("no RT_VERSION extractVersion", notFound, //$NON-NLS-1$
+                CrossPlatformVersionReader.extractVersion(samples.resolve("noversion-x64.exe").toString())); //$NON-NLS-1$
+        checks.expect("no resource section", null, PeVersionReader.read(samples.resolve("noresource-x86.exe"))); //$NON-NLS-1$ //$NON-NLS-2$
+
+        Path temp = Files.createTempDirectory("chat4us-check-pe-"); //$NON-NLS-1$
+        try {
+            byte[] sample = Files.readAllBytes(samples.resolve("version-x86.exe")); //$NON-NLS-1$
+            Path truncated = Files.write(temp.resolve("truncated.exe"), Arrays.copyOf(sample, 0x100)); //$NON-NLS-1$
+            checks.expectThrows("truncated image", IOException.class, () -> PeVersionReader.read(truncated)); //$NON-NLS-1$
+            Path text = Files.write(temp.resolve("text.exe"), "not a PE file".getBytes(StandardCharsets.US_ASCII)); //$NON-NLS-1$ //$NON-NLS-2$
+            checks.expectThrows("not a PE file", IOException.class, () -> PeVersionReader.read(text)); //$NON-NLS-1$
+        } finally {
+            Helper.deleteFolderTree(temp.toString());
+        }
+        checks.exit();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.check;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Writes the RPM samples of test/samples/rpm as laid out by the RPM v3 file format: the
+ * 96 bytes lead, a signature header padded to 8 bytes and the main header. The samples
+ * hold no payload, PackageVersionReader never reads it. The signature header is 93 bytes
+ * long so that the main header is found only when the padding is applied.
+ * Run it again only to change them: java ... RpmSamples test/samples/rpm
+ */
+public final class RpmSamples {
+    private static final int TYPE_INT32 = 4;
+    private static final int TYPE_STRING = 6;
+    private static final int SIGTAG_SIZE = 1000;
+    private static final int SIGTAG_SHA1 = 269;
+    private static final int TAG_NAME = 1000;
+    private static final int TAG_VERSION = 1001;
+    private static final int TAG_RELEASE = 1002;
+    private static final int TAG_EPOCH = 1003;
+    private static final int TAG_SUMMARY = 1004;
+    private static final int TAG_ARCH = 1022;
+
+    private RpmSamples() { }
+
+    public static void main(String[] args) throws IOException {
+        Path folder = Files.createDirectories(Paths.get(args.length > 0 ? args[0] : "test/samples/rpm")); //$NON-NLS-1$
+        byte[] epoch = rpm("chat4us-sample", 2, "1.4.0", "3.el9"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        write(folder.resolve("sample-epoch.rpm"), epoch); //$NON-NLS-1$
+        write(folder.resolve("sample-noepoch.rpm"), rpm("chat4us-sample", -1, "0.9.1", "1")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        write(folder.resolve("sample-truncated.rpm"), Arrays.copyOf(epoch, 96 + 93 + 3 + 16 + 20)); // Cut in the main header index //$NON-NLS-1$
+        byte[] badMagic = epoch.clone();
+        badMagic[0] = 0;
+        write(folder.resolve("sample-badmagic.rpm"), badMagic); //$NON-NLS-1$
+    }
+
+    private static void write(Path file, byte[] data) throws IOException {
+        Files.write(file, data);
+        System.out.println(file + " " + data.length); //$NON-NLS-1$
+    }
+
+    /**
+     * Builds a package without payload
+     * @param epoch The epoch, negative for none
+     */
+    private static byte[] rpm(String name, int epoch, String version, String release) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Lead: magic, version 3.0, binary package, arch, name, os, header style signature
+        ByteBuffer lead = ByteBuffer.allocate(96);
+        lead.putInt(0xEDABEEDB).put((byte)3).put((byte)0).putShort((short)0).putShort((short)1);
+        byte[] leadName = (name + "-" + version + "-" + release).getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$ //$NON-NLS-2$
+        lead.put(Arrays.copyOf(leadName, 66)).putShort((short)1).putShort((short)5);
+        out.writeBytes(lead.array());
+
+        Header signature = new Header();
+        signature.int32(SIGTAG_SIZE, 4096);
+        signature.string(SIGTAG_SHA1, "5f2b1c3a9e8d7f6a5b4c3d2e1f0a9b8c7d6e5f4a"); //$NON-NLS-1$
+        byte[] sig = signature.build();
+        out.writeBytes(sig);
+        out.writeBytes(new byte[(8 - sig.length % 8) % 8]);
+
+        Header header = new Header();
+        header.string(TAG_NAME, name);
+        header.string(TAG_VERSION, version);
+        header.string(TAG_RELEASE, release);
+        if (epoch >= 0)
+            header.int32(TAG_EPOCH, epoch);
+        header.string(TAG_SUMMARY, "Chat4Us setup sample package"); //$NON-NLS-1$
+        header.string(TAG_ARCH, "noarch"); //$NON-NLS-1$
+        out.writeBytes(header.build());
+        return out.toByteArray();
+    }
+
+    // A header structure: intro, index entries and data store, big-endian
+    private static final class Header {
+        private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream store = new ByteArrayOutputStream();
+        private int entries = 0;
+
+        void string(int tag, String value) {
+            entry(tag, TYPE_STRING, 1);
+            store.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            store.write(0);
+        }
+
+        void int32(int tag, int value) {
+            while (store.size() % 4 != 0)
+                store.write(0);
+            entry(tag, TYPE_INT32, 1);
+            store.writeBytes(ByteBuffer.allocate(4).putInt(value).array());
+        }
+
+        private void entry(int tag, int type, int count) {
+            index.writeBytes(ByteBuffer.allocate(16).putInt(tag).putInt(type).putInt(store.size()).putInt(count).array());
+            entries++;
+        }
+
+        byte[] build() {
+            ByteBuffer intro = ByteBuffer.allocate(16).putInt(0x8EADE801).putInt(0).putInt(entries).putInt(store.size());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.writeBytes(intro.array());
+            out.writeBytes(index.toByteArray());
+            out.writeBytes(store.toByteArray());
+            return out.toByteArray();
+        }
+    }
+}
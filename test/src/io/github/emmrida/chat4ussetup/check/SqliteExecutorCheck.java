@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2025 El Mhadder Mohamed Rida. All rights reserved.
+ * This code is licensed under the [MIT License](https://opensource.org/licenses/MIT).
+ */
+package io.github.emmrida.chat4ussetup.check;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.emmrida.chat4ussetup.util.Helper;
+import io.github.emmrida.chat4ussetup.util.Helper.KeyValue;
+import io.github.emmrida.chat4ussetup.util.SqliteExecutor;
+
+/**
+ * SqliteExecutor batches consecutive statements of the same shape with their literals bound
+ * as parameters. The same statements run one by one on a second database must give the same
+ * rows, including literals that are not values: GROUP BY 1, ORDER BY 1 and DECIMAL(10,2).
+ * Needs sqlite-jdbc on the class path.
+ */
+public final class SqliteExecutorCheck {
+    private SqliteExecutorCheck() { }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        Checks checks = new Checks("SqliteExecutor"); //$NON-NLS-1$
+        List<String> sql = new ArrayList<>();
+        sql.add("CREATE TABLE src (k TEXT)"); //$NON-NLS-1$
+        sql.add("INSERT INTO src VALUES ('a')"); //$NON-NLS-1$
+        sql.add("INSERT INTO src VALUES ('a')"); //$NON-NLS-1$
+        sql.add("INSERT INTO src VALUES ('b')"); //$NON-NLS-1$
+        sql.add("CREATE TABLE grouped (k TEXT, n INTEGER)"); //$NON-NLS-1$
+        sql.add("INSERT INTO grouped SELECT k, 10 FROM src GROUP BY 1"); //$NON-NLS-1$
+        sql.add("INSERT INTO grouped SELECT k, 20 FROM src GROUP BY 1"); //$NON-NLS-1$
+        sql.add("INSERT INTO grouped SELECT k, 30 FROM src ORDER BY 1 DESC LIMIT 1"); //$NON-NLS-1$
+        sql.add("INSERT INTO grouped SELECT k, 40 FROM src ORDER BY 1 DESC LIMIT 1"); //$NON-NLS-1$
+        sql.add("CREATE TABLE amounts (id INTEGER PRIMARY KEY, amount)"); //$NON-NLS-1$
+        sql.add("INSERT INTO amounts VALUES (1, CAST('1.5' AS DECIMAL(10,2)))"); //$NON-NLS-1$
+        sql.add("INSERT INTO amounts VALUES (2, CAST('1.5' AS DECIMAL(10,2)))"); //$NON-NLS-1$
+        sql.add("CREATE TABLE t (id INTEGER PRIMARY KEY, name TEXT, r REAL, b BLOB, n)"); //$NON-NLS-1$
+        for (int i = 0; i < 2000; i++)
+            sql.add("INSERT INTO t (id, name, r, b, n) VALUES (" + i + ", 'it''s " + i + "', " + (i / 3.0) + "e0, X'0A" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                + String.format("%02x", i % 256) + "', -" + i + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        sql.add("UPDATE t SET name = 'x' || name, n = -5 WHERE id = 5"); //$NON-NLS-1$
+        sql.add("UPDATE t SET name = 'y' || name, n = -6 WHERE id = 6"); //$NON-NLS-1$
+        sql.add("DELETE FROM t WHERE id = 7 -- it's a comment"); //$NON-NLS-1$
+        sql.add("DELETE FROM t WHERE id = 8 /* 9 */"); //$NON-NLS-1$
+        sql.add("DELETE FROM t WHERE id IN (10, 11)"); //$NON-NLS-1$
+        sql.add("DELETE FROM t WHERE id IN (12, 13)"); //$NON-NLS-1$
+        sql.add("INSERT INTO t (id, name) VALUES (1, 'one') ON CONFLICT(id) DO UPDATE SET name = 'conflict 1'"); //$NON-NLS-1$
+        sql.add("INSERT INTO t (id, name) VALUES (2, 'two') ON CONFLICT(id) DO UPDATE SET name = 'conflict 2'"); //$NON-NLS-1$
+        sql.add("INSERT INTO t (id, name) VALUES (99999, \"name\")"); //$NON-NLS-1$
+
+        Path folder = Files.createTempDirectory("chat4us-check-sqlite-"); //$NON-NLS-1$
+        try {
+            String batched = folder.resolve("batched.db").toString(); //$NON-NLS-1$
+            String single = folder.resolve("single.db").toString(); //$NON-NLS-1$
+            List<KeyValue> tasks = new ArrayList<>();
+            for (String statement : sql)
+                tasks.add(new KeyValue("sql", statement)); //$NON-NLS-1$
+            checks.expect("executed statements", sql.size(), new SqliteExecutor(tasks).execute(batched).executed().size()); //$NON-NLS-1$
+            try (Connection con = DriverManager.getConnection("jdbc:sqlite:" + single); Statement stmt = con.createStatement()) { //$NON-NLS-1$
+                con.setAutoCommit(false);
+                for (String statement : sql)
+                    stmt.executeUpdate(statement);
+                con.commit();
+            }
+            checks.expect("GROUP BY 1 keeps its column", 4, count(batched, "SELECT count(*) FROM grouped WHERE n IN (10, 20)")); //$NON-NLS-1$ //$NON-NLS-2$
+            checks.expect("DECIMAL(10,2) in batched inserts", 2, count(batched, "SELECT count(*) FROM amounts")); //$NON-NLS-1$ //$NON-NLS-2$
+            for (String query : new String[] {
+                    "SELECT k, n FROM grouped ORDER BY n, k", //$NON-NLS-1$
+                    "SELECT id, quote(amount) FROM amounts ORDER BY id", //$NON-NLS-1$
+                    "SELECT id, name, typeof(r), quote(r), quote(b), quote(n), typeof(n) FROM t ORDER BY id" }) //$NON-NLS-1$
+                checks.expect("same rows as one by one: " + query, dump(single, query), dump(batched, query)); //$NON-NLS-1$
+            checks.expect("rerun executes nothing", 0, new SqliteExecutor(tasks).execute(batched).executed().size()); //$NON-NLS-1$
+
+            tasks.add(new KeyValue("sql", "INSERT INTO missing VALUES (1)")); //$NON-NLS-1$ //$NON-NLS-2$
+            tasks.add(new KeyValue("pragma", "cache_size=-4000")); //$NON-NLS-1$ //$NON-NLS-2$
+            String failing = folder.resolve("failing.db").toString(); //$NON-NLS-1$
+            checks.expectThrows("failed migration restored", SQLException.class, () -> new SqliteExecutor(tasks).execute(failing)); //$NON-NLS-1$
+            checks.expect("restored database holds no table of the migration", 0, //$NON-NLS-1$
+                    count(failing, "SELECT count(*) FROM sqlite_master WHERE name = 't'")); //$NON-NLS-1$
+        } finally {
+            Helper.deleteFolderTree(folder.toString());
+        }
+        checks.exit();
+    }
+
+    private static int count(String db, String query) throws SQLException {
+        try (Connection con = DriverManager.getConnection("jdbc:sqlite:" + db); ResultSet rs = con.createStatement().executeQuery(query)) { //$NON-NLS-1$
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+
+    private static List<String> dump(String db, String query) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Connection con = DriverManager.getConnection("jdbc:sqlite:" + db); ResultSet rs = con.createStatement().executeQuery(query)) { //$NON-NLS-1$
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columns; i++)
+                    row.append(rs.getString(i)).append('|');
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+}